@@ -1,10 +1,18 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        // Virtual threads back the asynchronous DAO API.
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -14,7 +22,9 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
 
     implementation ("org.postgresql:postgresql:42.6.0")
+    implementation ("com.zaxxer:HikariCP:5.0.1")
 
+    jmh ("io.zonky.test:embedded-postgres:2.0.4")
 }
 
 tasks.test {
@@ -24,3 +34,15 @@ tasks.test {
 tasks.withType<JavaCompile> {
     options.compilerArgs.add("-Xlint:deprecation")
 }
+
+// Benchmarks live in src/jmh/java. Run them with `gradlew jmh`; they use the
+// database given by -Dquiz.bench.url (plus .user/.password) or start an
+// embedded PostgreSQL when none is given.
+jmh {
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    includes.set(listOfNotNull(project.findProperty("jmhInclude") as String?))
+    jvmArgsAppend.set(System.getProperties().stringPropertyNames()
+        .filter { it.startsWith("quiz.bench.") }
+        .map { "-D$it=${System.getProperty(it)}" })
+}
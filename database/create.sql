@@ -29,3 +29,54 @@ ALTER TABLE question
         FOREIGN KEY (quiz_id)
             REFERENCES quiz(id)
             ON DELETE CASCADE;
+
+-- Index the foreign keys and the topic (see migrations/V2__index_foreign_keys.sql)
+CREATE INDEX quiz_topic_idx ON quiz (topic);
+CREATE INDEX question_quiz_id_idx ON question (quiz_id);
+CREATE INDEX response_question_id_idx ON response (question_id);
+
+-- Player answers, written in batches by AnswerWriter (see migrations/V3__create_answer_table.sql)
+CREATE TABLE answer (
+                        id BIGSERIAL PRIMARY KEY,
+                        player VARCHAR(255) NOT NULL,
+                        question_id INT NOT NULL REFERENCES question(id) ON DELETE CASCADE,
+                        response_id INT NOT NULL,
+                        correct BOOLEAN NOT NULL,
+                        answered_at TIMESTAMPTZ NOT NULL
+);
+CREATE INDEX answer_question_id_idx ON answer (question_id);
+CREATE INDEX answer_player_idx ON answer (player);
+
+-- Leaderboard snapshots (see migrations/V4__create_leaderboard_snapshot_table.sql)
+CREATE TABLE leaderboard_snapshot (
+                        board VARCHAR(300) NOT NULL,
+                        player VARCHAR(255) NOT NULL,
+                        score BIGINT NOT NULL,
+                        PRIMARY KEY (board, player)
+);
+
+-- Full-text search columns and indexes (see migrations/V5__add_full_text_search.sql)
+ALTER TABLE question
+    ADD COLUMN content_tsv tsvector GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+ALTER TABLE response
+    ADD COLUMN text_tsv tsvector GENERATED ALWAYS AS (to_tsvector('english', text)) STORED;
+CREATE INDEX question_content_tsv_idx ON question USING GIN (content_tsv);
+CREATE INDEX response_text_tsv_idx ON response USING GIN (text_tsv);
+
+-- Rolling answer counters (see migrations/V6__create_answer_stats_tables.sql)
+CREATE TABLE question_stats (
+                        question_id INT PRIMARY KEY REFERENCES question(id) ON DELETE CASCADE,
+                        quiz_id INT NOT NULL,
+                        answered BIGINT NOT NULL,
+                        correct BIGINT NOT NULL,
+                        correct_ratio DOUBLE PRECISION
+                            GENERATED ALWAYS AS (correct::float8 / NULLIF(answered, 0)) STORED,
+                        updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX question_stats_rank_idx ON question_stats (quiz_id, correct_ratio, answered DESC, question_id);
+CREATE TABLE response_stats (
+                        response_id INT PRIMARY KEY REFERENCES response(id) ON DELETE CASCADE,
+                        question_id INT NOT NULL,
+                        picks BIGINT NOT NULL
+);
+CREATE INDEX response_stats_question_id_idx ON response_stats (question_id);
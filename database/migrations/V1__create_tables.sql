@@ -0,0 +1,23 @@
+-- Baseline schema, identical to create.sql but safe to run on an existing database.
+
+-- Create the 'quiz' table
+CREATE TABLE IF NOT EXISTS quiz (
+                      id SERIAL PRIMARY KEY,
+                      topic VARCHAR(255) NOT NULL,
+                      difficulty INT NOT NULL
+);
+
+-- Create the 'question' table
+CREATE TABLE IF NOT EXISTS question (
+                          id SERIAL PRIMARY KEY,
+                          content TEXT NOT NULL,
+                          quiz_id INT REFERENCES quiz(id) ON DELETE CASCADE
+);
+
+-- Create the 'response' table
+CREATE TABLE IF NOT EXISTS response (
+                          id SERIAL PRIMARY KEY,
+                          text TEXT NOT NULL,
+                          correct BOOLEAN NOT NULL,
+                          question_id INT REFERENCES question(id) ON DELETE CASCADE
+);
@@ -0,0 +1,4 @@
+-- Index the columns used by topic searches, response lookups and cascading deletes.
+CREATE INDEX IF NOT EXISTS quiz_topic_idx ON quiz (topic);
+CREATE INDEX IF NOT EXISTS question_quiz_id_idx ON question (quiz_id);
+CREATE INDEX IF NOT EXISTS response_question_id_idx ON response (question_id);
@@ -0,0 +1,12 @@
+-- Player answers, written in batches by AnswerWriter.
+CREATE TABLE IF NOT EXISTS answer (
+                        id BIGSERIAL PRIMARY KEY,
+                        player VARCHAR(255) NOT NULL,
+                        question_id INT NOT NULL REFERENCES question(id) ON DELETE CASCADE,
+                        response_id INT NOT NULL,
+                        correct BOOLEAN NOT NULL,
+                        answered_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS answer_question_id_idx ON answer (question_id);
+CREATE INDEX IF NOT EXISTS answer_player_idx ON answer (player);
@@ -0,0 +1,7 @@
+-- Leaderboard snapshots, replaced board by board by Leaderboards.snapshot.
+CREATE TABLE IF NOT EXISTS leaderboard_snapshot (
+                        board VARCHAR(300) NOT NULL,
+                        player VARCHAR(255) NOT NULL,
+                        score BIGINT NOT NULL,
+                        PRIMARY KEY (board, player)
+);
@@ -0,0 +1,10 @@
+-- Full-text search over question content and response text, used by DaoQuestion.searchQuestions.
+ALTER TABLE question
+    ADD COLUMN IF NOT EXISTS content_tsv tsvector
+        GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+ALTER TABLE response
+    ADD COLUMN IF NOT EXISTS text_tsv tsvector
+        GENERATED ALWAYS AS (to_tsvector('english', text)) STORED;
+
+CREATE INDEX IF NOT EXISTS question_content_tsv_idx ON question USING GIN (content_tsv);
+CREATE INDEX IF NOT EXISTS response_text_tsv_idx ON response USING GIN (text_tsv);
@@ -0,0 +1,21 @@
+-- Rolling answer counters, incremented by AnswerStatistics.flush.
+CREATE TABLE IF NOT EXISTS question_stats (
+                        question_id INT PRIMARY KEY REFERENCES question(id) ON DELETE CASCADE,
+                        quiz_id INT NOT NULL,
+                        answered BIGINT NOT NULL,
+                        correct BIGINT NOT NULL,
+                        correct_ratio DOUBLE PRECISION
+                            GENERATED ALWAYS AS (correct::float8 / NULLIF(answered, 0)) STORED,
+                        updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Lets AnswerStatistics.hardestQuestions read each quiz in rank order and stop after the first N.
+CREATE INDEX IF NOT EXISTS question_stats_rank_idx ON question_stats (quiz_id, correct_ratio, answered DESC, question_id);
+
+CREATE TABLE IF NOT EXISTS response_stats (
+                        response_id INT PRIMARY KEY REFERENCES response(id) ON DELETE CASCADE,
+                        question_id INT NOT NULL,
+                        picks BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS response_stats_question_id_idx ON response_stats (question_id);
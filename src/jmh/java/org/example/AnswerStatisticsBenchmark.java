@@ -0,0 +1,84 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures AnswerStatistics: how many answers per second several threads can record into
+ * the in-memory counters, and the latency of ranking the hardest questions of a topic of
+ * 100k questions from the flushed rows.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AnswerStatisticsBenchmark {
+
+    private static final String TOPIC = "bench-stats";
+    private static final int QUESTIONS = 100_000;
+
+    private HikariDataSource dataSource;
+    private AnswerStatistics statistics;
+    private TopicBank bank;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.seedTopic(TOPIC, QUESTIONS, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.refreshTopic(TOPIC);
+        bank = quizEngine.topic(TOPIC);
+        statistics = new AnswerStatistics();
+        // Ten answers per question, each question with its own chance of being answered correctly.
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < bank.size(); i++) {
+            double correctChance = random.nextDouble();
+            for (int j = 0; j < 10; j++) {
+                boolean correct = random.nextDouble() < correctChance;
+                int response = correct ? 0 : 1 + random.nextInt(bank.responseCount(i) - 1);
+                statistics.record(bank.questionId(i), bank.responseId(i, response), correct);
+            }
+        }
+        statistics.flush(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public void record() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int question = random.nextInt(bank.size());
+        int response = random.nextInt(bank.responseCount(question));
+        statistics.record(bank.questionId(question), bank.responseId(question, response), response == 0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<AnswerStatistics.QuestionStatistics> hardestQuestions() throws SQLException {
+        return AnswerStatistics.hardestQuestions(dataSource, TOPIC, 10, 5);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Load test for the answer pipeline: several threads submit random answers from 10k
+ * players and the AnswerWriter persists them with COPY. The score is accepted
+ * submissions per second; the rejected counter shows how often backpressure kicked in,
+ * and the duplicate counter how often a player drew a question they had already answered.
+ * Each iteration starts with a fresh scoreboard, so duplicates stay rare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(4)
+public class AnswerSubmissionBenchmark {
+
+    private static final String TOPIC = "bench-answers";
+    private static final int PLAYERS = 10_000;
+
+    private HikariDataSource dataSource;
+    private AnswerWriter answerWriter;
+    private CorrectAnswerIndex answerIndex;
+    private AnswerService answerService;
+    private TopicBank bank;
+    private String[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.seedTopic(TOPIC, 1000, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.refreshTopic(TOPIC);
+        bank = quizEngine.topic(TOPIC);
+        players = new String[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = "player-" + i;
+        }
+        answerWriter = new AnswerWriter(dataSource, 100_000, 10_000, 20);
+        answerIndex = CorrectAnswerIndex.of(quizEngine);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        answerService = new AnswerService(answerIndex, new Scoreboard(), answerWriter, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        answerWriter.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public SubmissionResult submit(Counters counters) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int question = random.nextInt(bank.size());
+        int response = random.nextInt(bank.responseCount(question));
+        SubmissionResult result = answerService.submit(players[random.nextInt(PLAYERS)],
+                bank.questionId(question), bank.responseId(question, response));
+        if (result == SubmissionResult.REJECTED) {
+            counters.rejected++;
+        } else if (result == SubmissionResult.DUPLICATE) {
+            counters.duplicate++;
+        }
+        return result;
+    }
+
+    /**
+     * Per-thread counters reported next to the throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long rejected;
+        public long duplicate;
+    }
+}
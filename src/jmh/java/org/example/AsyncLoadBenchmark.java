@@ -0,0 +1,62 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+/**
+ * Load test for AsyncDaoQuestion: each invocation simulates 10k players searching a
+ * topic at the same moment. Scores are completed searches per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AsyncLoadBenchmark {
+
+    private static final int PLAYERS = 10_000;
+    private static final String TOPIC = "bench-players";
+
+    private HikariDataSource dataSource;
+    private AsyncDaoQuestion asyncDaoQuestion;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.seedTopic(TOPIC, 20, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(DatabaseConfig.MAX_POOL_SIZE);
+        asyncDaoQuestion = new AsyncDaoQuestion(new DaoQuestion(dataSource), dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncDaoQuestion.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PLAYERS)
+    public int concurrentPlayers() {
+        CompletableFuture<?>[] searches = new CompletableFuture<?>[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            searches[i] = asyncDaoQuestion.searchQuestionByTopicAsync(TOPIC);
+        }
+        CompletableFuture.allOf(searches).join();
+        return searches.length;
+    }
+}
@@ -0,0 +1,169 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * The BenchmarkDatabase class provides the database the benchmarks run against.
+ * It connects to the PostgreSQL given by the quiz.bench.url, quiz.bench.user and
+ * quiz.bench.password system properties, or starts an embedded PostgreSQL when no
+ * url is given. The schema is brought up to date with SchemaMigrator.
+ */
+public final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Returns a data source that opens a new physical connection per call.
+     *
+     * @return The unpooled data source of the benchmark database.
+     */
+    public static synchronized DataSource dataSource() throws SQLException {
+        if (dataSource == null) {
+            String url = System.getProperty("quiz.bench.url");
+            if (url != null) {
+                PGSimpleDataSource simpleDataSource = new PGSimpleDataSource();
+                simpleDataSource.setUrl(url);
+                simpleDataSource.setUser(System.getProperty("quiz.bench.user", "postgres"));
+                simpleDataSource.setPassword(System.getProperty("quiz.bench.password", ""));
+                simpleDataSource.setReWriteBatchedInserts(true);
+                dataSource = simpleDataSource;
+            } else {
+                try {
+                    embeddedPostgres = EmbeddedPostgres.builder().start();
+                } catch (IOException e) {
+                    throw new SQLException("Could not start embedded PostgreSQL", e);
+                }
+                dataSource = embeddedPostgres.getPostgresDatabase();
+            }
+            createSchema(dataSource);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Creates a connection pool over the benchmark database.
+     *
+     * @param maxPoolSize The maximum number of pooled connections.
+     * @return A pooled data source; close it when the benchmark ends.
+     */
+    public static HikariDataSource pooledDataSource(int maxPoolSize) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(dataSource());
+        config.setMaximumPoolSize(maxPoolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Creates a connection pool over the benchmark database whose connections use the given
+     * server-side prepare threshold.
+     *
+     * @param maxPoolSize      The maximum number of pooled connections.
+     * @param prepareThreshold Executions before a statement is prepared on the server; 0 never prepares.
+     * @return A pooled data source; close it when the benchmark ends.
+     */
+    public static HikariDataSource pooledDataSource(int maxPoolSize, int prepareThreshold) throws SQLException {
+        PGSimpleDataSource shared = dataSource().unwrap(PGSimpleDataSource.class);
+        PGSimpleDataSource source = new PGSimpleDataSource();
+        source.setUrl(shared.getUrl());
+        source.setUser(shared.getUser());
+        source.setPassword(shared.getPassword());
+        source.setPrepareThreshold(prepareThreshold);
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(source);
+        config.setMaximumPoolSize(maxPoolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Builds an in-memory quiz graph.
+     *
+     * @param topic                 The topic of the quiz.
+     * @param questionCount         The number of questions.
+     * @param responsesPerQuestion  The number of responses per question; the first one is correct.
+     * @return The quiz with its questions and responses, without ids.
+     */
+    public static Quiz quiz(String topic, int questionCount, int responsesPerQuestion) {
+        Quiz quiz = new Quiz();
+        quiz.setTopic(topic);
+        quiz.setDifficulty(1 + questionCount % 5);
+        List<Question> questions = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            Question question = new Question();
+            question.setContent("Question " + i + " about " + topic);
+            for (int j = 0; j < responsesPerQuestion; j++) {
+                question.addResponse(new Response("Response " + j, j == 0));
+            }
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    /**
+     * Makes sure a topic holds exactly one quiz with the given number of questions,
+     * importing it with COPY if it does not exist yet.
+     *
+     * @return The id of the quiz.
+     */
+    public static int seedTopic(String topic, int questionCount, int responsesPerQuestion) throws SQLException {
+        DataSource source = dataSource();
+        try (Connection connection = source.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "SELECT id, (SELECT count(*) FROM question WHERE quiz_id = quiz.id) FROM quiz WHERE topic = ?")) {
+            preparedStatement.setString(1, topic);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    int quizId = resultSet.getInt(1);
+                    boolean matches = resultSet.getInt(2) == questionCount;
+                    if (matches && !resultSet.next()) {
+                        return quizId;
+                    }
+                }
+            }
+        }
+        deleteTopic(topic);
+        Quiz quiz = quiz(topic, questionCount, responsesPerQuestion);
+        new QuizImporter(source).importQuizzes(List.of(quiz));
+        try (Connection connection = source.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        return quiz.getId();
+    }
+
+    /**
+     * Deletes every quiz of a topic together with its questions and responses.
+     */
+    public static void deleteTopic(String topic) throws SQLException {
+        try (Connection connection = dataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM quiz WHERE topic = ?")) {
+            preparedStatement.setString(1, topic);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private static void createSchema(DataSource source) throws SQLException {
+        Path migrations = Path.of(System.getProperty("quiz.bench.schemaDir", "database"), "migrations");
+        try {
+            new SchemaMigrator(source, migrations).migrate();
+        } catch (IOException e) {
+            throw new SQLException("Could not read the schema migrations", e);
+        }
+    }
+
+    private static DataSource dataSource;
+    private static EmbeddedPostgres embeddedPostgres;
+}
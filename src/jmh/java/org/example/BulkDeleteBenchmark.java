@@ -0,0 +1,102 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Compares the bulk deleteQuestions, deleteQuiz and moveQuestions operations with
+ * retiring or moving the same questions one call at a time. Every invocation works
+ * on a freshly imported quiz of 1000 questions with 4 responses each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkDeleteBenchmark {
+
+    private static final String TOPIC = "bench-bulk";
+    private static final String TARGET_TOPIC = "bench-bulk-target";
+    private static final int QUESTIONS = 1000;
+    private static final int RESPONSES = 4;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private int targetQuizId;
+    private Quiz quiz;
+    private int[] questionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuestion = new DaoQuestion(dataSource);
+        targetQuizId = BenchmarkDatabase.seedTopic(TARGET_TOPIC, 0, 0);
+    }
+
+    @Setup(Level.Invocation)
+    public void importQuiz() throws SQLException {
+        quiz = BenchmarkDatabase.quiz(TOPIC, QUESTIONS, RESPONSES);
+        new QuizImporter(dataSource).importQuizzes(List.of(quiz));
+        questionIds = quiz.getQuestions().stream().mapToInt(Question::getId).toArray();
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanUp() throws SQLException {
+        BenchmarkDatabase.deleteTopic(TOPIC);
+        daoQuestion.deleteQuestions(questionIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.deleteTopic(TARGET_TOPIC);
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int deleteQuestionLoop() {
+        for (int questionId : questionIds) {
+            daoQuestion.deleteQuestion(questionId);
+        }
+        return questionIds.length;
+    }
+
+    @Benchmark
+    public BulkWriteResult deleteQuestions() {
+        return daoQuestion.deleteQuestions(questionIds);
+    }
+
+    @Benchmark
+    public BulkWriteResult deleteQuiz() {
+        return daoQuestion.deleteQuiz(quiz.getId());
+    }
+
+    @Benchmark
+    public int moveQuestionLoop() {
+        // Without a bulk move, each question is rewritten through updateQuestion.
+        for (Question question : quiz.getQuestions()) {
+            question.setQuizId(targetQuizId);
+            daoQuestion.updateQuestion(question);
+        }
+        return questionIds.length;
+    }
+
+    @Benchmark
+    public BulkWriteResult moveQuestions() {
+        return daoQuestion.moveQuestions(questionIds, targetQuizId);
+    }
+}
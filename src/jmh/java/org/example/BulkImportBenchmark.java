@@ -0,0 +1,87 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Compares QuizImporter with calling saveQuestion in a loop. Scores are rows per
+ * second, counting the quiz, question and response rows of each imported quiz.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    private static final String TOPIC = "bench-import";
+    private static final int QUESTIONS = 1000;
+    private static final int RESPONSES = 4;
+    private static final int ROWS = 1 + QUESTIONS * (1 + RESPONSES);
+
+    private HikariDataSource dataSource;
+    private QuizImporter quizImporter;
+    private DaoQuestion daoQuestion;
+    private int loopQuizId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.pooledDataSource(4);
+        quizImporter = new QuizImporter(dataSource);
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    @Setup(Level.Iteration)
+    public void createLoopQuiz() throws SQLException {
+        Quiz quiz = BenchmarkDatabase.quiz(TOPIC, 0, 0);
+        quizImporter.importQuizzes(List.of(quiz));
+        loopQuizId = quiz.getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws SQLException {
+        BenchmarkDatabase.deleteTopic(TOPIC);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportResult copyImport() throws SQLException {
+        return quizImporter.importQuizzes(List.of(BenchmarkDatabase.quiz(TOPIC, QUESTIONS, RESPONSES)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int saveQuestionLoop() {
+        // The quiz row itself is created once per iteration; the loop writes the rest.
+        Quiz quiz = BenchmarkDatabase.quiz(TOPIC, QUESTIONS, RESPONSES);
+        int saved = 0;
+        for (Question question : quiz.getQuestions()) {
+            question.setQuizId(loopQuizId);
+            if (daoQuestion.saveQuestion(question)) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+}
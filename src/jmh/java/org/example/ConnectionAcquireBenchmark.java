@@ -0,0 +1,59 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+/**
+ * Compares the cost of acquiring and releasing a connection with and without the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ConnectionAcquireBenchmark {
+
+    private DataSource unpooled;
+    private HikariDataSource pooled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        unpooled = BenchmarkDatabase.dataSource();
+        pooled = BenchmarkDatabase.pooledDataSource(DatabaseConfig.MAX_POOL_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pooled.close();
+    }
+
+    @Benchmark
+    public boolean unpooledConnection() throws SQLException {
+        try (Connection connection = unpooled.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public boolean pooledConnection() throws SQLException {
+        try (Connection connection = pooled.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures the DaoQuestion operations against topics of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class DaoQuestionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int questionsPerTopic;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private String topic;
+    private int quizId;
+    private Question updated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        topic = "bench-" + questionsPerTopic;
+        quizId = BenchmarkDatabase.seedTopic(topic, questionsPerTopic, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(4);
+        daoQuestion = new DaoQuestion(dataSource);
+        updated = newQuestion(quizId);
+        daoQuestion.saveQuestion(updated);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Question> searchQuestionByTopic() {
+        return daoQuestion.searchQuestionByTopic(topic, FetchMode.JOIN);
+    }
+
+    @Benchmark
+    public List<Question> searchQuestionByTopicPerQuestion() {
+        return daoQuestion.searchQuestionByTopic(topic, FetchMode.PER_QUESTION);
+    }
+
+    @Benchmark
+    public boolean saveQuestion(DeleteAfterSave state) {
+        state.question = newQuestion(quizId);
+        return daoQuestion.saveQuestion(state.question);
+    }
+
+    @Benchmark
+    public void updateQuestion() {
+        // Alternate the content and one response so every call has something to write.
+        boolean flip = !updated.getResponses().get(0).isCorrect();
+        updated.setContent(flip ? "Updated question" : "Question");
+        updated.getResponses().get(0).setCorrect(flip);
+        daoQuestion.updateQuestion(updated);
+    }
+
+    @Benchmark
+    public void deleteQuestion(SavedQuestion state) {
+        daoQuestion.deleteQuestion(state.question.getId());
+    }
+
+    static Question newQuestion(int quizId) {
+        Question question = new Question();
+        question.setContent("Question");
+        question.setQuizId(quizId);
+        for (int i = 0; i < 4; i++) {
+            question.addResponse(new Response("Response " + i, i == 0));
+        }
+        return question;
+    }
+
+    /**
+     * Removes the question saved by an invocation so the topic keeps its size.
+     */
+    @State(Scope.Thread)
+    public static class DeleteAfterSave {
+        Question question;
+
+        @TearDown(Level.Invocation)
+        public void delete(DaoQuestionBenchmark benchmark) {
+            if (question != null) {
+                benchmark.daoQuestion.deleteQuestion(question.getId());
+            }
+        }
+    }
+
+    /**
+     * Saves a fresh question before each invocation for the delete benchmark.
+     */
+    @State(Scope.Thread)
+    public static class SavedQuestion {
+        Question question;
+
+        @Setup(Level.Invocation)
+        public void save(DaoQuestionBenchmark benchmark) {
+            question = newQuestion(benchmark.quizId);
+            benchmark.daoQuestion.saveQuestion(question);
+        }
+    }
+}
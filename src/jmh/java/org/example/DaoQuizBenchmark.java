@@ -0,0 +1,82 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures materializing a full Quiz graph with DaoQuiz, eagerly and lazily, against
+ * assembling the same questions with DaoQuestion.searchQuestionByTopic. Run with
+ * -prof gc to compare the allocation per graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class DaoQuizBenchmark {
+
+    @Param({"1000", "100000"})
+    public int questionCount;
+
+    private HikariDataSource dataSource;
+    private DaoQuiz daoQuiz;
+    private DaoQuestion daoQuestion;
+    private String topic;
+    private int quizId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        topic = "bench-quiz-graph-" + questionCount;
+        quizId = BenchmarkDatabase.seedTopic(topic, questionCount, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuiz = new DaoQuiz(dataSource);
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Quiz findQuizEager() {
+        return daoQuiz.findQuiz(quizId);
+    }
+
+    @Benchmark
+    public Quiz findQuizLazy() {
+        return daoQuiz.findQuiz(quizId, LoadMode.LAZY);
+    }
+
+    @Benchmark
+    public int findQuizLazyThenResponses() {
+        // The first access loads the responses of the whole graph with one more query.
+        Quiz quiz = daoQuiz.findQuiz(quizId, LoadMode.LAZY);
+        int responses = 0;
+        for (Question question : quiz.getQuestions()) {
+            responses += question.getResponses().size();
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<Question> searchQuestionByTopic() {
+        return daoQuestion.searchQuestionByTopic(topic);
+    }
+}
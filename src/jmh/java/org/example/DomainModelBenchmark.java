@@ -0,0 +1,47 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures building and copying in-memory Question/Response graphs without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainModelBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int questionCount;
+
+    private List<Question> questions;
+
+    @Setup
+    public void setUp() {
+        questions = BenchmarkDatabase.quiz("bench-model", questionCount, 4).getQuestions();
+    }
+
+    @Benchmark
+    public Quiz buildGraph() {
+        return BenchmarkDatabase.quiz("bench-model", questionCount, 4);
+    }
+
+    @Benchmark
+    public List<Question> copyGraph() {
+        return QuestionCache.copyOf(questions);
+    }
+}
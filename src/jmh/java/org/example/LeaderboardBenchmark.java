@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures score updates, top-k reads and rank lookups on a Leaderboard with a million
+ * players. Update and rank cost should grow with log n, top-k only with k.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LeaderboardBenchmark {
+
+    @Param({"1000000"})
+    public int players;
+
+    @Param({"10"})
+    public int k;
+
+    private Leaderboard leaderboard;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaderboard = new Leaderboard("bench");
+        names = new String[players];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < players; i++) {
+            names[i] = "player-" + i;
+            leaderboard.setScore(names[i], random.nextInt(1000));
+        }
+    }
+
+    @Benchmark
+    public long addScore() {
+        return leaderboard.addScore(names[ThreadLocalRandom.current().nextInt(players)], 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long addScoreContended() {
+        return addScore();
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> top() {
+        return leaderboard.top(k);
+    }
+
+    @Benchmark
+    public long rank() {
+        return leaderboard.rank(names[ThreadLocalRandom.current().nextInt(players)]);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures the cost DaoMetrics adds to every DAO call. Run with -prof gc to
+ * confirm the recording path does not allocate; compare the score with the
+ * microsecond-scale DaoQuestionBenchmark results to see the relative overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final DaoMetrics metrics = new DaoMetrics();
+
+    @Benchmark
+    public void recordOperation() {
+        // Mirrors what a DAO call records: one connection, one statement, a few rows and the latency.
+        long start = System.nanoTime();
+        metrics.recordConnectionAcquire(start);
+        metrics.recordStatements(1);
+        metrics.recordRowsRead(4);
+        metrics.recordOperation(DaoOperation.SEARCH_QUESTION_BY_TOPIC, start);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordOperationContended() {
+        recordOperation();
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Compares the heap retained by a whole topic held as a list of Question objects and as a
+ * QuestionBlock. The retainedMb counter is the heap still in use after a full collection
+ * while the result is reachable, minus the heap in use before the invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class QuestionBlockMemoryBenchmark {
+
+    @Param({"1000000"})
+    public int questionsPerTopic;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private String topic;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // Same topic as TopicMemoryBenchmark, so it is only seeded once.
+        topic = "bench-memory-" + questionsPerTopic;
+        BenchmarkDatabase.seedTopic(topic, questionsPerTopic, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int objects(Retained retained) {
+        List<Question> questions = daoQuestion.searchQuestionByTopic(topic);
+        retained.result = questions;
+        return questions.size();
+    }
+
+    @Benchmark
+    public int block(Retained retained) {
+        QuestionBlock block = daoQuestion.loadQuestionBlock(topic);
+        retained.result = block;
+        return block.size();
+    }
+
+    /**
+     * Measures the heap retained by the result of each invocation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retained {
+        public long retainedMb;
+
+        Object result;
+        private long baseline;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            result = null;
+            baseline = usedAfterGc();
+        }
+
+        @TearDown(Level.Invocation)
+        public void measure() {
+            retainedMb = Math.max(retainedMb, (usedAfterGc() - baseline) / (1024 * 1024));
+            result = null;
+        }
+
+        private static long usedAfterGc() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            for (int i = 0; i < 2; i++) {
+                System.gc();
+            }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
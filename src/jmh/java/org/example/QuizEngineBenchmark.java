@@ -0,0 +1,81 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures how many quizzes per second QuizEngine can draw from memory, on one thread
+ * and on every core. Run with -prof gc to confirm draws do not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizEngineBenchmark {
+
+    private static final String TOPIC = "bench-engine";
+
+    @Param({"10"})
+    public int questionsPerDraw;
+
+    private QuizEngine quizEngine;
+
+    @Setup
+    public void setUp() {
+        // Five quizzes of 20k questions, one per difficulty, with synthetic ids.
+        List<Quiz> quizzes = new ArrayList<>();
+        int nextId = 1;
+        for (int difficulty = 1; difficulty <= 5; difficulty++) {
+            Quiz quiz = BenchmarkDatabase.quiz(TOPIC, 20_000, 4);
+            quiz.setId(difficulty);
+            quiz.setDifficulty(difficulty);
+            for (Question question : quiz.getQuestions()) {
+                question.setId(nextId++);
+                question.setQuizId(difficulty);
+                for (Response response : question.getResponses()) {
+                    response.setId(nextId++);
+                }
+            }
+            quizzes.add(quiz);
+        }
+        quizEngine = new QuizEngine(null);
+        quizEngine.load(quizzes);
+    }
+
+    @Benchmark
+    public int draw(Draw draw) {
+        TopicBank bank = quizEngine.topic(TOPIC);
+        int drawn = bank.draw(3, questionsPerDraw, draw.indexes, ThreadLocalRandom.current());
+        return bank.questionId(draw.indexes[drawn - 1]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int drawAllCores(Draw draw) {
+        return draw(draw);
+    }
+
+    /**
+     * Per-thread output buffer, so draws share nothing writable.
+     */
+    @State(Scope.Thread)
+    public static class Draw {
+        final int[] indexes = new int[64];
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures how QuizGenerator scales with the size of its fork/join pool: each invocation
+ * builds one tournament round of PLAYERS quizzes of 20 questions (5 easy, 10 medium, 5 hard)
+ * from a 100k-question topic, for players with an empty history. Scores are quizzes per
+ * second; compare parallelism values up to the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizGeneratorBenchmark {
+
+    private static final String TOPIC = "bench-generator";
+    private static final int PLAYERS = 2000;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private QuizEngine quizEngine;
+    private ForkJoinPool pool;
+    private List<QuizRequest> requests;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Quiz> quizzes = new ArrayList<>();
+        int nextId = 1;
+        for (int difficulty = 1; difficulty <= 5; difficulty++) {
+            Quiz quiz = BenchmarkDatabase.quiz(TOPIC, 20_000, 4);
+            quiz.setId(difficulty);
+            quiz.setDifficulty(difficulty);
+            for (Question question : quiz.getQuestions()) {
+                question.setId(nextId++);
+                question.setQuizId(difficulty);
+                for (Response response : question.getResponses()) {
+                    response.setId(nextId++);
+                }
+            }
+            quizzes.add(quiz);
+        }
+        quizEngine = new QuizEngine(null);
+        quizEngine.load(quizzes);
+        pool = new ForkJoinPool(parallelism);
+        requests = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            requests.add(new QuizRequest("player" + i, TOPIC, Map.of(2, 5, 3, 10, 4, 5)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PLAYERS)
+    public List<Quiz> generateRound() {
+        // A fresh generator per round, so every player starts with an empty history.
+        return new QuizGenerator(quizEngine, pool).generate(requests, seed++);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures search and delete latency on a small topic while the tables hold 1M
+ * responses, with and without the indexes added by V2__index_foreign_keys.sql.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SchemaIndexBenchmark {
+
+    private static final String SMALL_TOPIC = "bench-index-small";
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private int quizId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        // 250k questions with 4 responses each give the 1M response rows.
+        BenchmarkDatabase.seedTopic("bench-index-large", 250_000, 4);
+        quizId = BenchmarkDatabase.seedTopic(SMALL_TOPIC, 10, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuestion = new DaoQuestion(dataSource);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (indexed) {
+                statement.execute(indexMigration());
+            } else {
+                statement.execute("DROP INDEX IF EXISTS quiz_topic_idx, question_quiz_id_idx, response_question_id_idx");
+            }
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        // Leave the schema as the migrations define it.
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(indexMigration());
+        }
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Question> searchSmallTopic() {
+        return daoQuestion.searchQuestionByTopic(SMALL_TOPIC);
+    }
+
+    @Benchmark
+    public void deleteQuestion(SavedQuestion state) {
+        daoQuestion.deleteQuestion(state.question.getId());
+    }
+
+    private static String indexMigration() throws IOException {
+        return Files.readString(Path.of(System.getProperty("quiz.bench.schemaDir", "database"),
+                "migrations", "V2__index_foreign_keys.sql"));
+    }
+
+    /**
+     * Saves a fresh question before each invocation for the delete benchmark.
+     */
+    @State(Scope.Thread)
+    public static class SavedQuestion {
+        Question question;
+
+        @Setup(Level.Invocation)
+        public void save(SchemaIndexBenchmark benchmark) {
+            question = DaoQuestionBenchmark.newQuestion(benchmark.quizId);
+            benchmark.daoQuestion.saveQuestion(question);
+        }
+    }
+}
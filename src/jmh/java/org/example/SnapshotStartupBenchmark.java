@@ -0,0 +1,124 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+/**
+ * Compares warming up a node from the database through JDBC with warming up from a
+ * question bank snapshot, either serving straight from the mapped file or copying it
+ * into a QuizEngine. The whole bank is loaded, with at least 1M questions seeded.
+ * The heap counters give the peak heap during the load and the heap the loaded
+ * result still holds after a collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SnapshotStartupBenchmark {
+
+    private HikariDataSource dataSource;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.seedTopic("bench-snapshot", 1_000_000, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        file = Files.createTempFile("question-bank", ".snapshot");
+        long start = System.nanoTime();
+        int questions = QuestionBankSnapshot.export(dataSource, file);
+        System.out.printf("%nExported %d questions (%d MB) in %d ms%n", questions, Files.size(file) / (1024 * 1024),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dataSource.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public QuizEngine jdbcLoad(Heap heap) throws SQLException {
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.load();
+        heap.retained = quizEngine;
+        return quizEngine;
+    }
+
+    @Benchmark
+    public QuestionBankSnapshot snapshotOpen(Heap heap) throws IOException {
+        QuestionBankSnapshot snapshot = QuestionBankSnapshot.open(file);
+        // Serving a question decodes only that question.
+        snapshot.question(snapshot.size() / 2);
+        heap.retained = snapshot;
+        return snapshot;
+    }
+
+    @Benchmark
+    public QuizEngine snapshotLoad(Heap heap) throws IOException {
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.load(QuestionBankSnapshot.open(file));
+        heap.retained = quizEngine;
+        return quizEngine;
+    }
+
+    /**
+     * Tracks the peak heap of each invocation and the heap its result retains.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long peakHeapMb;
+        public long retainedHeapMb;
+        Object retained;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void measure() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMb = Math.max(peakHeapMb, peak / (1024 * 1024));
+            System.gc();
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    used += pool.getUsage().getUsed();
+                }
+            }
+            retainedHeapMb = Math.max(retainedHeapMb, used / (1024 * 1024));
+            retained = null;
+        }
+    }
+}
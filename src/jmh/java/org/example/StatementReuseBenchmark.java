@@ -0,0 +1,72 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures what server-side prepared statements save on the search path. With a threshold
+ * of 0 every execution is parsed and planned again; with 1 and 5 the connection keeps the
+ * statement prepared after that many executions. The pool holds a single connection, so
+ * every call finds the statements its predecessors prepared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class StatementReuseBenchmark {
+
+    private static final String TOPIC = "bench-statement-reuse";
+
+    @Param({"0", "1", "5"})
+    public int prepareThreshold;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private int quizId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        quizId = BenchmarkDatabase.seedTopic(TOPIC, 20, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(1, prepareThreshold);
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("prepared=" + daoQuestion.getMetrics().getStatementsPrepared()
+                + " reused=" + daoQuestion.getMetrics().getStatementsReused());
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String findTopic() {
+        return daoQuestion.findTopicByQuizId(quizId);
+    }
+
+    @Benchmark
+    public List<Question> searchPerQuestion() {
+        return daoQuestion.searchQuestionByTopic(TOPIC, FetchMode.PER_QUESTION);
+    }
+
+    @Benchmark
+    public List<Question> searchText() {
+        return daoQuestion.searchQuestions("statement reuse", 0, 20);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+/**
+ * Measures DaoQuestion.searchQuestions on a 1M-question corpus with a skewed vocabulary:
+ * a rare word matching a few dozen questions, a common word matching tens of thousands,
+ * and a two-word query. Ranking reads every match, so the cost follows the match count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TextSearchBenchmark {
+
+    private static final String TOPIC = "bench-text-search";
+    private static final int QUESTION_COUNT = 1_000_000;
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WORDS_PER_QUESTION = 8;
+
+    @Param({"rare", "common", "two words"})
+    public String query;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        seedCorpus();
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuestion = new DaoQuestion(dataSource);
+        text = switch (query) {
+            case "rare" -> word(VOCABULARY_SIZE - 1);
+            case "common" -> word(0);
+            default -> word(10) + " " + word(200);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Question> firstPage() {
+        return daoQuestion.searchQuestions(text, 0, 20);
+    }
+
+    @Benchmark
+    public List<Question> fifthPage() {
+        return daoQuestion.searchQuestions(text, 80, 20);
+    }
+
+    private static void seedCorpus() throws SQLException {
+        try (Connection connection = BenchmarkDatabase.dataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "SELECT count(*) FROM question WHERE quiz_id IN (SELECT id FROM quiz WHERE topic = ?)")) {
+            preparedStatement.setString(1, TOPIC);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next() && resultSet.getInt(1) == QUESTION_COUNT) {
+                    return;
+                }
+            }
+        }
+        BenchmarkDatabase.deleteTopic(TOPIC);
+        // Word i is drawn with a probability falling off like 1 / (i + 1), roughly as in natural text.
+        SplittableRandom random = new SplittableRandom(42);
+        Quiz quiz = new Quiz();
+        quiz.setTopic(TOPIC);
+        quiz.setDifficulty(1);
+        List<Question> questions = new ArrayList<>(QUESTION_COUNT);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < QUESTION_COUNT; i++) {
+            content.setLength(0);
+            for (int j = 0; j < WORDS_PER_QUESTION; j++) {
+                int index = (int) Math.pow(VOCABULARY_SIZE + 1, random.nextDouble()) - 1;
+                content.append(word(index)).append(' ');
+            }
+            Question question = new Question();
+            question.setContent(content.toString());
+            question.addResponse(new Response(word(random.nextInt(VOCABULARY_SIZE)), true));
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+        new QuizImporter(BenchmarkDatabase.dataSource()).importQuizzes(List.of(quiz));
+        try (Connection connection = BenchmarkDatabase.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private static String word(int index) {
+        // Builds a pronounceable made-up word, so the English stemmer leaves it alone.
+        StringBuilder word = new StringBuilder();
+        int rest = index;
+        do {
+            word.append("bcdfgklmnprstvz".charAt(rest % 15)).append("aeiou".charAt(rest / 15 % 5));
+            rest /= 75;
+        } while (rest > 0);
+        return word.append("x").toString();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+/**
+ * Compares the peak heap use of reading a whole topic as a list, page by page and as a
+ * cursor-backed stream. The peakHeapMb counter is the highest heap occupancy seen
+ * during the invocation; run with -prof gc to also compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TopicMemoryBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"1000000"})
+    public int questionsPerTopic;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private String topic;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        topic = "bench-memory-" + questionsPerTopic;
+        BenchmarkDatabase.seedTopic(topic, questionsPerTopic, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int list(Heap heap) {
+        return daoQuestion.searchQuestionByTopic(topic).size();
+    }
+
+    @Benchmark
+    public int pages(Heap heap) {
+        int count = 0;
+        List<Question> page = daoQuestion.searchQuestionByTopic(topic, 0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            count += page.size();
+            page = daoQuestion.searchQuestionByTopic(topic, page.get(page.size() - 1).getId(), PAGE_SIZE);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long stream(Heap heap) {
+        try (Stream<Question> questions = daoQuestion.streamQuestionByTopic(topic)) {
+            return questions.count();
+        }
+    }
+
+    /**
+     * Tracks the peak heap occupancy of each invocation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long peakHeapMb;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void measure() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMb = Math.max(peakHeapMb, peak / (1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+/**
+ * Replays an autosave burst: SAVES updates spread round-robin over EDITED_QUESTIONS
+ * questions, each changing the content and one response. The direct variant writes every
+ * save; the write-behind variant buffers them and includes the final flush, so both
+ * scores are the full cost per save of getting the burst into the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+    private static final String TOPIC = "bench-write-behind";
+    private static final int EDITED_QUESTIONS = 20;
+    private static final int SAVES = 200;
+
+    private HikariDataSource dataSource;
+    private DaoQuestion direct;
+    private WriteBehindDaoQuestion writeBehind;
+    private List<Question> questions;
+    private int revision;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.seedTopic(TOPIC, EDITED_QUESTIONS, 4);
+        dataSource = BenchmarkDatabase.pooledDataSource(2);
+        direct = new DaoQuestion(dataSource);
+        // Thresholds out of reach, so only the explicit flush writes.
+        writeBehind = new WriteBehindDaoQuestion(dataSource, Integer.MAX_VALUE, 3_600_000);
+        questions = new ArrayList<>(direct.searchQuestionByTopic(TOPIC));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("collapsed=" + writeBehind.getMetrics().getCollapsedWrites()
+                + " flushes=" + writeBehind.getFlushCount());
+        writeBehind.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAVES)
+    public void direct() {
+        for (int i = 0; i < SAVES; i++) {
+            direct.updateQuestion(edit(questions.get(i % EDITED_QUESTIONS)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAVES)
+    public void writeBehind() {
+        for (int i = 0; i < SAVES; i++) {
+            writeBehind.updateQuestion(edit(questions.get(i % EDITED_QUESTIONS)));
+        }
+        writeBehind.flush();
+    }
+
+    private Question edit(Question question) {
+        revision++;
+        question.setContent("Question revision " + revision);
+        question.getResponses().get(1).setText("Response revision " + revision);
+        return question;
+    }
+}
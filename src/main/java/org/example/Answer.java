@@ -0,0 +1,40 @@
+package org.example;
+/**
+ * The Answer class represents one response a player submitted for a question,
+ * together with whether it was correct and when it was received.
+ */
+public class Answer {
+    public Answer(String player, int questionId, int responseId, boolean correct, long answeredAtMillis) {
+        this.player = player;
+        this.questionId = questionId;
+        this.responseId = responseId;
+        this.correct = correct;
+        this.answeredAtMillis = answeredAtMillis;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    public int getResponseId() {
+        return responseId;
+    }
+
+    public boolean isCorrect() {
+        return correct;
+    }
+
+    public long getAnsweredAtMillis() {
+        return answeredAtMillis;
+    }
+
+    private final String player;
+    private final int questionId;
+    private final int responseId;
+    private final boolean correct;
+    private final long answeredAtMillis;
+}
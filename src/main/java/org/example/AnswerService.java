@@ -0,0 +1,129 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+/**
+ * The AnswerService class accepts player answers, scores them against a
+ * CorrectAnswerIndex, keeps running scores in a Scoreboard and hands the answers to an
+ * AnswerWriter for asynchronous persistence. Optional Leaderboards rank the players
+ * per quiz and topic as answers are scored, and optional AnswerStatistics count how
+ * often each question is answered correctly and each response is picked. An answer is only scored once it has been
+ * queued for writing, so scores never get ahead of what will be stored. Only the first
+ * answer of a player to a question is accepted; repeats are reported as duplicates.
+ */
+public class AnswerService {
+
+    /**
+     * Constructs an AnswerService.
+     *
+     * @param answerIndex   The index used to check answers.
+     * @param scoreboard    The scoreboard receiving the scores.
+     * @param answerWriter  The writer persisting the answers.
+     * @param enqueueWaitMs How long a submission waits for queue space before it is rejected.
+     */
+    public AnswerService(CorrectAnswerIndex answerIndex, Scoreboard scoreboard, AnswerWriter answerWriter,
+                         long enqueueWaitMs) {
+        this(answerIndex, scoreboard, answerWriter, enqueueWaitMs, null);
+    }
+
+    /**
+     * Constructs an AnswerService that also updates leaderboards.
+     *
+     * @param answerIndex   The index used to check answers.
+     * @param scoreboard    The scoreboard receiving the scores.
+     * @param answerWriter  The writer persisting the answers.
+     * @param enqueueWaitMs How long a submission waits for queue space before it is rejected.
+     * @param leaderboards  The leaderboards to update, or null for none.
+     */
+    public AnswerService(CorrectAnswerIndex answerIndex, Scoreboard scoreboard, AnswerWriter answerWriter,
+                         long enqueueWaitMs, Leaderboards leaderboards) {
+        this(answerIndex, scoreboard, answerWriter, enqueueWaitMs, leaderboards, null);
+    }
+
+    /**
+     * Constructs an AnswerService that also updates leaderboards and answer statistics.
+     *
+     * @param answerIndex   The index used to check answers.
+     * @param scoreboard    The scoreboard receiving the scores.
+     * @param answerWriter  The writer persisting the answers.
+     * @param enqueueWaitMs How long a submission waits for queue space before it is rejected.
+     * @param leaderboards  The leaderboards to update, or null for none.
+     * @param statistics    The answer statistics to update, or null for none.
+     */
+    public AnswerService(CorrectAnswerIndex answerIndex, Scoreboard scoreboard, AnswerWriter answerWriter,
+                         long enqueueWaitMs, Leaderboards leaderboards, AnswerStatistics statistics) {
+        this.answerIndex = answerIndex;
+        this.scoreboard = scoreboard;
+        this.answerWriter = answerWriter;
+        this.enqueueWaitMs = enqueueWaitMs;
+        this.leaderboards = leaderboards;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Replaces the index used to check answers, for example after the question bank changed.
+     *
+     * @param answerIndex The new index.
+     */
+    public void setAnswerIndex(CorrectAnswerIndex answerIndex) {
+        this.answerIndex = answerIndex;
+    }
+
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    public Leaderboards getLeaderboards() {
+        return leaderboards;
+    }
+
+    public AnswerStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Submits an answer.
+     *
+     * @param player     The player who answered.
+     * @param questionId The question answered.
+     * @param responseId The response picked.
+     * @return How the answer was handled.
+     */
+    public SubmissionResult submit(String player, int questionId, int responseId) {
+        CorrectAnswerIndex answerIndex = this.answerIndex;
+        int check = answerIndex.check(questionId, responseId);
+        if (check == CorrectAnswerIndex.INVALID) {
+            return SubmissionResult.INVALID;
+        }
+        if (!scoreboard.claim(player, questionId)) {
+            return SubmissionResult.DUPLICATE;
+        }
+        boolean correct = check == CorrectAnswerIndex.CORRECT;
+        Answer answer = new Answer(player, questionId, responseId, correct, System.currentTimeMillis());
+        try {
+            if (!answerWriter.enqueue(answer, enqueueWaitMs, TimeUnit.MILLISECONDS)) {
+                // The player may submit the same question again once the pipeline has room.
+                scoreboard.release(player, questionId);
+                return SubmissionResult.REJECTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scoreboard.release(player, questionId);
+            return SubmissionResult.REJECTED;
+        }
+        scoreboard.record(player, correct);
+        if (leaderboards != null) {
+            leaderboards.record(player, answerIndex.quizIdOf(responseId), correct ? 1 : 0);
+        }
+        if (statistics != null) {
+            statistics.record(questionId, responseId, correct);
+        }
+        return correct ? SubmissionResult.CORRECT : SubmissionResult.WRONG;
+    }
+
+    private volatile CorrectAnswerIndex answerIndex;
+    private final Scoreboard scoreboard;
+    private final AnswerWriter answerWriter;
+    private final long enqueueWaitMs;
+    private final Leaderboards leaderboards;
+    private final AnswerStatistics statistics;
+}
@@ -0,0 +1,396 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * The AnswerStatistics class counts, per question, how often it was answered and answered
+ * correctly, and per response how often it was picked. The counters are striped LongAdders,
+ * so recording an answer neither locks nor contends with other threads answering the same
+ * question. flush adds what was counted since the previous flush to the question_stats and
+ * response_stats tables, so several nodes can share the tables and the counts survive a
+ * restart. hardestQuestions ranks the questions of a topic from those tables, which is what
+ * quiz difficulties are recalibrated from, without scanning the answer table. Both run
+ * through a DaoExecutor, so they get its timeouts, retries and circuit breaker.
+ */
+public class AnswerStatistics {
+
+    public DaoExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that runs the flushes, for example the one of a DaoQuestion so
+     * both share its timeouts and circuit breaker.
+     *
+     * @param executor The executor to run flushes with.
+     */
+    public void setExecutor(DaoExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Records one scored answer.
+     *
+     * @param questionId The question answered.
+     * @param responseId The response picked.
+     * @param correct    Whether the answer was correct.
+     */
+    public void record(int questionId, int responseId, boolean correct) {
+        QuestionCounters question = questions.get(questionId);
+        if (question == null) {
+            question = questions.computeIfAbsent(questionId, QuestionCounters::new);
+        }
+        question.answered.increment();
+        if (correct) {
+            question.correct.increment();
+        }
+        ResponseCounters response = responses.get(responseId);
+        if (response == null) {
+            response = responses.computeIfAbsent(responseId, id -> new ResponseCounters(id, questionId));
+        }
+        response.picks.increment();
+        // Checking first keeps answers to an unchanged question from writing a shared field.
+        if (!question.changed) {
+            question.changed = true;
+        }
+        if (!response.changed) {
+            response.changed = true;
+        }
+    }
+
+    /**
+     * Returns how often a question was answered since this instance was created.
+     *
+     * @param questionId The question.
+     * @return The number of answers, or 0 for a question never answered.
+     */
+    public long getAnswered(int questionId) {
+        QuestionCounters question = questions.get(questionId);
+        return question == null ? 0 : question.answered.sum();
+    }
+
+    /**
+     * Returns how often a question was answered correctly since this instance was created.
+     *
+     * @param questionId The question.
+     * @return The number of correct answers, or 0 for a question never answered.
+     */
+    public long getCorrect(int questionId) {
+        QuestionCounters question = questions.get(questionId);
+        return question == null ? 0 : question.correct.sum();
+    }
+
+    /**
+     * Returns how often a response was picked since this instance was created.
+     *
+     * @param responseId The response.
+     * @return The number of picks, or 0 for a response never picked.
+     */
+    public long getPicks(int responseId) {
+        ResponseCounters response = responses.get(responseId);
+        return response == null ? 0 : response.picks.sum();
+    }
+
+    /**
+     * Returns the share of the answers to its question that picked a response.
+     *
+     * @param responseId The response.
+     * @return The pick rate between 0 and 1, or 0 for a response never picked.
+     */
+    public double getPickRate(int responseId) {
+        ResponseCounters response = responses.get(responseId);
+        if (response == null) {
+            return 0;
+        }
+        long answered = getAnswered(response.questionId);
+        return answered == 0 ? 0 : (double) response.picks.sum() / answered;
+    }
+
+    /**
+     * Adds the answers counted since the previous flush to the question_stats and
+     * response_stats tables, in one transaction. Counters of questions and responses that
+     * no longer exist are skipped. After a failure the same answers are written by the next flush.
+     *
+     * @param dataSource The data source to write to.
+     * @return The number of question and response rows written.
+     * @throws SQLException If a database error occurs, or the circuit breaker is open.
+     */
+    public synchronized int flush(DataSource dataSource) throws SQLException {
+        List<QuestionDelta> questionDeltas = new ArrayList<>();
+        for (QuestionCounters question : questions.values()) {
+            if (question.changed) {
+                // Cleared before the sums are read, so an answer counted meanwhile marks it changed again.
+                question.changed = false;
+                long answered = question.answered.sum() - question.flushedAnswered;
+                long correct = question.correct.sum() - question.flushedCorrect;
+                if (answered != 0) {
+                    questionDeltas.add(new QuestionDelta(question, answered, correct));
+                }
+            }
+        }
+        List<ResponseDelta> responseDeltas = new ArrayList<>();
+        for (ResponseCounters response : responses.values()) {
+            if (response.changed) {
+                response.changed = false;
+                long picks = response.picks.sum() - response.flushedPicks;
+                if (picks != 0) {
+                    responseDeltas.add(new ResponseDelta(response, picks));
+                }
+            }
+        }
+        if (questionDeltas.isEmpty() && responseDeltas.isEmpty()) {
+            return 0;
+        }
+        // Rows are locked in id order, so nodes flushing at the same time cannot deadlock.
+        questionDeltas.sort(Comparator.comparingInt(delta -> delta.counters().id));
+        responseDeltas.sort(Comparator.comparingInt(delta -> delta.counters().id));
+        try {
+            // Not idempotent: a transaction whose commit was lost with its connection may have added the deltas.
+            executor.execute(DaoOperation.FLUSH_ANSWER_STATISTICS, false, () -> {
+                try (Connection connection = DaoExecutor.applyNetworkTimeout(dataSource.getConnection())) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                        writeQuestionDeltas(connection, questionDeltas);
+                        writeResponseDeltas(connection, responseDeltas);
+                        connection.commit();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            for (QuestionDelta delta : questionDeltas) {
+                delta.counters().changed = true;
+            }
+            for (ResponseDelta delta : responseDeltas) {
+                delta.counters().changed = true;
+            }
+            throw e;
+        }
+        for (QuestionDelta delta : questionDeltas) {
+            delta.counters().flushedAnswered += delta.answered();
+            delta.counters().flushedCorrect += delta.correct();
+        }
+        for (ResponseDelta delta : responseDeltas) {
+            delta.counters().flushedPicks += delta.picks();
+        }
+        flushes.incrementAndGet();
+        return questionDeltas.size() + responseDeltas.size();
+    }
+
+    /**
+     * Finds the questions of a topic that are answered correctly least often, according
+     * to the flushed counters of every node. Questions with fewer than minAnswered answers
+     * are left out, as a handful of answers says little about a question. The query runs
+     * with the default timeouts and retries of a DaoExecutor.
+     *
+     * @param dataSource  The data source to read from.
+     * @param topic       The topic.
+     * @param limit       The maximum number of questions returned.
+     * @param minAnswered The number of answers a question needs to be ranked.
+     * @return Up to limit questions, lowest share of correct answers first.
+     * @throws SQLException If a database error occurs.
+     */
+    public static List<QuestionStatistics> hardestQuestions(DataSource dataSource, String topic, int limit,
+                                                            long minAnswered) throws SQLException {
+        return hardestQuestions(new DaoExecutor(), dataSource, topic, limit, minAnswered);
+    }
+
+    /**
+     * Finds the questions of a topic that are answered correctly least often, running the
+     * query through an executor.
+     *
+     * @param executor    The executor to run the query with.
+     * @param dataSource  The data source to read from.
+     * @param topic       The topic.
+     * @param limit       The maximum number of questions returned.
+     * @param minAnswered The number of answers a question needs to be ranked.
+     * @return Up to limit questions, lowest share of correct answers first.
+     * @throws SQLException If a database error occurs, or the circuit breaker is open.
+     */
+    public static List<QuestionStatistics> hardestQuestions(DaoExecutor executor, DataSource dataSource, String topic,
+                                                            int limit, long minAnswered) throws SQLException {
+        return executor.execute(DaoOperation.FIND_HARDEST_QUESTIONS, true, () -> {
+            List<QuestionStatistics> hardest = new ArrayList<>(Math.min(limit, 1024));
+            try (Connection connection = DaoExecutor.applyNetworkTimeout(dataSource.getConnection());
+                 PreparedStatement statement = connection.prepareStatement(HARDEST_QUERY)) {
+                DaoExecutor.applyQueryTimeout(statement);
+                statement.setLong(1, minAnswered);
+                statement.setInt(2, limit);
+                statement.setString(3, topic);
+                statement.setInt(4, limit);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        hardest.add(new QuestionStatistics(resultSet.getInt(1), resultSet.getInt(2),
+                                resultSet.getLong(3), resultSet.getLong(4)));
+                    }
+                }
+            }
+            return hardest;
+        });
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    private static void writeQuestionDeltas(Connection connection, List<QuestionDelta> deltas) throws SQLException {
+        // The quiz is copied from the question on every flush, so moved questions follow their quiz.
+        String upsertQuery = "INSERT INTO question_stats (question_id, quiz_id, answered, correct) "
+                + "SELECT d.id, q.quiz_id, d.answered, d.correct "
+                + "FROM unnest(?::int[], ?::bigint[], ?::bigint[]) AS d(id, answered, correct) "
+                + "JOIN question q ON q.id = d.id ORDER BY d.id "
+                + "ON CONFLICT (question_id) DO UPDATE SET quiz_id = EXCLUDED.quiz_id, "
+                + "answered = question_stats.answered + EXCLUDED.answered, "
+                + "correct = question_stats.correct + EXCLUDED.correct, updated_at = now()";
+        try (PreparedStatement statement = connection.prepareStatement(upsertQuery)) {
+            DaoExecutor.applyQueryTimeout(statement);
+            for (int from = 0; from < deltas.size(); from += FLUSH_BATCH_SIZE) {
+                List<QuestionDelta> batch = deltas.subList(from, Math.min(deltas.size(), from + FLUSH_BATCH_SIZE));
+                Integer[] ids = new Integer[batch.size()];
+                Long[] answered = new Long[batch.size()];
+                Long[] correct = new Long[batch.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = batch.get(i).counters().id;
+                    answered[i] = batch.get(i).answered();
+                    correct[i] = batch.get(i).correct();
+                }
+                statement.setArray(1, connection.createArrayOf("integer", ids));
+                statement.setArray(2, connection.createArrayOf("bigint", answered));
+                statement.setArray(3, connection.createArrayOf("bigint", correct));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static void writeResponseDeltas(Connection connection, List<ResponseDelta> deltas) throws SQLException {
+        String upsertQuery = "INSERT INTO response_stats (response_id, question_id, picks) "
+                + "SELECT d.id, r.question_id, d.picks "
+                + "FROM unnest(?::int[], ?::bigint[]) AS d(id, picks) "
+                + "JOIN response r ON r.id = d.id ORDER BY d.id "
+                + "ON CONFLICT (response_id) DO UPDATE SET picks = response_stats.picks + EXCLUDED.picks";
+        try (PreparedStatement statement = connection.prepareStatement(upsertQuery)) {
+            DaoExecutor.applyQueryTimeout(statement);
+            for (int from = 0; from < deltas.size(); from += FLUSH_BATCH_SIZE) {
+                List<ResponseDelta> batch = deltas.subList(from, Math.min(deltas.size(), from + FLUSH_BATCH_SIZE));
+                Integer[] ids = new Integer[batch.size()];
+                Long[] picks = new Long[batch.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = batch.get(i).counters().id;
+                    picks[i] = batch.get(i).picks();
+                }
+                statement.setArray(1, connection.createArrayOf("integer", ids));
+                statement.setArray(2, connection.createArrayOf("bigint", picks));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * The QuestionStatistics class holds the flushed counters of one question.
+     */
+    public static class QuestionStatistics {
+        QuestionStatistics(int questionId, int quizId, long answered, long correct) {
+            this.questionId = questionId;
+            this.quizId = quizId;
+            this.answered = answered;
+            this.correct = correct;
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        public int getQuizId() {
+            return quizId;
+        }
+
+        public long getAnswered() {
+            return answered;
+        }
+
+        public long getCorrect() {
+            return correct;
+        }
+
+        /**
+         * Returns the share of correct answers.
+         *
+         * @return A value between 0 and 1.
+         */
+        public double getCorrectRatio() {
+            return answered == 0 ? 0 : (double) correct / answered;
+        }
+
+        private final int questionId;
+        private final int quizId;
+        private final long answered;
+        private final long correct;
+    }
+
+    private static final class QuestionCounters {
+        QuestionCounters(int id) {
+            this.id = id;
+        }
+
+        final int id;
+        final LongAdder answered = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        volatile boolean changed;
+        // Only read and written by flush, which is synchronized.
+        long flushedAnswered;
+        long flushedCorrect;
+    }
+
+    private static final class ResponseCounters {
+        ResponseCounters(int id, int questionId) {
+            this.id = id;
+            this.questionId = questionId;
+        }
+
+        final int id;
+        final int questionId;
+        final LongAdder picks = new LongAdder();
+        volatile boolean changed;
+        long flushedPicks;
+    }
+
+    private record QuestionDelta(QuestionCounters counters, long answered, long correct) {
+    }
+
+    private record ResponseDelta(ResponseCounters counters, long picks) {
+    }
+
+    // Takes the first N of each quiz of the topic from question_stats_rank_idx and ranks those, so
+    // the cost grows with the number of quizzes rather than questions. Ties are broken by the
+    // number of answers, as more answers make the ratio more reliable. The join on question
+    // leaves out questions moved to another quiz since their last flush.
+    private static final String HARDEST_QUERY = "SELECT s.question_id, s.quiz_id, s.answered, s.correct "
+            + "FROM quiz z CROSS JOIN LATERAL (SELECT s.question_id, s.quiz_id, s.answered, s.correct, s.correct_ratio "
+            + "FROM question_stats s JOIN question q ON q.id = s.question_id AND q.quiz_id = s.quiz_id "
+            + "WHERE s.quiz_id = z.id AND s.answered >= ? "
+            + "ORDER BY s.correct_ratio, s.answered DESC, s.question_id LIMIT ?) s "
+            + "WHERE z.topic = ? "
+            + "ORDER BY s.correct_ratio, s.answered DESC, s.question_id LIMIT ?";
+    private static final int FLUSH_BATCH_SIZE = 10_000;
+
+    private final Map<Integer, QuestionCounters> questions = new ConcurrentHashMap<>();
+    private final Map<Integer, ResponseCounters> responses = new ConcurrentHashMap<>();
+    private final AtomicLong flushes = new AtomicLong();
+    private DaoExecutor executor = new DaoExecutor();
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+/**
+ * The AnswerStatisticsFlusher class periodically adds the answers counted by an
+ * AnswerStatistics to the statistics tables on a background thread, so recording an
+ * answer never waits for the database.
+ */
+public class AnswerStatisticsFlusher implements AutoCloseable {
+
+    /**
+     * Constructs and starts an AnswerStatisticsFlusher.
+     *
+     * @param statistics The counters to flush.
+     * @param dataSource The data source to write to.
+     * @param intervalMs The time between flushes.
+     */
+    public AnswerStatisticsFlusher(AnswerStatistics statistics, DataSource dataSource, long intervalMs) {
+        this.statistics = statistics;
+        this.dataSource = dataSource;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "answer-statistics-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Stops the periodic flushes and writes a final one.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flush() {
+        try {
+            statistics.flush(dataSource);
+            flushes.incrementAndGet();
+        } catch (SQLException e) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Flushing answer statistics failed; the counts are kept for the next flush", e);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AnswerStatisticsFlusher.class.getName());
+
+    private final AnswerStatistics statistics;
+    private final DataSource dataSource;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+}
@@ -0,0 +1,305 @@
+package org.example;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+/**
+ * The AnswerWriter class persists answers asynchronously. Answers wait in a bounded
+ * queue and a single background thread writes them to the answer table with COPY, up
+ * to maxBatchSize at a time. When the queue is full, enqueue waits up to the given
+ * timeout and then rejects the answer, which pushes back on submitters instead of
+ * letting memory grow without bound. A batch that fails because the database is
+ * unavailable is kept and retried with a growing backoff, and nothing more is taken from
+ * the queue until it succeeds, so an unavailable database fills the queue and slows
+ * submitters down rather than losing answers. A batch the database refuses, for example
+ * because it answers a question deleted meanwhile, is split in halves until the refused
+ * answers are isolated; those are dropped and the others written. Any other error drops
+ * the batch, since retrying it would fail the same way.
+ */
+public class AnswerWriter implements AutoCloseable {
+
+    /**
+     * Constructs and starts an AnswerWriter.
+     *
+     * @param dataSource      The data source to write to.
+     * @param queueCapacity   The maximum number of answers waiting to be written.
+     * @param maxBatchSize    The maximum number of answers written per COPY.
+     * @param flushIntervalMs How long the writer waits for more answers before writing a partial batch.
+     */
+    public AnswerWriter(DataSource dataSource, int queueCapacity, int maxBatchSize, long flushIntervalMs) {
+        this.dataSource = dataSource;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.thread = new Thread(this::run, "answer-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues an answer for writing.
+     *
+     * @param answer    The answer to persist.
+     * @param timeout   How long to wait for queue space.
+     * @param unit      The unit of the timeout argument.
+     * @return True if the answer was queued; false if the queue stayed full or the writer is closed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public boolean enqueue(Answer answer, long timeout, TimeUnit unit) throws InterruptedException {
+        // Counted before closed is checked, so the writer thread does not stop while this answer is on its way in.
+        inFlight.incrementAndGet();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (queue.offer(answer, timeout, unit)) {
+                enqueued.incrementAndGet();
+                return true;
+            }
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the number of answers given up on: those the database refused, those that
+     * failed with an error a retry cannot fix, and those still failing when the writer was closed.
+     *
+     * @return The number of answers that were not written.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Stops accepting answers, writes everything still queued and stops the writer thread.
+     * Answers accepted by enqueue calls that were running when close was called are written too.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        // Batches taken from the queue but not yet written, oldest first.
+        Deque<List<Answer>> unwritten = new ArrayDeque<>();
+        long backoffMs = MIN_RETRY_BACKOFF_MS;
+        int closedFailures = 0;
+        while (!closed || inFlight.get() > 0 || !queue.isEmpty() || !unwritten.isEmpty()) {
+            try {
+                if (unwritten.isEmpty()) {
+                    Answer first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    List<Answer> batch = new ArrayList<>(maxBatchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    unwritten.add(batch);
+                }
+                List<Answer> batch = unwritten.peekFirst();
+                switch (write(batch)) {
+                    case WRITTEN -> {
+                        unwritten.removeFirst();
+                        backoffMs = MIN_RETRY_BACKOFF_MS;
+                    }
+                    case REFUSED -> {
+                        unwritten.removeFirst();
+                        if (batch.size() == 1) {
+                            failed.incrementAndGet();
+                        } else {
+                            // Halving finds the refused answers in a few COPYs and lets the rest through.
+                            int half = batch.size() / 2;
+                            unwritten.addFirst(new ArrayList<>(batch.subList(half, batch.size())));
+                            unwritten.addFirst(new ArrayList<>(batch.subList(0, half)));
+                        }
+                    }
+                    case FAILED -> {
+                        unwritten.removeFirst();
+                        failed.addAndGet(batch.size());
+                    }
+                    case UNAVAILABLE -> {
+                        if (closed && ++closedFailures >= MAX_ATTEMPTS_WHEN_CLOSED) {
+                            // Give up rather than keep close() waiting on a database that is not coming back;
+                            // each remaining batch then gets a single attempt.
+                            unwritten.removeFirst();
+                            failed.addAndGet(batch.size());
+                            continue;
+                        }
+                        retries.incrementAndGet();
+                        Thread.sleep(backoffMs);
+                        backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch with COPY.
+     *
+     * @param batch The answers to write.
+     * @return What became of the batch.
+     */
+    private WriteOutcome write(List<Answer> batch) {
+        try (Connection connection = dataSource.getConnection()) {
+            PGCopyOutputStream outputStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    "COPY answer (player, question_id, response_id, correct, answered_at) FROM STDIN");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                for (Answer answer : batch) {
+                    writeText(writer, answer.getPlayer());
+                    writer.write('\t');
+                    writer.write(Integer.toString(answer.getQuestionId()));
+                    writer.write('\t');
+                    writer.write(Integer.toString(answer.getResponseId()));
+                    writer.write('\t');
+                    writer.write(answer.isCorrect() ? "t" : "f");
+                    writer.write('\t');
+                    writer.write(Instant.ofEpochMilli(answer.getAnsweredAtMillis()).toString());
+                    writer.write('\n');
+                }
+            }
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            return WriteOutcome.WRITTEN;
+        } catch (SQLException e) {
+            return classify(e, batch.size());
+        } catch (IOException e) {
+            // The COPY stream reports errors of the database as an IOException caused by them.
+            if (e.getCause() instanceof SQLException cause) {
+                return classify(cause, batch.size());
+            }
+            LOGGER.log(Level.WARNING, "Failed to write " + batch.size() + " answers; retrying", e);
+            return WriteOutcome.UNAVAILABLE;
+        } catch (RuntimeException e) {
+            // An answer that cannot be written as text would fail every retry the same way.
+            LOGGER.log(Level.WARNING, "Dropping " + batch.size() + " answers that cannot be written", e);
+            return WriteOutcome.FAILED;
+        }
+    }
+
+    private static WriteOutcome classify(SQLException e, int batchSize) {
+        String state = e.getSQLState();
+        // Class 22 is a data exception and class 23 an integrity constraint violation: some answer is refused.
+        if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+            if (batchSize == 1) {
+                LOGGER.log(Level.WARNING, "Dropping an answer the database refused", e);
+            }
+            return WriteOutcome.REFUSED;
+        }
+        // A COPY cut off midway is tried again too: answers are better written twice than lost.
+        if (DaoExecutor.isRetryable(e, true)) {
+            LOGGER.log(Level.WARNING, "Failed to write " + batchSize + " answers; retrying", e);
+            return WriteOutcome.UNAVAILABLE;
+        }
+        LOGGER.log(Level.WARNING, "Dropping " + batchSize + " answers after an error a retry cannot fix", e);
+        return WriteOutcome.FAILED;
+    }
+
+    private static void writeText(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private static final long MIN_RETRY_BACKOFF_MS = 100;
+    private static final long MAX_RETRY_BACKOFF_MS = 10_000;
+    private static final int MAX_ATTEMPTS_WHEN_CLOSED = 3;
+    private static final Logger LOGGER = Logger.getLogger(AnswerWriter.class.getName());
+
+    private final DataSource dataSource;
+    private final BlockingQueue<Answer> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final Thread thread;
+    private volatile boolean closed;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * The WriteOutcome enum lists what can become of a batch written with COPY.
+     */
+    private enum WriteOutcome {
+        /**
+         * Every answer was written.
+         */
+        WRITTEN,
+        /**
+         * The database refused some answer in the batch; nothing was written.
+         */
+        REFUSED,
+        /**
+         * The database could not be reached or answered with a transient error; nothing was written.
+         */
+        UNAVAILABLE,
+        /**
+         * The batch failed with an error a retry cannot fix; nothing was written.
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,132 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+/**
+ * The AsyncDaoQuestion class runs DaoQuestion operations on virtual threads and
+ * returns their results as CompletableFutures. At most maxInFlight operations touch
+ * the database at once; further callers wait on a virtual thread, which costs no
+ * platform thread, until a slot frees up.
+ */
+public class AsyncDaoQuestion implements AutoCloseable {
+
+    /**
+     * Constructs an AsyncDaoQuestion whose in-flight limit matches the size of a connection pool,
+     * so waiting happens here rather than inside the pool's acquire timeout.
+     *
+     * @param daoQuestion The DAO to run operations on.
+     * @param dataSource  The pool the DAO uses.
+     */
+    public AsyncDaoQuestion(DaoQuestion daoQuestion, HikariDataSource dataSource) {
+        this(daoQuestion, dataSource.getMaximumPoolSize());
+    }
+
+    /**
+     * Constructs an AsyncDaoQuestion.
+     *
+     * @param daoQuestion The DAO to run operations on.
+     * @param maxInFlight The maximum number of operations running against the database at once.
+     */
+    public AsyncDaoQuestion(DaoQuestion daoQuestion, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.daoQuestion = daoQuestion;
+        this.inFlight = new Semaphore(maxInFlight, true);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Saves a question asynchronously.
+     *
+     * @param question The question object to be saved.
+     * @return A future completed with the result of DaoQuestion.saveQuestion.
+     */
+    public CompletableFuture<Boolean> saveQuestionAsync(Question question) {
+        return submit(() -> daoQuestion.saveQuestion(question));
+    }
+
+    /**
+     * Updates a question asynchronously.
+     *
+     * @param question The question object with updated information.
+     * @return A future completed when the update has been committed.
+     */
+    public CompletableFuture<Void> updateQuestionAsync(Question question) {
+        return submit(() -> {
+            daoQuestion.updateQuestion(question);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a question asynchronously.
+     *
+     * @param questionId The ID of the question to be deleted.
+     * @return A future completed when the question has been deleted.
+     */
+    public CompletableFuture<Void> deleteQuestionAsync(int questionId) {
+        return submit(() -> {
+            daoQuestion.deleteQuestion(questionId);
+            return null;
+        });
+    }
+
+    /**
+     * Searches questions by topic asynchronously.
+     *
+     * @param topic The topic to search for.
+     * @return A future completed with the questions matching the topic.
+     */
+    public CompletableFuture<List<Question>> searchQuestionByTopicAsync(String topic) {
+        return submit(() -> daoQuestion.searchQuestionByTopic(topic));
+    }
+
+    /**
+     * Returns the number of operations waiting for an in-flight slot.
+     *
+     * @return An estimate of the queued operations.
+     */
+    public int getQueuedCount() {
+        return inFlight.getQueueLength();
+    }
+
+    /**
+     * Stops accepting operations and waits for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(operation.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.release();
+            }
+        });
+        return future;
+    }
+
+    private final DaoQuestion daoQuestion;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+}
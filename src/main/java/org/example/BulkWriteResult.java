@@ -0,0 +1,42 @@
+package org.example;
+/**
+ * The BulkWriteResult class reports the rows a bulk DaoQuestion operation affected.
+ * Responses are counted even when the database removed them through a cascade.
+ */
+public class BulkWriteResult {
+    public BulkWriteResult(int quizCount, int[] questionIds, int responseCount) {
+        this.quizCount = quizCount;
+        this.questionIds = questionIds;
+        this.responseCount = responseCount;
+    }
+
+    public int getQuizCount() {
+        return quizCount;
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    public int getResponseCount() {
+        return responseCount;
+    }
+
+    /**
+     * Returns the ids of the questions that were affected.
+     *
+     * @return The question ids in no particular order.
+     */
+    public int[] getQuestionIds() {
+        return questionIds.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d quizzes, %d questions, %d responses", quizCount, questionIds.length, responseCount);
+    }
+
+    private final int quizCount;
+    private final int[] questionIds;
+    private final int responseCount;
+}
@@ -0,0 +1,217 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.util.List;
+/**
+ * The CachingDaoQuestion class is a DaoQuestion that serves topic searches from a
+ * read-through QuestionCache. Writes go to the database first and then invalidate
+ * the cached topics they affect. Register it with a QuestionChangeSubscriber to
+ * invalidate the same way for the writes of other nodes.
+ */
+public class CachingDaoQuestion extends DaoQuestion implements QuestionChangeListener {
+
+    /**
+     * Constructs a CachingDaoQuestion.
+     *
+     * @param dataSource The data source to use for database connections.
+     * @param cache      The cache that holds topic search results.
+     */
+    public CachingDaoQuestion(DataSource dataSource, QuestionCache cache) {
+        super(dataSource);
+        this.cache = cache;
+    }
+
+    /**
+     * Retrieves the cache used by this DAO, for example to read its statistics.
+     *
+     * @return The question cache.
+     */
+    public QuestionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Saves a new question and invalidates the cached topic of its quiz.
+     *
+     * @param question The question object to be saved.
+     * @return True if the question and responses were successfully saved;
+     * otherwise, false.
+     */
+    @Override
+    public boolean saveQuestion(Question question) {
+        boolean saved = super.saveQuestion(question);
+        questionSaved(question);
+        return saved;
+    }
+
+    /**
+     * Updates a question and invalidates both the topic it was cached under
+     * and the topic of the quiz it now belongs to.
+     *
+     * @param question The question object with updated information.
+     */
+    @Override
+    public void updateQuestion(Question question) {
+        super.updateQuestion(question);
+        questionUpdated(question);
+    }
+
+    /**
+     * Deletes a question and invalidates the topic it was cached under.
+     *
+     * @param questionId The ID of the question to be deleted.
+     * @throws DaoException If a database error occurs; nothing is deleted in that case.
+     */
+    @Override
+    public void deleteQuestion(int questionId) {
+        super.deleteQuestion(questionId);
+        questionDeleted(questionId);
+    }
+
+    /**
+     * Deletes several questions and invalidates the topics they were cached under.
+     *
+     * @param questionIds The IDs of the questions to be deleted.
+     * @return The questions and responses that were deleted.
+     */
+    @Override
+    public BulkWriteResult deleteQuestions(int[] questionIds) {
+        BulkWriteResult result = super.deleteQuestions(questionIds);
+        questionsDeleted(result.getQuestionIds());
+        return result;
+    }
+
+    /**
+     * Deletes a quiz and invalidates its topic.
+     *
+     * @param quizId The ID of the quiz to be deleted.
+     * @return The quiz, questions and responses that were deleted.
+     */
+    @Override
+    public BulkWriteResult deleteQuiz(int quizId) {
+        // The topic can only be looked up while the quiz still exists.
+        String topic = findTopicByQuizId(quizId);
+        BulkWriteResult result = super.deleteQuiz(quizId);
+        cache.invalidate(topic);
+        return result;
+    }
+
+    /**
+     * Moves several questions to another quiz and invalidates both the topics they
+     * were cached under and the topic of the target quiz.
+     *
+     * @param questionIds  The IDs of the questions to be moved.
+     * @param targetQuizId The ID of the quiz the questions are moved to.
+     * @return The questions that were moved and the number of responses that moved with them.
+     */
+    @Override
+    public BulkWriteResult moveQuestions(int[] questionIds, int targetQuizId) {
+        BulkWriteResult result = super.moveQuestions(questionIds, targetQuizId);
+        questionsMoved(result.getQuestionIds(), targetQuizId);
+        return result;
+    }
+
+    /**
+     * Retrieves the questions of a topic from the cache, loading them from the
+     * database on a miss. The returned list is a private copy. A load that falls back
+     * to a stale result is returned but not cached, so the topic is loaded again on the
+     * next search instead of serving the old result until it expires.
+     *
+     * @param topic     The topic to search for.
+     * @param fetchMode The strategy used to load the responses on a cache miss.
+     * @return A list of questions matching the topic.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open; nothing is cached then.
+     */
+    @Override
+    public List<Question> searchQuestionByTopic(String topic, FetchMode fetchMode) {
+        List<Question> cached = cache.get(topic);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        List<Question> questions = super.searchQuestionByTopic(topic, fetchMode);
+        if (!DaoExecutor.lastReadWasStale()) {
+            cache.put(topic, questions, generation);
+        }
+        return questions;
+    }
+
+    /**
+     * Invalidates the cached topic of the quiz a question was saved to.
+     *
+     * @param question The saved question.
+     */
+    @Override
+    public void questionSaved(Question question) {
+        invalidateTopicOf(question.getQuizId());
+    }
+
+    /**
+     * Invalidates the topic a question was cached under and the topic of its quiz.
+     *
+     * @param question The updated question.
+     */
+    @Override
+    public void questionUpdated(Question question) {
+        cache.invalidateQuestion(question.getId());
+        invalidateTopicOf(question.getQuizId());
+    }
+
+    /**
+     * Invalidates the topic a deleted question was cached under.
+     *
+     * @param questionId The ID of the deleted question.
+     */
+    @Override
+    public void questionDeleted(int questionId) {
+        cache.invalidateQuestion(questionId);
+    }
+
+    /**
+     * Invalidates the topics deleted questions were cached under.
+     *
+     * @param questionIds The IDs of the deleted questions.
+     */
+    @Override
+    public void questionsDeleted(int[] questionIds) {
+        for (int questionId : questionIds) {
+            cache.invalidateQuestion(questionId);
+        }
+    }
+
+    /**
+     * Invalidates the topics moved questions were cached under and the topic of the target quiz.
+     *
+     * @param questionIds  The IDs of the moved questions.
+     * @param targetQuizId The quiz the questions now belong to.
+     */
+    @Override
+    public void questionsMoved(int[] questionIds, int targetQuizId) {
+        for (int questionId : questionIds) {
+            cache.invalidateQuestion(questionId);
+        }
+        invalidateTopicOf(targetQuizId);
+    }
+
+    /**
+     * Invalidates every cached topic.
+     */
+    @Override
+    public void changesMissed() {
+        cache.invalidateAll();
+    }
+
+    private void invalidateTopicOf(int quizId) {
+        String topic;
+        try {
+            topic = findTopicByQuizId(quizId);
+        } catch (DaoException e) {
+            // The topic cannot be looked up, so every topic is dropped instead.
+            cache.invalidateAll();
+            return;
+        }
+        cache.invalidate(topic);
+    }
+
+    private final QuestionCache cache;
+}
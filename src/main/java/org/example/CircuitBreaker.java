@@ -0,0 +1,117 @@
+package org.example;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * The CircuitBreaker class stops DAO operations from reaching a database that keeps failing.
+ * After failureThreshold consecutive failures the circuit opens and operations fail at once
+ * instead of waiting for timeouts, which keeps threads from piling up behind a stalled
+ * database. Once openMs has passed, a single operation is let through as a probe: if it
+ * succeeds the circuit closes again, otherwise it stays open for another openMs.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The State enum lists the states of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Operations run normally.
+         */
+        CLOSED,
+        /**
+         * Operations fail at once.
+         */
+        OPEN,
+        /**
+         * One probe operation is running; the others fail at once.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Constructs a CircuitBreaker.
+     *
+     * @param failureThreshold The number of consecutive failures that opens the circuit.
+     * @param openMs           How long the circuit stays open before a probe is let through.
+     */
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive: " + failureThreshold);
+        }
+        if (openMs <= 0) {
+            throw new IllegalArgumentException("openMs must be positive: " + openMs);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMs * 1_000_000;
+    }
+
+    /**
+     * Asks whether an operation may run. A caller that gets true must report the outcome
+     * with recordSuccess or recordFailure.
+     *
+     * @return True if the operation may run, false if it must fail at once.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports an operation during which the database answered, even with an error such as
+     * a constraint violation.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Reports an operation that failed because the database could not be reached or did
+     * not answer in time.
+     *
+     * @param failure The error the operation failed with, kept as the cause of later fast failures.
+     */
+    public synchronized void recordFailure(SQLException failure) {
+        lastFailure = failure;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                openCount.incrementAndGet();
+            }
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Retrieves the error that last counted as a failure.
+     *
+     * @return The last failure, or null if there was none.
+     */
+    public synchronized SQLException getLastFailure() {
+        return lastFailure;
+    }
+
+    public long getOpenCount() {
+        return openCount.get();
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicLong openCount = new AtomicLong();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private SQLException lastFailure;
+}
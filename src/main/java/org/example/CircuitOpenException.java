@@ -0,0 +1,14 @@
+package org.example;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+/**
+ * The CircuitOpenException class is the error a DaoExecutor operation fails with while
+ * its CircuitBreaker is open. The database was not tried; the cause is the last failure
+ * that kept the circuit open.
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+    public CircuitOpenException(SQLException lastFailure) {
+        super("The database is unavailable; failing fast", DaoExecutor.CIRCUIT_OPEN_SQL_STATE, lastFailure);
+    }
+}
@@ -0,0 +1,145 @@
+package org.example;
+
+import java.util.Collection;
+/**
+ * The CorrectAnswerIndex class maps every response id to its question, quiz and
+ * correctness in an open-addressing table of primitive ints, so checking an answer
+ * neither locks nor allocates. Instances are immutable; build a new one when the question bank changes.
+ */
+public class CorrectAnswerIndex {
+    /**
+     * Result of check for a response that does not belong to the question.
+     */
+    public static final int INVALID = -1;
+    /**
+     * Result of check for a wrong response.
+     */
+    public static final int WRONG = 0;
+    /**
+     * Result of check for a correct response.
+     */
+    public static final int CORRECT = 1;
+
+    private static final int EMPTY = 0;
+
+    /**
+     * Builds an index over the questions held by the given topic banks.
+     *
+     * @param banks The topic banks, for example every topic of a QuizEngine.
+     * @return The index.
+     */
+    public static CorrectAnswerIndex of(Collection<TopicBank> banks) {
+        int responses = 0;
+        for (TopicBank bank : banks) {
+            for (int i = 0; i < bank.size(); i++) {
+                responses += bank.responseCount(i);
+            }
+        }
+        CorrectAnswerIndex index = new CorrectAnswerIndex(responses);
+        for (TopicBank bank : banks) {
+            for (int i = 0; i < bank.size(); i++) {
+                for (int j = 0; j < bank.responseCount(i); j++) {
+                    index.put(bank.responseId(i, j), bank.questionId(i), bank.quizId(i), bank.isCorrect(i, j));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Builds an index over the questions held by a quiz engine.
+     *
+     * @param quizEngine The engine whose topics are indexed.
+     * @return The index.
+     */
+    public static CorrectAnswerIndex of(QuizEngine quizEngine) {
+        return of(quizEngine.getTopics().stream().map(quizEngine::topic).toList());
+    }
+
+    private CorrectAnswerIndex(int expectedSize) {
+        // A load factor of at most one half keeps probe sequences short.
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.responseIds = new int[capacity];
+        this.questionIds = new int[capacity];
+        this.correct = new boolean[capacity];
+        this.quizIds = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Checks a submitted response.
+     *
+     * @param questionId The question the player answered.
+     * @param responseId The response the player picked.
+     * @return CORRECT, WRONG or INVALID if the response is unknown or belongs to another question.
+     */
+    public int check(int questionId, int responseId) {
+        if (responseId == EMPTY) {
+            return INVALID;
+        }
+        for (int slot = mix(responseId) & mask; ; slot = (slot + 1) & mask) {
+            int key = responseIds[slot];
+            if (key == EMPTY) {
+                return INVALID;
+            }
+            if (key == responseId) {
+                if (questionIds[slot] != questionId) {
+                    return INVALID;
+                }
+                return correct[slot] ? CORRECT : WRONG;
+            }
+        }
+    }
+
+    /**
+     * Returns the quiz of the question a response belongs to.
+     *
+     * @param responseId The response.
+     * @return The quiz id, or 0 if the response is unknown.
+     */
+    public int quizIdOf(int responseId) {
+        if (responseId == EMPTY) {
+            return 0;
+        }
+        for (int slot = mix(responseId) & mask; ; slot = (slot + 1) & mask) {
+            int key = responseIds[slot];
+            if (key == EMPTY) {
+                return 0;
+            }
+            if (key == responseId) {
+                return quizIds[slot];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void put(int responseId, int questionId, int quizId, boolean isCorrect) {
+        int slot = mix(responseId) & mask;
+        while (responseIds[slot] != EMPTY && responseIds[slot] != responseId) {
+            slot = (slot + 1) & mask;
+        }
+        if (responseIds[slot] == EMPTY) {
+            size++;
+        }
+        responseIds[slot] = responseId;
+        questionIds[slot] = questionId;
+        correct[slot] = isCorrect;
+        quizIds[slot] = quizId;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private final int[] responseIds;
+    // Every int is a valid question id, so the correct flag is kept apart rather than packed into it.
+    private final int[] questionIds;
+    private final boolean[] correct;
+    private final int[] quizIds;
+    private final int mask;
+    private int size;
+}
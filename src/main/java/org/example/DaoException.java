@@ -0,0 +1,30 @@
+package org.example;
+
+import java.sql.SQLException;
+/**
+ * The DaoException class signals that a DAO operation failed in the database.
+ * Any transaction the operation started has been rolled back when it is thrown.
+ */
+public class DaoException extends RuntimeException {
+    public DaoException(String message, SQLException cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Retrieves the SQLState of the underlying database error.
+     *
+     * @return The SQLState, or null if the driver did not report one.
+     */
+    public String getSqlState() {
+        return ((SQLException) getCause()).getSQLState();
+    }
+
+    /**
+     * Tells whether the operation failed fast because the circuit breaker is open.
+     *
+     * @return True if the database was not tried at all.
+     */
+    public boolean isCircuitOpen() {
+        return DaoExecutor.isCircuitOpen((SQLException) getCause());
+    }
+}
@@ -0,0 +1,368 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+/**
+ * The DaoExecutor class runs the database work of DaoQuestion and DaoQuiz operations.
+ * <ul>
+ * <li>Every statement gets the query timeout of its operation, and every connection a
+ * network timeout a little longer, so a database that has stopped answering cannot
+ * block a caller forever.</li>
+ * <li>Transient failures are retried with jittered exponential backoff: serialization
+ * failures, deadlocks and failures to connect always, since nothing was written;
+ * connections lost during an operation only for operations that are safe to repeat.</li>
+ * <li>An optional CircuitBreaker makes operations fail at once while the database keeps
+ * failing to connect or to answer in time.</li>
+ * <li>Reads can optionally fall back to the last result they returned for the same
+ * arguments while the database is unavailable.</li>
+ * </ul>
+ * An executor may be shared by several DAOs.
+ */
+public class DaoExecutor {
+
+    /**
+     * Query timeout in seconds used for operations without one of their own.
+     */
+    public static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+    /**
+     * Number of times an operation is tried by default, the first try included.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /**
+     * SQLState of the CircuitOpenException an operation fails with while the circuit is open.
+     * It lies in an implementation-defined class, so no driver or pool error carries it.
+     */
+    public static final String CIRCUIT_OPEN_SQL_STATE = "QC001";
+
+    /**
+     * Constructs a DaoExecutor with the default timeouts and retries and no circuit breaker.
+     */
+    public DaoExecutor() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS, null);
+    }
+
+    /**
+     * Constructs a DaoExecutor.
+     *
+     * @param maxAttempts    The number of times an operation is tried, the first try included.
+     * @param baseBackoffMs  The longest wait before the first retry; it doubles for each further retry.
+     * @param maxBackoffMs   The longest wait before any retry.
+     * @param circuitBreaker The circuit breaker guarding the database, or null for none.
+     */
+    public DaoExecutor(int maxAttempts, long baseBackoffMs, long maxBackoffMs, CircuitBreaker circuitBreaker) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.circuitBreaker = circuitBreaker;
+        Arrays.fill(queryTimeouts, DEFAULT_QUERY_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Sets the query timeout of an operation. The connection an attempt uses gets a network
+     * timeout NETWORK_TIMEOUT_GRACE_MS longer, which ends the attempt even when the server
+     * is too stalled to cancel the query.
+     *
+     * @param operation The operation.
+     * @param seconds   The timeout in seconds, or 0 for none.
+     */
+    public void setQueryTimeout(DaoOperation operation, int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("seconds must not be negative: " + seconds);
+        }
+        queryTimeouts[operation.ordinal()] = seconds;
+    }
+
+    public int getQueryTimeout(DaoOperation operation) {
+        return queryTimeouts[operation.ordinal()];
+    }
+
+    /**
+     * Makes reads keep their last result per operation and arguments, and return it when
+     * the database is unavailable. Only failures to connect or to answer in time fall back;
+     * other errors are still reported.
+     *
+     * @param maxEntries The number of results kept before the least recently used is dropped.
+     * @param maxAgeMs   How old a result may be and still be returned.
+     */
+    public void enableStaleResults(int maxEntries, long maxAgeMs) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        synchronized (staleResults) {
+            this.maxStaleEntries = maxEntries;
+            this.maxStaleNanos = maxAgeMs * 1_000_000;
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getStaleResultCount() {
+        return staleResultsServed.get();
+    }
+
+    /**
+     * Runs the database work of an operation.
+     *
+     * @param operation  The operation, which selects the query timeout.
+     * @param idempotent Whether the work may be repeated after its connection was lost midway.
+     * @param call       The work; it opens and closes its own connection.
+     * @return The result of the work.
+     * @throws SQLException The last error if every attempt failed, or an error with
+     *                      a CircuitOpenException if the circuit is open.
+     */
+    public <T> T execute(DaoOperation operation, boolean idempotent, SqlCall<T> call) throws SQLException {
+        int timeout = queryTimeouts[operation.ordinal()];
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                rejected.incrementAndGet();
+                throw new CircuitOpenException(circuitBreaker.getLastFailure());
+            }
+            int[] current = QUERY_TIMEOUT.get();
+            int previous = current[0];
+            current[0] = timeout;
+            try {
+                T result = call.call();
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordSuccess();
+                }
+                return result;
+            } catch (SQLException e) {
+                if (circuitBreaker != null) {
+                    if (isUnavailable(e)) {
+                        circuitBreaker.recordFailure(e);
+                    } else {
+                        circuitBreaker.recordSuccess();
+                    }
+                }
+                if (attempt >= maxAttempts || !isRetryable(e, idempotent)) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                backoff(attempt, e);
+            } catch (RuntimeException e) {
+                // Not a database failure, but a probe must still end the half-open state.
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordSuccess();
+                }
+                throw e;
+            } finally {
+                current[0] = previous;
+            }
+        }
+    }
+
+    /**
+     * Runs the database work of a read. If stale results are enabled, a successful result
+     * is kept, and returned instead of an error while the database is unavailable.
+     *
+     * @param operation The operation, which selects the query timeout.
+     * @param key       The arguments of the read; equal keys share a stale result.
+     * @param copy      Copies a result, so neither the caller nor the kept result can change the other.
+     * @param call      The work; it opens and closes its own connection.
+     * @return The result of the work, or a stale result.
+     * @throws SQLException As for execute, if no stale result is available.
+     */
+    public <T> T executeRead(DaoOperation operation, Object key, UnaryOperator<T> copy, SqlCall<T> call)
+            throws SQLException {
+        STALE_READ.get()[0] = false;
+        if (maxStaleEntries == 0) {
+            return execute(operation, true, call);
+        }
+        StaleKey staleKey = new StaleKey(operation, key);
+        try {
+            T result = execute(operation, true, call);
+            T kept = copy.apply(result);
+            synchronized (staleResults) {
+                staleResults.put(staleKey, new StaleResult(kept, System.nanoTime()));
+            }
+            return result;
+        } catch (SQLException e) {
+            if (!isUnavailable(e)) {
+                throw e;
+            }
+            StaleResult stale;
+            synchronized (staleResults) {
+                stale = staleResults.get(staleKey);
+            }
+            if (stale == null || System.nanoTime() - stale.storedAt() > maxStaleNanos) {
+                throw e;
+            }
+            staleResultsServed.incrementAndGet();
+            STALE_READ.get()[0] = true;
+            @SuppressWarnings("unchecked")
+            T value = (T) stale.value();
+            return copy.apply(value);
+        }
+    }
+
+    /**
+     * Tells whether the last executeRead on this thread returned a stale result, so a
+     * caller that keeps results, such as CachingDaoQuestion, can avoid keeping it again.
+     *
+     * @return True if the last read on this thread fell back to a stale result.
+     */
+    static boolean lastReadWasStale() {
+        return STALE_READ.get()[0];
+    }
+
+    /**
+     * Tells whether an error means the database could not be reached or did not answer in
+     * time, as opposed to an error in the request such as a constraint violation.
+     *
+     * @param e The error.
+     * @return True if the error counts against the circuit breaker.
+     */
+    public static boolean isUnavailable(SQLException e) {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.equals("57014") || state.equals("53300")
+                || state.startsWith("57P"));
+    }
+
+    /**
+     * Tells whether an error is the fast failure of an open circuit, raised before the
+     * database was tried at all.
+     *
+     * @param e The error.
+     * @return True if the error is a CircuitOpenException.
+     */
+    public static boolean isCircuitOpen(SQLException e) {
+        return e instanceof CircuitOpenException;
+    }
+
+    /**
+     * Applies the query timeout of the operation running on this thread to a statement.
+     */
+    static void applyQueryTimeout(Statement statement) throws SQLException {
+        int timeout = QUERY_TIMEOUT.get()[0];
+        if (timeout > 0) {
+            statement.setQueryTimeout(timeout);
+        }
+    }
+
+    /**
+     * Applies the network timeout of the operation running on this thread to a connection.
+     * The connection is closed if the timeout cannot be applied.
+     *
+     * @return The connection.
+     */
+    static Connection applyNetworkTimeout(Connection connection) throws SQLException {
+        int timeout = QUERY_TIMEOUT.get()[0];
+        if (timeout > 0) {
+            try {
+                connection.setNetworkTimeout(Runnable::run, (int) Math.min(Integer.MAX_VALUE,
+                        timeout * 1000L + NETWORK_TIMEOUT_GRACE_MS));
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Tells whether an operation that failed with an error may be tried again.
+     *
+     * @param e          The error.
+     * @param idempotent Whether the operation may be repeated after its connection was lost midway.
+     * @return True if a retry may succeed.
+     */
+    static boolean isRetryable(SQLException e, boolean idempotent) {
+        String state = e.getSQLState();
+        if (state == null) {
+            // A pool that timed out waiting for a connection did not reach the database.
+            return e instanceof SQLTransientConnectionException;
+        }
+        return switch (state) {
+            // The transaction was rolled back, or the connection never opened: nothing was written.
+            case "40001", "40P01", "08001", "08004", "57P03", "53300" -> true;
+            // A timeout is not retried: repeating it would add load to a database that is already slow.
+            case "57014" -> false;
+            default -> idempotent && isUnavailable(e);
+        };
+    }
+
+    private void backoff(int attempt, SQLException cause) throws SQLException {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        // Full jitter keeps callers that failed together from retrying together.
+        long sleepMs = ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    /**
+     * The database work of an operation.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private record StaleKey(DaoOperation operation, Object key) {
+    }
+
+    private record StaleResult(Object value, long storedAt) {
+    }
+
+    /**
+     * Time in milliseconds the network timeout exceeds the query timeout, leaving the server
+     * time to cancel the query itself.
+     */
+    public static final long NETWORK_TIMEOUT_GRACE_MS = 2_000;
+
+    private static final long DEFAULT_BASE_BACKOFF_MS = 50;
+    private static final long DEFAULT_MAX_BACKOFF_MS = 1_000;
+    // The timeout of the operation running on each thread, read where its statements are prepared.
+    private static final ThreadLocal<int[]> QUERY_TIMEOUT = ThreadLocal.withInitial(() -> new int[1]);
+    // Whether the last read on each thread returned a stale result.
+    private static final ThreadLocal<boolean[]> STALE_READ = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final CircuitBreaker circuitBreaker;
+    private final int[] queryTimeouts = new int[DaoOperation.values().length];
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong staleResultsServed = new AtomicLong();
+    private final Map<StaleKey, StaleResult> staleResults = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StaleKey, StaleResult> eldest) {
+            return size() > maxStaleEntries;
+        }
+    };
+    private volatile int maxStaleEntries;
+    private volatile long maxStaleNanos;
+}
@@ -0,0 +1,209 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * The DaoMetrics class collects latency histograms and counters for DAO operations.
+ * Recording methods are lock-free and do not allocate, so they can sit on every hot path.
+ * The collected values can be read in-process or exported in Prometheus text format.
+ */
+public class DaoMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    public DaoMetrics() {
+        DaoOperation[] operations = DaoOperation.values();
+        latencies = new LatencyHistogram[operations.length];
+        for (DaoOperation operation : operations) {
+            latencies[operation.ordinal()] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the duration of a completed operation.
+     *
+     * @param operation  The operation that completed.
+     * @param startNanos The System.nanoTime() value taken when the operation started.
+     */
+    public void recordOperation(DaoOperation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records the time spent waiting for a database connection.
+     *
+     * @param startNanos The System.nanoTime() value taken before the connection was requested.
+     */
+    public void recordConnectionAcquire(long startNanos) {
+        connectionAcquire.record(System.nanoTime() - startNanos);
+    }
+
+    public void recordStatements(int count) {
+        statements.add(count);
+    }
+
+    /**
+     * Counts a statement prepared through StatementCache.
+     *
+     * @param reused True if the physical connection had already prepared the same SQL.
+     */
+    public void recordStatementPrepare(boolean reused) {
+        (reused ? statementsReused : statementsPrepared).increment();
+    }
+
+    /**
+     * Counts a buffered write that replaced an earlier one before it reached the database.
+     */
+    public void recordCollapsedWrite() {
+        collapsedWrites.increment();
+    }
+
+    public void recordRowsRead(int count) {
+        rowsRead.add(count);
+    }
+
+    public void recordRowsWritten(int count) {
+        rowsWritten.add(count);
+    }
+
+    /**
+     * Counts a failed operation under the SQLState reported by the driver.
+     *
+     * @param e The exception raised by the driver.
+     */
+    public void recordError(SQLException e) {
+        String sqlState = e.getSQLState() == null ? "unknown" : e.getSQLState();
+        errors.computeIfAbsent(sqlState, state -> new LongAdder()).increment();
+    }
+
+    public LatencyHistogram getLatency(DaoOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    public LatencyHistogram getConnectionAcquire() {
+        return connectionAcquire;
+    }
+
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    public long getStatementsPrepared() {
+        return statementsPrepared.sum();
+    }
+
+    public long getStatementsReused() {
+        return statementsReused.sum();
+    }
+
+    public long getCollapsedWrites() {
+        return collapsedWrites.sum();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    /**
+     * Returns the number of errors recorded per SQLState.
+     *
+     * @return A sorted snapshot of the error counters.
+     */
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        errors.forEach((state, count) -> snapshot.put(state, count.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Writes every metric in Prometheus text exposition format.
+     *
+     * @param writer The writer to append to.
+     * @throws IOException If writing fails.
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        writer.write("# HELP quiz_dao_operation_seconds Latency of DAO operations.\n");
+        writer.write("# TYPE quiz_dao_operation_seconds summary\n");
+        for (DaoOperation operation : DaoOperation.values()) {
+            writeSummary(writer, "quiz_dao_operation_seconds",
+                    "operation=\"" + operation.label() + "\"", getLatency(operation));
+        }
+        writer.write("# HELP quiz_dao_connection_acquire_seconds Time spent waiting for a connection.\n");
+        writer.write("# TYPE quiz_dao_connection_acquire_seconds summary\n");
+        writeSummary(writer, "quiz_dao_connection_acquire_seconds", null, connectionAcquire);
+        writeCounter(writer, "quiz_dao_statements_total", "Statements executed.", getStatementCount());
+        writeCounter(writer, "quiz_dao_statements_prepared_total",
+                "Statements prepared for the first time on their connection.", getStatementsPrepared());
+        writeCounter(writer, "quiz_dao_statements_reused_total",
+                "Statements whose connection had already prepared them.", getStatementsReused());
+        writeCounter(writer, "quiz_dao_collapsed_writes_total",
+                "Buffered writes replaced by a later write before reaching the database.", getCollapsedWrites());
+        writeCounter(writer, "quiz_dao_rows_read_total", "Rows read from result sets.", getRowsRead());
+        writeCounter(writer, "quiz_dao_rows_written_total", "Rows inserted, updated or deleted.", getRowsWritten());
+        writer.write("# HELP quiz_dao_errors_total Failed operations by SQLState.\n");
+        writer.write("# TYPE quiz_dao_errors_total counter\n");
+        for (Map.Entry<String, Long> entry : getErrorCounts().entrySet()) {
+            writer.write("quiz_dao_errors_total{sqlstate=\"" + entry.getKey() + "\"} " + entry.getValue() + "\n");
+        }
+    }
+
+    /**
+     * Writes every metric in Prometheus text format to a file, for example one
+     * scraped by the node exporter's textfile collector. The file is replaced atomically.
+     *
+     * @param file The file to write.
+     * @throws IOException If writing fails.
+     */
+    public void exportPrometheus(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writePrometheus(writer);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSummary(Writer writer, String name, String labels, LatencyHistogram histogram)
+            throws IOException {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            writer.write(name + "{" + prefix + "quantile=\"" + quantile + "\"} "
+                    + seconds(histogram.getValueAtQuantile(quantile)) + "\n");
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        writer.write(name + "_sum" + suffix + " " + seconds(histogram.getSumNanos()) + "\n");
+        writer.write(name + "_count" + suffix + " " + histogram.getCount() + "\n");
+    }
+
+    private static void writeCounter(Writer writer, String name, String help, long value) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " counter\n");
+        writer.write(name + " " + value + "\n");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+
+    private final LatencyHistogram[] latencies;
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder statementsPrepared = new LongAdder();
+    private final LongAdder statementsReused = new LongAdder();
+    private final LongAdder collapsedWrites = new LongAdder();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import java.util.Locale;
+/**
+ * The DaoOperation enum names the DAO operations that DaoMetrics times.
+ */
+public enum DaoOperation {
+    SAVE_QUESTION,
+    UPDATE_QUESTION,
+    UPDATE_QUESTIONS,
+    FLUSH_QUESTION_UPDATES,
+    DELETE_QUESTION,
+    DELETE_QUESTIONS,
+    DELETE_QUIZ,
+    MOVE_QUESTIONS,
+    SEARCH_QUESTION_BY_TOPIC,
+    SEARCH_QUESTION_PAGE,
+    STREAM_QUESTION_BY_TOPIC,
+    LOAD_QUESTION_BLOCK,
+    SEARCH_QUESTION_TEXT,
+    FIND_TOPIC_BY_QUIZ_ID,
+    FIND_QUIZ,
+    FIND_QUIZZES_BY_TOPIC,
+    FIND_QUIZZES_BY_DIFFICULTY,
+    LOAD_RESPONSES,
+    FLUSH_ANSWER_STATISTICS,
+    FIND_HARDEST_QUESTIONS;
+
+    /**
+     * Returns the label used for this operation in exported metrics.
+     *
+     * @return The lower-case operation name, the same in every locale.
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,13 +1,27 @@
 package org.example;
 
-import org.postgresql.ds.PGSimpleDataSource;
-
+import javax.sql.DataSource;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /**
  * The DaoQuestion class provides methods for interacting
  * with question data in the database.
@@ -15,185 +29,1059 @@ import java.util.List;
 public class DaoQuestion {
 
     /**
-     * Retrieves the PostgreSQL data source used by this DAO.
+     * Retrieves the data source used by this DAO.
      *
-     * @return The PostgreSQL data source.
+     * @return The data source.
      */
-    public PGSimpleDataSource getDataSource() {
+    public DataSource getDataSource() {
         return dataSource;
     }
 
     /**
-     * Sets the PostgreSQL data source to be used by this DAO.
+     * Sets the data source to be used by this DAO.
      *
-     * @param dataSource The PostgreSQL data source to set.
+     * @param dataSource The data source to set, either a plain or a pooled one.
      */
-    public void setDataSource(PGSimpleDataSource dataSource) {
+    public void setDataSource(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
     /**
-     * Constructs a DaoQuestion instance with a PostgreSQL data source.
+     * Constructs a DaoQuestion instance with a data source.
      *
-     * @param dataSource The PostgreSQL data source to use for database connections.
+     * @param dataSource The data source to use for database connections,
+     *                   for example one created by DatabaseConfig.
      */
-    public DaoQuestion(PGSimpleDataSource dataSource) {
+    public DaoQuestion(DataSource dataSource) {
         this.dataSource = dataSource;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.statementCache = new StatementCache();
+        this.executor = new DaoExecutor();
+        this.readYourWrites = false;
+    }
+
+    private DaoQuestion(DaoQuestion parent) {
+        this.dataSource = parent.dataSource;
+        this.readDataSource = parent.readDataSource;
+        this.changeChannel = parent.changeChannel;
+        this.metrics = parent.metrics;
+        this.listeners = parent.listeners;
+        this.statementCache = parent.statementCache;
+        this.executor = parent.executor;
+        this.readYourWrites = true;
+    }
+
+    /**
+     * Retrieves the data source reads are sent to.
+     *
+     * @return The read data source, or null if reads use the data source of the DAO.
+     */
+    public DataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    /**
+     * Sets the data source reads are sent to, for example a ReplicaDataSource spreading them
+     * over read replicas. Writes, and the reads they make, keep using the data source of the DAO.
+     *
+     * @param readDataSource The read data source, or null to read from the data source of the DAO.
+     */
+    public void setReadDataSource(DataSource readDataSource) {
+        this.readDataSource = readDataSource;
+    }
+
+    /**
+     * Retrieves the channel question writes are published on.
+     *
+     * @return The channel, or null if writes are not published.
+     */
+    public String getChangeChannel() {
+        return changeChannel;
+    }
+
+    /**
+     * Makes every question write publish a NOTIFY on a channel when it commits, so
+     * QuestionChangeSubscribers on other nodes can refresh what they hold.
+     *
+     * @param changeChannel The channel, for example QuestionChangeSubscriber.DEFAULT_CHANNEL,
+     *                      or null to stop publishing.
+     */
+    public void setChangeChannel(String changeChannel) {
+        this.changeChannel = changeChannel == null ? null : QuestionChangeSubscriber.checkChannel(changeChannel);
+    }
+
+    /**
+     * Opens a read-your-writes session on this DAO. The session shares the data sources,
+     * metrics and listeners of the DAO as they are now. Once the session has written, its
+     * reads go only to replicas that have replayed its writes, or to the primary otherwise.
+     * Use one session per user or request, not one for the whole application.
+     *
+     * @return A plain DaoQuestion bound to the session.
+     */
+    public DaoQuestion openSession() {
+        return new DaoQuestion(this);
+    }
+
+    /**
+     * Retrieves the log position of the last write of a read-your-writes session.
+     *
+     * @return The position in PostgreSQL's text form, or null if the session has not written.
+     */
+    public String getLastWriteLsn() {
+        long lsn = lastWriteLsn.get();
+        return lsn == 0 ? null : ReplicaDataSource.formatLsn(lsn);
+    }
+
+    /**
+     * Retrieves the metrics recorded by this DAO.
+     *
+     * @return The metrics of this DAO.
+     */
+    public DaoMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics this DAO records into, for example to share them between DAOs.
+     *
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(DaoMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves the executor that runs the database work of this DAO.
+     *
+     * @return The executor of this DAO.
+     */
+    public DaoExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that runs the database work of this DAO, for example one with a
+     * CircuitBreaker, shorter timeouts or stale results enabled, or one shared between DAOs.
+     *
+     * @param executor The executor to run operations with.
+     */
+    public void setExecutor(DaoExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a listener that is told about every committed question write.
+     *
+     * @param listener The listener to add.
+     */
+    public void addQuestionChangeListener(QuestionChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addQuestionChangeListener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeQuestionChangeListener(QuestionChangeListener listener) {
+        listeners.remove(listener);
     }
 
     /**
-     * Saves a new question and its associated responses to the database.
+     * Saves a new question and its associated responses to the database
+     * in a single transaction.
      *
      * @param question The question object to be saved.
      * @return True if the question and responses were successfully saved;
      * otherwise, false.
+     * @throws DaoException If a database error occurs; nothing is saved in that case.
      */
     public boolean saveQuestion(Question question) {
-        try (Connection connection = dataSource.getConnection()) {
-            String insertQuestionQuery = "INSERT INTO question (content, quiz_id) VALUES (?, ?)";
-            try (PreparedStatement preparedStatement = connection.prepareStatement(insertQuestionQuery, new String[]{"id"})) {
-                preparedStatement.setString(1, question.getContent());
-                preparedStatement.setInt(2, question.getQuizId());
-                int rowsInserted = preparedStatement.executeUpdate();
-                if (rowsInserted > 0) {
-                    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        int questionId = generatedKeys.getInt(1);
-                        question.setId(questionId);
-
-                        if (question.getResponses() != null && !question.getResponses().isEmpty()) {
-                            for (Response response : question.getResponses()) {
-                                saveResponse(response, questionId, connection);
-                            }
+        long start = System.nanoTime();
+        try {
+            // An insert that may have committed before its connection was lost is not repeated.
+            boolean saved = executor.execute(DaoOperation.SAVE_QUESTION, false, () -> {
+                try (Connection connection = getConnection()) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                        boolean inserted = insertQuestion(question, connection);
+                        if (inserted) {
+                            publishChange(connection, "saved", new int[]{question.getId()}, question.getQuizId());
+                            connection.commit();
+                            trackWrite(connection);
+                        } else {
+                            connection.rollback();
                         }
-                        return true;
+                        return inserted;
+                    } catch (SQLException e) {
+                        rollback(connection, e);
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
                     }
                 }
+            });
+            if (saved) {
+                for (QuestionChangeListener listener : listeners) {
+                    listener.questionSaved(question);
+                }
             }
+            return saved;
         } catch (SQLException e) {
-            e.printStackTrace();
+            metrics.recordError(e);
+            throw new DaoException("Failed to save question", e);
+        } finally {
+            metrics.recordOperation(DaoOperation.SAVE_QUESTION, start);
         }
-        return false;
     }
 
     /**
-     * Updates an existing question and its associated responses in the database.
+     * Updates an existing question and its associated responses in the database
+     * in a single transaction. Responses are matched to the stored ones by id, so only
+     * changed responses are updated, new ones inserted and missing ones deleted.
+     * Concurrent readers see either the old or the new question, never a mix.
      *
      * @param question The question object with updated information.
+     * @throws DaoException If a database error occurs; nothing is changed in that case.
      */
     public void updateQuestion(Question question) {
-        try (Connection connection = dataSource.getConnection()) {
-            String updateQuestionQuery = "UPDATE question SET content = ?, quiz_id = ? WHERE id = ?";
-            try (PreparedStatement preparedStatement = connection.prepareStatement(updateQuestionQuery)) {
-                preparedStatement.setString(1, question.getContent());
-                preparedStatement.setInt(2, question.getQuizId());
-                preparedStatement.setInt(3, question.getId());
-                preparedStatement.executeUpdate();
+        long start = System.nanoTime();
+        try {
+            executor.execute(DaoOperation.UPDATE_QUESTION, true, () -> {
+                try (Connection connection = getConnection()) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                        writeQuestionUpdate(question, connection);
+                        publishChange(connection, "updated", new int[]{question.getId()}, question.getQuizId());
+                        connection.commit();
+                        trackWrite(connection);
+                        return null;
+                    } catch (SQLException e) {
+                        rollback(connection, e);
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+            });
+            for (QuestionChangeListener listener : listeners) {
+                listener.questionUpdated(question);
+            }
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to update question " + question.getId(), e);
+        } finally {
+            metrics.recordOperation(DaoOperation.UPDATE_QUESTION, start);
+        }
+    }
 
-                updateResponses(question, connection);
+    /**
+     * Updates several existing questions and their responses in a single transaction,
+     * in the given order, as updateQuestion does for one question.
+     *
+     * @param questions The question objects with updated information.
+     * @throws DaoException If a database error occurs; none of the questions is changed in that case.
+     */
+    public void updateQuestions(Collection<Question> questions) {
+        if (questions.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            executor.execute(DaoOperation.UPDATE_QUESTIONS, true, () -> {
+                try (Connection connection = getConnection()) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                        for (Question question : questions) {
+                            writeQuestionUpdate(question, connection);
+                            publishChange(connection, "updated", new int[]{question.getId()}, question.getQuizId());
+                        }
+                        connection.commit();
+                        trackWrite(connection);
+                        return null;
+                    } catch (SQLException e) {
+                        rollback(connection, e);
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+            });
+            for (Question question : questions) {
+                for (QuestionChangeListener listener : listeners) {
+                    listener.questionUpdated(question);
+                }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            metrics.recordError(e);
+            throw new DaoException("Failed to update " + questions.size() + " questions", e);
+        } finally {
+            metrics.recordOperation(DaoOperation.UPDATE_QUESTIONS, start);
         }
     }
 
     /**
-     * Deletes a question and its associated responses from the database.
+     * Deletes a question from the database; its responses are removed by the
+     * ON DELETE CASCADE of the response table.
      *
      * @param questionId The ID of the question to be deleted.
+     * @throws DaoException If a database error occurs; nothing is deleted in that case.
      */
     public void deleteQuestion(int questionId) {
-        try (Connection connection = dataSource.getConnection()) {
-            // Delete the question and its associated responses
-            String deleteQuestionQuery = "DELETE FROM question WHERE id = ?";
-            try (PreparedStatement preparedStatement = connection.prepareStatement(deleteQuestionQuery)) {
-                preparedStatement.setInt(1, questionId);
-                preparedStatement.executeUpdate();
+        long start = System.nanoTime();
+        try {
+            executor.execute(DaoOperation.DELETE_QUESTION, true, () -> {
+                try (Connection connection = getConnection()) {
+                    String deleteQuestionQuery = "DELETE FROM question WHERE id = ?";
+                    try (PreparedStatement preparedStatement = prepare(connection, deleteQuestionQuery)) {
+                        preparedStatement.setInt(1, questionId);
+                        int deleted = preparedStatement.executeUpdate();
+                        metrics.recordRowsWritten(deleted);
+                        metrics.recordStatements(1);
+                        if (deleted > 0) {
+                            publishChange(connection, "deleted", new int[]{questionId}, 0);
+                        }
+                    }
+                    trackWrite(connection);
+                    return null;
+                }
+            });
+            for (QuestionChangeListener listener : listeners) {
+                listener.questionDeleted(questionId);
+            }
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to delete question " + questionId, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.DELETE_QUESTION, start);
+        }
+    }
+
+    /**
+     * Deletes several questions and their responses with a single statement.
+     *
+     * @param questionIds The IDs of the questions to be deleted; unknown IDs are ignored.
+     * @return The questions and responses that were deleted.
+     * @throws DaoException If a database error occurs; nothing is deleted in that case.
+     */
+    public BulkWriteResult deleteQuestions(int[] questionIds) {
+        long start = System.nanoTime();
+        try {
+            BulkWriteResult result = executor.execute(DaoOperation.DELETE_QUESTIONS, true, () -> {
+                try (Connection connection = getConnection()) {
+                    String deleteQuestionsQuery = "WITH affected AS (DELETE FROM question WHERE id = ANY(?) RETURNING id) "
+                            + bulkResultQuery("0");
+                    try (PreparedStatement preparedStatement = prepare(connection, deleteQuestionsQuery)) {
+                        preparedStatement.setArray(1, connection.createArrayOf("integer", boxed(questionIds)));
+                        BulkWriteResult written = executeBulkWrite(preparedStatement);
+                        publishChange(connection, "deleted", written.getQuestionIds(), 0);
+                        trackWrite(connection);
+                        return written;
+                    }
+                }
+            });
+            for (QuestionChangeListener listener : listeners) {
+                listener.questionsDeleted(result.getQuestionIds());
+            }
+            return result;
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to delete " + questionIds.length + " questions", e);
+        } finally {
+            metrics.recordOperation(DaoOperation.DELETE_QUESTIONS, start);
+        }
+    }
+
+    /**
+     * Deletes a quiz together with all of its questions and their responses with a single statement.
+     *
+     * @param quizId The ID of the quiz to be deleted.
+     * @return The quiz, questions and responses that were deleted; a quiz count of 0 means the quiz did not exist.
+     * @throws DaoException If a database error occurs; nothing is deleted in that case.
+     */
+    public BulkWriteResult deleteQuiz(int quizId) {
+        long start = System.nanoTime();
+        try {
+            BulkWriteResult result = executor.execute(DaoOperation.DELETE_QUIZ, true, () -> {
+                try (Connection connection = getConnection()) {
+                    // The questions are deleted explicitly only to return their ids; the quiz delete would cascade anyway.
+                    String deleteQuizQuery = "WITH affected AS (DELETE FROM question WHERE quiz_id = ? RETURNING id), "
+                            + "deleted_quiz AS (DELETE FROM quiz WHERE id = ? RETURNING id) "
+                            + bulkResultQuery("(SELECT count(*) FROM deleted_quiz)");
+                    try (PreparedStatement preparedStatement = prepare(connection, deleteQuizQuery)) {
+                        preparedStatement.setInt(1, quizId);
+                        preparedStatement.setInt(2, quizId);
+                        BulkWriteResult written = executeBulkWrite(preparedStatement);
+                        publishChange(connection, "deleted", written.getQuestionIds(), 0);
+                        trackWrite(connection);
+                        return written;
+                    }
+                }
+            });
+            for (QuestionChangeListener listener : listeners) {
+                listener.questionsDeleted(result.getQuestionIds());
+            }
+            return result;
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to delete quiz " + quizId, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.DELETE_QUIZ, start);
+        }
+    }
 
-                String deleteResponsesQuery = "DELETE FROM response WHERE question_id = ?";
-                try (PreparedStatement responseStatement = connection.prepareStatement(deleteResponsesQuery)) {
-                    responseStatement.setInt(1, questionId);
-                    responseStatement.executeUpdate();
+    /**
+     * Moves several questions, with their responses, to another quiz with a single statement.
+     *
+     * @param questionIds  The IDs of the questions to be moved; unknown IDs are ignored.
+     * @param targetQuizId The ID of the quiz the questions are moved to.
+     * @return The questions that were moved and the number of responses that moved with them.
+     * @throws DaoException If a database error occurs, for example when the target quiz does
+     *                      not exist; nothing is moved in that case.
+     */
+    public BulkWriteResult moveQuestions(int[] questionIds, int targetQuizId) {
+        long start = System.nanoTime();
+        try {
+            BulkWriteResult result = executor.execute(DaoOperation.MOVE_QUESTIONS, true, () -> {
+                try (Connection connection = getConnection()) {
+                    String moveQuestionsQuery = "WITH affected AS (UPDATE question SET quiz_id = ? WHERE id = ANY(?) RETURNING id) "
+                            + bulkResultQuery("0");
+                    try (PreparedStatement preparedStatement = prepare(connection, moveQuestionsQuery)) {
+                        preparedStatement.setInt(1, targetQuizId);
+                        preparedStatement.setArray(2, connection.createArrayOf("integer", boxed(questionIds)));
+                        BulkWriteResult written = executeBulkWrite(preparedStatement);
+                        publishChange(connection, "moved", written.getQuestionIds(), targetQuizId);
+                        trackWrite(connection);
+                        return written;
+                    }
                 }
+            });
+            for (QuestionChangeListener listener : listeners) {
+                listener.questionsMoved(result.getQuestionIds(), targetQuizId);
             }
+            return result;
         } catch (SQLException e) {
-            e.printStackTrace();
+            metrics.recordError(e);
+            throw new DaoException("Failed to move " + questionIds.length + " questions to quiz " + targetQuizId, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.MOVE_QUESTIONS, start);
         }
     }
 
     /**
      * Retrieves a list of questions based on the specified topic.
+     * Questions and responses are loaded in a single round trip.
      *
      * @param topic The topic to search for.
      * @return A list of questions matching the topic.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
      */
     public List<Question> searchQuestionByTopic(String topic) {
+        return searchQuestionByTopic(topic, FetchMode.JOIN);
+    }
+
+    /**
+     * Retrieves a list of questions based on the specified topic,
+     * using the given strategy to load their responses.
+     *
+     * @param topic     The topic to search for.
+     * @param fetchMode The strategy used to load the responses of each question.
+     * @return A list of questions matching the topic.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Question> searchQuestionByTopic(String topic, FetchMode fetchMode) {
+        long start = System.nanoTime();
+        try {
+            // Both fetch modes return the same questions, so they share a stale result.
+            return executor.executeRead(DaoOperation.SEARCH_QUESTION_BY_TOPIC, topic, QuestionCache::copyOf,
+                    () -> fetchMode == FetchMode.PER_QUESTION
+                            ? searchQuestionByTopicPerQuestion(topic)
+                            : searchQuestionByTopicJoined(topic));
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to search questions of topic " + topic, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.SEARCH_QUESTION_BY_TOPIC, start);
+        }
+    }
+
+    /**
+     * Retrieves one page of the questions of a topic, ordered by id. Pass the id of the
+     * last question of the previous page as afterId to get the next page; unlike an
+     * OFFSET, this costs the same no matter how deep the page is.
+     *
+     * @param topic   The topic to search for.
+     * @param afterId Only questions with a larger id are returned; use 0 for the first page.
+     * @param limit   The maximum number of questions in the page.
+     * @return Up to limit questions with their responses; fewer means the last page was reached.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Question> searchQuestionByTopic(String topic, int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return executor.executeRead(DaoOperation.SEARCH_QUESTION_PAGE, List.of(topic, afterId, limit),
+                    QuestionCache::copyOf, () -> searchQuestionPage(topic, afterId, limit));
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to search questions of topic " + topic, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.SEARCH_QUESTION_PAGE, start);
+        }
+    }
+
+    /**
+     * Searches questions by the words in their content and in the text of their responses,
+     * using the full-text indexes created by V5__add_full_text_search.sql. The search text
+     * accepts web search syntax: quoted phrases, "or" and a leading "-" to exclude a word.
+     * The content and each response are matched separately, and matches in the content
+     * rank higher than matches in a response.
+     *
+     * @param text   The words to search for.
+     * @param offset The number of best-ranked questions to skip.
+     * @param limit  The maximum number of questions in the page.
+     * @return Up to limit questions with their responses, best match first.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Question> searchQuestions(String text, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return executor.executeRead(DaoOperation.SEARCH_QUESTION_TEXT, List.of(text, offset, limit),
+                    QuestionCache::copyOf, () -> searchQuestionText(text, offset, limit));
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to search questions for " + text, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.SEARCH_QUESTION_TEXT, start);
+        }
+    }
+
+    /**
+     * Streams the questions of a topic, ordered by id. Rows are pulled from a database
+     * cursor STREAM_FETCH_SIZE at a time, so memory use does not grow with the topic.
+     * The stream holds a connection until it is closed, so use it in try-with-resources.
+     *
+     * @param topic The topic to search for.
+     * @return A lazily populated stream of questions with their responses.
+     * @throws DaoException If the query cannot be started or reading the cursor fails.
+     */
+    public Stream<Question> streamQuestionByTopic(String topic) {
+        long start = System.nanoTime();
+        try {
+            Cursor cursor = executor.execute(DaoOperation.STREAM_QUESTION_BY_TOPIC, true, () -> openTopicCursor(topic));
+            QuestionRowReader reader = new QuestionRowReader(cursor.resultSet());
+            Spliterator<Question> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Question> action) {
+                    Question question;
+                    try {
+                        question = reader.next();
+                    } catch (SQLException e) {
+                        metrics.recordError(e);
+                        throw new DaoException("Failed to read questions of topic " + topic, e);
+                    }
+                    if (question == null) {
+                        return false;
+                    }
+                    action.accept(question);
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                metrics.recordRowsRead(reader.getRowsRead());
+                closeCursor(cursor.connection(), cursor.statement());
+                metrics.recordOperation(DaoOperation.STREAM_QUESTION_BY_TOPIC, start);
+            });
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to stream questions of topic " + topic, e);
+        }
+    }
+
+    /**
+     * Loads the questions of a topic into a QuestionBlock, ordered by id. Rows are copied
+     * from the result set straight into the block's arrays, so no Question or Response
+     * objects are created; use this to hold a large topic in memory.
+     *
+     * @param topic The topic to search for.
+     * @return A block with the questions of the topic and their responses.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public QuestionBlock loadQuestionBlock(String topic) {
+        long start = System.nanoTime();
+        try {
+            // A block is immutable, so a stale one can be handed out as it is.
+            return executor.executeRead(DaoOperation.LOAD_QUESTION_BLOCK, topic, block -> block, () -> {
+                QuestionBlock.Builder builder = new QuestionBlock.Builder();
+                try (Connection connection = getReadConnection()) {
+                    String searchQuery = "SELECT q.id, q.content, q.quiz_id, r.id, r.text, r.correct "
+                            + "FROM question q LEFT JOIN response r ON r.question_id = q.id "
+                            + "WHERE q.quiz_id IN (SELECT id FROM quiz WHERE topic = ?) "
+                            + "ORDER BY q.id, r.id";
+                    try (PreparedStatement preparedStatement = prepare(connection, searchQuery)) {
+                        preparedStatement.setString(1, topic);
+                        metrics.recordStatements(1);
+                        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                            QuestionRowReader reader = new QuestionRowReader(resultSet);
+                            reader.readInto(builder);
+                            metrics.recordRowsRead(reader.getRowsRead());
+                        }
+                    }
+                }
+                return builder.build();
+            });
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to load questions of topic " + topic, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.LOAD_QUESTION_BLOCK, start);
+        }
+    }
+
+    /**
+     * Retrieves the topic of a quiz.
+     *
+     * @param quizId The ID of the quiz.
+     * @return The topic of the quiz, or null if the quiz does not exist.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public String findTopicByQuizId(int quizId) {
+        long start = System.nanoTime();
+        try {
+            return executor.executeRead(DaoOperation.FIND_TOPIC_BY_QUIZ_ID, quizId, topic -> topic, () -> {
+                try (Connection connection = getReadConnection()) {
+                    String topicQuery = "SELECT topic FROM quiz WHERE id = ?";
+                    try (PreparedStatement preparedStatement = prepare(connection, topicQuery)) {
+                        preparedStatement.setInt(1, quizId);
+                        metrics.recordStatements(1);
+                        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                            if (resultSet.next()) {
+                                metrics.recordRowsRead(1);
+                                return resultSet.getString(1);
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to find the topic of quiz " + quizId, e);
+        } finally {
+            metrics.recordOperation(DaoOperation.FIND_TOPIC_BY_QUIZ_ID, start);
+        }
+    }
+
+    private List<Question> searchQuestionByTopicJoined(String topic) throws SQLException {
+        List<Question> questions = new ArrayList<>();
+        try (Connection connection = getReadConnection()) {
+            String searchQuery = "SELECT q.id, q.content, q.quiz_id, r.id, r.text, r.correct "
+                    + "FROM question q LEFT JOIN response r ON r.question_id = q.id "
+                    + "WHERE q.quiz_id IN (SELECT id FROM quiz WHERE topic = ?) "
+                    + "ORDER BY q.id, r.id";
+            try (PreparedStatement preparedStatement = prepare(connection, searchQuery)) {
+                preparedStatement.setString(1, topic);
+                metrics.recordStatements(1);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    readQuestions(resultSet, questions);
+                }
+            }
+        }
+        return questions;
+    }
+
+    private List<Question> searchQuestionByTopicPerQuestion(String topic) throws SQLException {
         List<Question> questions = new ArrayList<>();
-        try (Connection connection = dataSource.getConnection()) {
-            String searchQuery = "SELECT * FROM question WHERE quiz_id IN (SELECT id FROM quiz WHERE topic = ?)";
-            try (PreparedStatement preparedStatement = connection.prepareStatement(searchQuery)) {
+        try (Connection connection = getReadConnection()) {
+            String searchQuery = "SELECT id, content, quiz_id FROM question "
+                    + "WHERE quiz_id IN (SELECT id FROM quiz WHERE topic = ?)";
+            try (PreparedStatement preparedStatement = prepare(connection, searchQuery);
+                 PreparedStatement responsesStatement = prepare(connection, RESPONSES_QUERY)) {
                 preparedStatement.setString(1, topic);
+                metrics.recordStatements(1);
                 try (ResultSet resultSet = preparedStatement.executeQuery()) {
                     while (resultSet.next()) {
+                        metrics.recordRowsRead(1);
                         Question question = new Question();
-                        question.setId(resultSet.getInt("id"));
-                        question.setContent(resultSet.getString("content"));
-                        question.setQuizId(resultSet.getInt("quiz_id"));
+                        question.setId(resultSet.getInt(1));
+                        question.setContent(resultSet.getString(2));
+                        question.setQuizId(resultSet.getInt(3));
 
-                        List<Response> responses = getResponsesForQuestion(question.getId(), connection);
+                        List<Response> responses = getResponsesForQuestion(question.getId(), responsesStatement);
                         question.setResponses(responses);
 
                         questions.add(question);
                     }
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return questions;
     }
 
-    private PGSimpleDataSource dataSource;
-    private List<Response> getResponsesForQuestion(int questionId, Connection connection) throws SQLException {
-        List<Response> responses = new ArrayList<>();
-        String getResponsesQuery = "SELECT * FROM response WHERE question_id = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(getResponsesQuery)) {
-            preparedStatement.setInt(1, questionId);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next()) {
-                    Response response = new Response("Sample Text", true);
-                    response.setId(resultSet.getInt("id"));
-                    response.setText(resultSet.getString("text"));
-                    response.setCorrect(resultSet.getBoolean("correct"));
-                    responses.add(response);
+    private List<Question> searchQuestionPage(String topic, int afterId, int limit) throws SQLException {
+        List<Question> questions = new ArrayList<>(Math.min(limit, 1024));
+        try (Connection connection = getReadConnection()) {
+            String pageQuery = "WITH page AS (SELECT id, content, quiz_id FROM question "
+                    + "WHERE quiz_id IN (SELECT id FROM quiz WHERE topic = ?) AND id > ? ORDER BY id LIMIT ?) "
+                    + "SELECT p.id, p.content, p.quiz_id, r.id, r.text, r.correct "
+                    + "FROM page p LEFT JOIN response r ON r.question_id = p.id "
+                    + "ORDER BY p.id, r.id";
+            try (PreparedStatement preparedStatement = prepare(connection, pageQuery)) {
+                preparedStatement.setString(1, topic);
+                preparedStatement.setInt(2, afterId);
+                preparedStatement.setInt(3, limit);
+                metrics.recordStatements(1);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    readQuestions(resultSet, questions);
+                }
+            }
+        }
+        return questions;
+    }
+
+    private List<Question> searchQuestionText(String text, int offset, int limit) throws SQLException {
+        List<Question> questions = new ArrayList<>(Math.min(limit, 1024));
+        try (Connection connection = getReadConnection()) {
+            String textQuery = "WITH query AS (SELECT websearch_to_tsquery('english', ?) AS terms), "
+                    + "hits AS (SELECT q.id AS question_id, ts_rank(q.content_tsv, query.terms) AS rank "
+                    + "FROM question q, query WHERE q.content_tsv @@ query.terms "
+                    + "UNION ALL SELECT r.question_id, ts_rank(r.text_tsv, query.terms) * " + RESPONSE_MATCH_WEIGHT + " "
+                    + "FROM response r, query WHERE r.text_tsv @@ query.terms), "
+                    + "page AS (SELECT question_id, sum(rank) AS rank FROM hits GROUP BY question_id "
+                    + "ORDER BY rank DESC, question_id LIMIT ? OFFSET ?) "
+                    + "SELECT q.id, q.content, q.quiz_id, r.id, r.text, r.correct "
+                    + "FROM page p JOIN question q ON q.id = p.question_id "
+                    + "LEFT JOIN response r ON r.question_id = q.id "
+                    + "ORDER BY p.rank DESC, q.id, r.id";
+            try (PreparedStatement preparedStatement = prepare(connection, textQuery)) {
+                preparedStatement.setString(1, text);
+                preparedStatement.setInt(2, limit);
+                preparedStatement.setInt(3, offset);
+                metrics.recordStatements(1);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    readQuestions(resultSet, questions);
                 }
             }
         }
+        return questions;
+    }
+
+    private Cursor openTopicCursor(String topic) throws SQLException {
+        Connection connection = getReadConnection();
+        PreparedStatement preparedStatement = null;
+        try {
+            // The driver only uses a cursor for the fetch size inside a transaction.
+            connection.setAutoCommit(false);
+            String searchQuery = "SELECT q.id, q.content, q.quiz_id, r.id, r.text, r.correct "
+                    + "FROM question q LEFT JOIN response r ON r.question_id = q.id "
+                    + "WHERE q.quiz_id IN (SELECT id FROM quiz WHERE topic = ?) "
+                    + "ORDER BY q.id, r.id";
+            preparedStatement = prepare(connection, searchQuery);
+            preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+            preparedStatement.setString(1, topic);
+            metrics.recordStatements(1);
+            return new Cursor(connection, preparedStatement, preparedStatement.executeQuery());
+        } catch (SQLException e) {
+            closeCursor(connection, preparedStatement);
+            throw e;
+        }
+    }
+
+    // An open streaming query; closeCursor releases it.
+    private record Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+    }
+
+    /**
+     * Number of rows fetched per round trip by streamQuestionByTopic.
+     */
+    public static final int STREAM_FETCH_SIZE = 1000;
+
+    // How much a match in a response counts relative to a match in the question content.
+    private static final double RESPONSE_MATCH_WEIGHT = 0.5;
+
+    // Columns are listed and read by position, so a schema change cannot shift them under a
+    // statement the server keeps prepared.
+    private static final String RESPONSES_QUERY = "SELECT id, text, correct FROM response WHERE question_id = ?";
+
+    private static final Logger LOGGER = Logger.getLogger(DaoQuestion.class.getName());
+
+    private DataSource dataSource;
+    private DataSource readDataSource;
+    private String changeChannel;
+    private DaoMetrics metrics = new DaoMetrics();
+    private DaoExecutor executor;
+    private final StatementCache statementCache;
+    private final List<QuestionChangeListener> listeners;
+    private final boolean readYourWrites;
+    private final AtomicLong lastWriteLsn = new AtomicLong();
+
+    private Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return DaoExecutor.applyNetworkTimeout(dataSource.getConnection());
+        } finally {
+            metrics.recordConnectionAcquire(start);
+        }
+    }
+
+    private List<Response> getResponsesForQuestion(int questionId, PreparedStatement responsesStatement)
+            throws SQLException {
+        List<Response> responses = new ArrayList<>();
+        responsesStatement.setInt(1, questionId);
+        metrics.recordStatements(1);
+        try (ResultSet resultSet = responsesStatement.executeQuery()) {
+            while (resultSet.next()) {
+                metrics.recordRowsRead(1);
+                Response response = new Response(resultSet.getString(2), resultSet.getBoolean(3));
+                response.setId(resultSet.getInt(1));
+                responses.add(response);
+            }
+        }
         return responses;
     }
 
-    private void saveResponse(Response response, int questionId, Connection connection) throws SQLException {
+    private Connection getReadConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            long minLsn = lastWriteLsn.get();
+            if (readDataSource == null) {
+                return DaoExecutor.applyNetworkTimeout(dataSource.getConnection());
+            }
+            if (minLsn != 0) {
+                // Only a ReplicaDataSource can tell whether a replica has caught up with the session.
+                return DaoExecutor.applyNetworkTimeout(readDataSource instanceof ReplicaDataSource replicas
+                        ? replicas.getConnection(minLsn)
+                        : dataSource.getConnection());
+            }
+            return DaoExecutor.applyNetworkTimeout(readDataSource.getConnection());
+        } finally {
+            metrics.recordConnectionAcquire(start);
+        }
+    }
+
+    // Inside a transaction the notification is delivered on commit; on an autocommit
+    // connection it follows the write. Either way a failure only costs the notification.
+    private void publishChange(Connection connection, String kind, int[] questionIds, int quizId) {
+        if (changeChannel == null) {
+            return;
+        }
+        try (PreparedStatement preparedStatement = prepare(connection, "SELECT pg_notify(?, ?)")) {
+            for (String payload : QuestionChangeSubscriber.payloads(kind, questionIds, quizId)) {
+                preparedStatement.setString(1, changeChannel);
+                preparedStatement.setString(2, payload);
+                preparedStatement.executeQuery().close();
+                metrics.recordStatements(1);
+            }
+        } catch (SQLException e) {
+            // The write itself succeeded; other nodes catch up on their next reload.
+            metrics.recordError(e);
+            LOGGER.log(Level.WARNING, "Failed to publish question change on " + changeChannel, e);
+        }
+    }
+
+    private void trackWrite(Connection connection) {
+        if (!readYourWrites) {
+            return;
+        }
+        try (PreparedStatement preparedStatement = prepare(connection, "SELECT pg_current_wal_insert_lsn()::text");
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            metrics.recordStatements(1);
+            if (resultSet.next()) {
+                lastWriteLsn.accumulateAndGet(ReplicaDataSource.parseLsn(resultSet.getString(1)), Math::max);
+            }
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            LOGGER.log(Level.WARNING, "Failed to read the WAL position of a write", e);
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        return statementCache.prepare(connection, sql, metrics);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, String[] generatedColumns)
+            throws SQLException {
+        return statementCache.prepare(connection, sql, generatedColumns, metrics);
+    }
+
+    private static String bulkResultQuery(String quizCount) {
+        // The response count reads the snapshot taken before the statement, so it still
+        // sees the responses that the cascade removes at the end of the statement.
+        return "SELECT " + quizCount + ", (SELECT array_agg(id) FROM affected), "
+                + "(SELECT count(*) FROM response WHERE question_id IN (SELECT id FROM affected))";
+    }
+
+    private BulkWriteResult executeBulkWrite(PreparedStatement preparedStatement) throws SQLException {
+        metrics.recordStatements(1);
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            int quizCount = resultSet.getInt(1);
+            int[] questionIds = new int[0];
+            Array ids = resultSet.getArray(2);
+            if (ids != null) {
+                questionIds = Arrays.stream((Integer[]) ids.getArray()).mapToInt(Integer::intValue).toArray();
+            }
+            int responseCount = resultSet.getInt(3);
+            metrics.recordRowsWritten(quizCount + questionIds.length + responseCount);
+            return new BulkWriteResult(quizCount, questionIds, responseCount);
+        }
+    }
+
+    private static Integer[] boxed(int[] values) {
+        return Arrays.stream(values).boxed().toArray(Integer[]::new);
+    }
+
+    private void saveResponses(List<Response> responses, int questionId, Connection connection) throws SQLException {
+        if (responses == null || responses.isEmpty()) {
+            return;
+        }
         String insertResponseQuery = "INSERT INTO response (text, correct, question_id) VALUES (?, ?, ?)";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertResponseQuery)) {
-            preparedStatement.setString(1, response.getText());
-            preparedStatement.setBoolean(2, response.isCorrect());
-            preparedStatement.setInt(3, questionId);
-            preparedStatement.executeUpdate();
+        try (PreparedStatement preparedStatement = prepare(connection, insertResponseQuery, new String[]{"id"})) {
+            for (Response response : responses) {
+                preparedStatement.setString(1, response.getText());
+                preparedStatement.setBoolean(2, response.isCorrect());
+                preparedStatement.setInt(3, questionId);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            metrics.recordStatements(1);
+            metrics.recordRowsWritten(responses.size());
+            // Generated keys come back in the order the rows were added to the batch.
+            try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                for (Response response : responses) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    response.setId(generatedKeys.getInt(1));
+                }
+            }
         }
     }
 
+    private boolean insertQuestion(Question question, Connection connection) throws SQLException {
+        String insertQuestionQuery = "INSERT INTO question (content, quiz_id) VALUES (?, ?)";
+        try (PreparedStatement preparedStatement = prepare(connection, insertQuestionQuery, new String[]{"id"})) {
+            preparedStatement.setString(1, question.getContent());
+            preparedStatement.setInt(2, question.getQuizId());
+            int rowsInserted = preparedStatement.executeUpdate();
+            metrics.recordStatements(1);
+            metrics.recordRowsWritten(rowsInserted);
+            if (rowsInserted > 0) {
+                try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int questionId = generatedKeys.getInt(1);
+                        question.setId(questionId);
+
+                        saveResponses(question.getResponses(), questionId, connection);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void writeQuestionUpdate(Question question, Connection connection) throws SQLException {
+        String updateQuestionQuery = "UPDATE question SET content = ?, quiz_id = ? WHERE id = ?";
+        try (PreparedStatement preparedStatement = prepare(connection, updateQuestionQuery)) {
+            preparedStatement.setString(1, question.getContent());
+            preparedStatement.setInt(2, question.getQuizId());
+            preparedStatement.setInt(3, question.getId());
+            metrics.recordRowsWritten(preparedStatement.executeUpdate());
+            metrics.recordStatements(1);
+        }
+        // The row lock taken by the UPDATE serializes concurrent updates of this question.
+        updateResponses(question, connection);
+    }
+
     private void updateResponses(Question question, Connection connection) throws SQLException {
-        String deleteResponsesQuery = "DELETE FROM response WHERE question_id = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(deleteResponsesQuery)) {
-            preparedStatement.setInt(1, question.getId());
-            preparedStatement.executeUpdate();
+        Map<Integer, Response> stored = new HashMap<>();
+        try (PreparedStatement responsesStatement = prepare(connection, RESPONSES_QUERY)) {
+            for (Response response : getResponsesForQuestion(question.getId(), responsesStatement)) {
+                stored.put(response.getId(), response);
+            }
+        }
 
-            if (question.getResponses() != null && !question.getResponses().isEmpty()) {
-                for (Response response : question.getResponses()) {
-                    saveResponse(response, question.getId(), connection);
+        List<Response> changed = new ArrayList<>();
+        List<Response> added = new ArrayList<>();
+        if (question.getResponses() != null) {
+            for (Response response : question.getResponses()) {
+                Response storedResponse = stored.remove(response.getId());
+                if (storedResponse == null) {
+                    added.add(response);
+                } else if (!Objects.equals(storedResponse.getText(), response.getText())
+                        || storedResponse.isCorrect() != response.isCorrect()) {
+                    changed.add(response);
                 }
             }
         }
+
+        // Whatever is left in the stored map is no longer part of the question.
+        if (!stored.isEmpty()) {
+            String deleteResponsesQuery = "DELETE FROM response WHERE id = ANY(?)";
+            try (PreparedStatement preparedStatement = prepare(connection, deleteResponsesQuery)) {
+                preparedStatement.setArray(1, connection.createArrayOf("integer", stored.keySet().toArray()));
+                metrics.recordRowsWritten(preparedStatement.executeUpdate());
+                metrics.recordStatements(1);
+            }
+        }
+        if (!changed.isEmpty()) {
+            String updateResponseQuery = "UPDATE response SET text = ?, correct = ? WHERE id = ?";
+            try (PreparedStatement preparedStatement = prepare(connection, updateResponseQuery)) {
+                for (Response response : changed) {
+                    preparedStatement.setString(1, response.getText());
+                    preparedStatement.setBoolean(2, response.isCorrect());
+                    preparedStatement.setInt(3, response.getId());
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                metrics.recordStatements(1);
+                metrics.recordRowsWritten(changed.size());
+            }
+        }
+        saveResponses(added, question.getId(), connection);
+    }
+
+    private void readQuestions(ResultSet resultSet, List<Question> questions) throws SQLException {
+        QuestionRowReader reader = new QuestionRowReader(resultSet);
+        for (Question question = reader.next(); question != null; question = reader.next()) {
+            questions.add(question);
+        }
+        metrics.recordRowsRead(reader.getRowsRead());
+    }
+
+    private static void closeCursor(Connection connection, PreparedStatement preparedStatement) {
+        try {
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+            if (connection != null) {
+                // The cursor only read data, so ending its transaction either way is safe.
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to end the transaction of a question cursor", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Failed to close the connection of a question cursor", e);
+                }
+            }
+        }
+    }
+
+    private static void rollback(Connection connection, SQLException cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
     }
 
 }
@@ -0,0 +1,250 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * The DaoQuiz class loads quizzes together with their questions and responses.
+ * A call runs a fixed number of queries however large the graph is: one for the
+ * quizzes and their question counts, and one joined query for the questions and
+ * responses, read through a cursor in a single pass. Both run in one repeatable-read
+ * transaction, so the counts used to size the lists match the rows that follow.
+ */
+public class DaoQuiz {
+
+    /**
+     * Number of rows fetched per round trip while a graph is assembled.
+     */
+    public static final int LOAD_FETCH_SIZE = 5000;
+
+    /**
+     * Constructs a DaoQuiz object with the specified data source.
+     *
+     * @param dataSource The data source to be used for database connections.
+     */
+    public DaoQuiz(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public DaoMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(DaoMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public DaoExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that runs the database work of this DAO, for example the one of a
+     * DaoQuestion so both share its timeouts and circuit breaker.
+     *
+     * @param executor The executor to run operations with.
+     */
+    public void setExecutor(DaoExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Loads a quiz with all of its questions and responses.
+     *
+     * @param quizId The ID of the quiz.
+     * @return The quiz, or null if it does not exist.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public Quiz findQuiz(int quizId) {
+        return findQuiz(quizId, LoadMode.EAGER);
+    }
+
+    /**
+     * Loads a quiz with all of its questions.
+     *
+     * @param quizId   The ID of the quiz.
+     * @param loadMode When the responses of the questions are loaded.
+     * @return The quiz, or null if it does not exist.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public Quiz findQuiz(int quizId, LoadMode loadMode) {
+        List<Quiz> quizzes = load("id = ?", quizId, loadMode, DaoOperation.FIND_QUIZ);
+        return quizzes.isEmpty() ? null : quizzes.get(0);
+    }
+
+    /**
+     * Loads every quiz of a topic with all of its questions and responses.
+     *
+     * @param topic The topic.
+     * @return The quizzes ordered by id; empty if there are none.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Quiz> findQuizzesByTopic(String topic) {
+        return findQuizzesByTopic(topic, LoadMode.EAGER);
+    }
+
+    /**
+     * Loads every quiz of a topic with all of its questions.
+     *
+     * @param topic    The topic.
+     * @param loadMode When the responses of the questions are loaded.
+     * @return The quizzes ordered by id; empty if there are none.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Quiz> findQuizzesByTopic(String topic, LoadMode loadMode) {
+        return load("topic = ?", topic, loadMode, DaoOperation.FIND_QUIZZES_BY_TOPIC);
+    }
+
+    /**
+     * Loads every quiz of a difficulty with all of its questions and responses.
+     *
+     * @param difficulty The difficulty.
+     * @return The quizzes ordered by id; empty if there are none.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Quiz> findQuizzesByDifficulty(int difficulty) {
+        return findQuizzesByDifficulty(difficulty, LoadMode.EAGER);
+    }
+
+    /**
+     * Loads every quiz of a difficulty with all of its questions.
+     *
+     * @param difficulty The difficulty.
+     * @param loadMode   When the responses of the questions are loaded.
+     * @return The quizzes ordered by id; empty if there are none.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    public List<Quiz> findQuizzesByDifficulty(int difficulty, LoadMode loadMode) {
+        return load("difficulty = ?", difficulty, loadMode, DaoOperation.FIND_QUIZZES_BY_DIFFICULTY);
+    }
+
+    private List<Quiz> load(String filter, Object value, LoadMode loadMode, DaoOperation operation) {
+        long start = System.nanoTime();
+        try {
+            return executor.execute(operation, true, () -> {
+                List<Quiz> quizzes = new ArrayList<>();
+                try (Connection connection = getConnection()) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    int isolation = connection.getTransactionIsolation();
+                    // The transaction gives both queries one snapshot and lets the driver use a cursor.
+                    connection.setAutoCommit(false);
+                    connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                    try {
+                        readQuizzes(connection, filter, value, quizzes);
+                        if (!quizzes.isEmpty()) {
+                            if (loadMode == LoadMode.LAZY) {
+                                readQuestions(connection, filter, value, quizzes, new LazyResponseLoader(dataSource, metrics, executor));
+                            } else {
+                                readQuestions(connection, filter, value, quizzes, null);
+                            }
+                        }
+                    } finally {
+                        // Nothing was written, so ending the read-only transaction with a rollback is enough.
+                        connection.rollback();
+                        connection.setTransactionIsolation(isolation);
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+                return quizzes;
+            });
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to load quizzes where " + filter.replace("?", String.valueOf(value)), e);
+        } finally {
+            metrics.recordOperation(operation, start);
+        }
+    }
+
+    private void readQuizzes(Connection connection, String filter, Object value, List<Quiz> quizzes) throws SQLException {
+        String quizQuery = "SELECT z.id, z.topic, z.difficulty, count(q.id) "
+                + "FROM quiz z LEFT JOIN question q ON q.quiz_id = z.id "
+                + "WHERE z." + filter + " GROUP BY z.id ORDER BY z.id";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(quizQuery)) {
+            DaoExecutor.applyQueryTimeout(preparedStatement);
+            preparedStatement.setObject(1, value);
+            metrics.recordStatements(1);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    metrics.recordRowsRead(1);
+                    Quiz quiz = new Quiz();
+                    quiz.setId(resultSet.getInt(1));
+                    quiz.setTopic(resultSet.getString(2));
+                    quiz.setDifficulty(resultSet.getInt(3));
+                    quiz.setQuestions(new ArrayList<>(resultSet.getInt(4)));
+                    quizzes.add(quiz);
+                }
+            }
+        }
+    }
+
+    private void readQuestions(Connection connection, String filter, Object value, List<Quiz> quizzes,
+                               LazyResponseLoader lazyLoader) throws SQLException {
+        String questionQuery = lazyLoader != null
+                ? "SELECT q.quiz_id, q.id, q.content FROM question q "
+                + "WHERE q.quiz_id IN (SELECT id FROM quiz WHERE " + filter + ") ORDER BY q.quiz_id, q.id"
+                // The window is ordered like the result, so one sort serves both the counts and the rows.
+                : "SELECT q.quiz_id, q.id, q.content, count(r.id) OVER (PARTITION BY q.quiz_id, q.id ORDER BY r.id "
+                + "ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING), "
+                + "r.id, r.text, r.correct FROM question q LEFT JOIN response r ON r.question_id = q.id "
+                + "WHERE q.quiz_id IN (SELECT id FROM quiz WHERE " + filter + ") ORDER BY q.quiz_id, q.id, r.id";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(questionQuery)) {
+            DaoExecutor.applyQueryTimeout(preparedStatement);
+            preparedStatement.setFetchSize(LOAD_FETCH_SIZE);
+            preparedStatement.setObject(1, value);
+            metrics.recordStatements(1);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                // Quizzes and rows are both ordered by quiz id, so a single forward pass attaches every row.
+                int quizIndex = 0;
+                Quiz quiz = quizzes.get(0);
+                Question question = null;
+                int rows = 0;
+                while (resultSet.next()) {
+                    rows++;
+                    int quizId = resultSet.getInt(1);
+                    while (quiz.getId() != quizId) {
+                        quiz = quizzes.get(++quizIndex);
+                    }
+                    int questionId = resultSet.getInt(2);
+                    if (question == null || question.getId() != questionId) {
+                        if (lazyLoader != null) {
+                            question = lazyLoader.newQuestion();
+                        } else {
+                            question = new Question();
+                            question.setResponses(new ArrayList<>(resultSet.getInt(4)));
+                        }
+                        question.setId(questionId);
+                        question.setContent(resultSet.getString(3));
+                        question.setQuizId(quizId);
+                        quiz.getQuestions().add(question);
+                    }
+                    if (lazyLoader == null) {
+                        int responseId = resultSet.getInt(5);
+                        if (!resultSet.wasNull()) {
+                            Response response = new Response(resultSet.getString(6), resultSet.getBoolean(7));
+                            response.setId(responseId);
+                            question.getResponses().add(response);
+                        }
+                    }
+                }
+                metrics.recordRowsRead(rows);
+            }
+        }
+    }
+
+    private Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return DaoExecutor.applyNetworkTimeout(dataSource.getConnection());
+        } finally {
+            metrics.recordConnectionAcquire(start);
+        }
+    }
+
+    private final DataSource dataSource;
+    private DaoMetrics metrics = new DaoMetrics();
+    private DaoExecutor executor = new DaoExecutor();
+}
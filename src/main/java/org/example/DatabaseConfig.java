@@ -1,24 +1,174 @@
 package org.example;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.postgresql.ds.PGSimpleDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
 /**
  * The DatabaseConfig class provides methods for configuring a PostgreSQL data source
  * for establishing database connections.
  */
 public class DatabaseConfig {
+    /**
+     * Maximum number of connections kept by the pool.
+     */
+    public static final int MAX_POOL_SIZE = 10;
+    /**
+     * Time in milliseconds after which an idle connection above the minimum is evicted.
+     */
+    public static final long IDLE_TIMEOUT_MS = 60_000;
+    /**
+     * Time in milliseconds a caller waits for a connection before failing.
+     */
+    public static final long ACQUIRE_TIMEOUT_MS = 5_000;
+    /**
+     * Time in milliseconds a connection may stay borrowed before a leak is reported.
+     */
+    public static final long LEAK_DETECTION_THRESHOLD_MS = 30_000;
+    /**
+     * Number of executions after which the driver keeps a statement prepared on the server,
+     * so later executions on the same connection skip parsing and planning.
+     */
+    public static final int PREPARE_THRESHOLD = 1;
+    /**
+     * Number of parsed statements the driver keeps per physical connection.
+     */
+    public static final int PREPARED_STATEMENT_CACHE_QUERIES = 256;
+    /**
+     * Time in seconds the driver waits to open a connection, so an unreachable server
+     * fails the attempt instead of blocking it.
+     */
+    public static final int LOGIN_TIMEOUT_SECONDS = 5;
+    /**
+     * Time in seconds the driver waits for the server to take a cancel request when a
+     * query times out. The timed-out statement waits for the cancel, so a server that has
+     * stopped answering would otherwise hold it for the driver's default of 10 seconds.
+     */
+    public static final int CANCEL_SIGNAL_TIMEOUT_SECONDS = 1;
+
     /**
      * Configures a PostgreSQL data source with default connection parameters.
      * You may need to customize the parameters as per your database configuration.
+     * Every getConnection() call opens a new physical connection.
      *
      * @return A configured PostgreSQL data source.
      */
     public static PGSimpleDataSource configureDataSource() {
+        return configureDataSource("localhost", 5432);
+    }
+
+    /**
+     * Configures a PostgreSQL data source for the given server with the default
+     * database, credentials and driver settings.
+     *
+     * @param serverName The host name of the server.
+     * @param portNumber The port the server listens on.
+     * @return A configured PostgreSQL data source.
+     */
+    public static PGSimpleDataSource configureDataSource(String serverName, int portNumber) {
         PGSimpleDataSource dataSource = new PGSimpleDataSource();
-        dataSource.setServerName("localhost");
-        dataSource.setPortNumber(5432);
+        dataSource.setServerNames(new String[]{serverName});
+        dataSource.setPortNumbers(new int[]{portNumber});
         dataSource.setDatabaseName("postgres");
         dataSource.setUser("postgres");
         dataSource.setPassword("student123");
+        // Lets the driver send batched inserts as a single multi-row INSERT.
+        dataSource.setReWriteBatchedInserts(true);
+        dataSource.setPrepareThreshold(PREPARE_THRESHOLD);
+        dataSource.setPreparedStatementCacheQueries(PREPARED_STATEMENT_CACHE_QUERIES);
+        dataSource.setLoginTimeout(LOGIN_TIMEOUT_SECONDS);
+        dataSource.setCancelSignalTimeout(CANCEL_SIGNAL_TIMEOUT_SECONDS);
         return dataSource;
     }
+
+    /**
+     * Configures a connection pool on top of the default PostgreSQL data source
+     * with the default pool size.
+     *
+     * @return A pooled data source; close it on shutdown to release its connections.
+     */
+    public static HikariDataSource configurePooledDataSource() {
+        return configurePooledDataSource(MAX_POOL_SIZE);
+    }
+
+    /**
+     * Configures a connection pool on top of the default PostgreSQL data source.
+     * Connections are validated when borrowed, idle ones are evicted, callers give up
+     * after ACQUIRE_TIMEOUT_MS and connections held longer than
+     * LEAK_DETECTION_THRESHOLD_MS are reported as possible leaks.
+     *
+     * @param maxPoolSize The maximum number of connections in the pool.
+     * @return A pooled data source; close it on shutdown to release its connections.
+     */
+    public static HikariDataSource configurePooledDataSource(int maxPoolSize) {
+        return configurePool("quiz-pool", configureDataSource(), maxPoolSize);
+    }
+
+    /**
+     * Configures one connection pool for the primary and one per read replica, all with
+     * the default pool size. Use the primary as the data source of a DaoQuestion and the
+     * returned ReplicaDataSource as its read data source. The pools start even if a server
+     * is down; reads skip a replica that cannot be reached until it is back.
+     *
+     * @param replicas The replicas as "host:port" addresses; the primary is the default server.
+     * @param routing  How reads are spread over the replicas.
+     * @return The replica data source; its getPrimary() returns the pool of the primary.
+     */
+    public static ReplicaDataSource configureReplicatedDataSource(List<String> replicas, ReadRouting routing) {
+        HikariDataSource primary = configurePooledDataSource();
+        List<HikariDataSource> replicaPools = new ArrayList<>(replicas.size());
+        try {
+            for (String replica : replicas) {
+                int colon = replica.lastIndexOf(':');
+                PGSimpleDataSource dataSource = configureDataSource(replica.substring(0, colon),
+                        Integer.parseInt(replica.substring(colon + 1)));
+                // A replica cannot write; marking the connections read-only makes a misrouted write fail fast.
+                dataSource.setReadOnly(true);
+                replicaPools.add(configurePool("quiz-replica-" + replicaPools.size(), dataSource, MAX_POOL_SIZE));
+            }
+        } catch (RuntimeException e) {
+            // A malformed address must not leave the pools created so far running.
+            replicaPools.forEach(HikariDataSource::close);
+            primary.close();
+            throw e;
+        }
+        return new ReplicaDataSource(primary, replicaPools, routing);
+    }
+
+    /**
+     * Describes the current state of a connection pool.
+     *
+     * @param dataSource The pooled data source to inspect.
+     * @return A one-line summary of active, idle, total and waiting connections.
+     */
+    public static String describePool(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return dataSource.getPoolName() + ": not started";
+        }
+        return dataSource.getPoolName()
+                + ": active=" + pool.getActiveConnections()
+                + ", idle=" + pool.getIdleConnections()
+                + ", total=" + pool.getTotalConnections()
+                + ", waiting=" + pool.getThreadsAwaitingConnection();
+    }
+
+    private static HikariDataSource configurePool(String poolName, PGSimpleDataSource dataSource, int maxPoolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDataSource(dataSource);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(2, maxPoolSize));
+        config.setIdleTimeout(IDLE_TIMEOUT_MS);
+        config.setConnectionTimeout(ACQUIRE_TIMEOUT_MS);
+        config.setValidationTimeout(Math.min(1_000, ACQUIRE_TIMEOUT_MS));
+        config.setLeakDetectionThreshold(LEAK_DETECTION_THRESHOLD_MS);
+        // Start without a first connection, so a server that is down at startup fails reads, not the pool.
+        config.setInitializationFailTimeout(-1);
+        config.setRegisterMbeans(true);
+        return new HikariDataSource(config);
+    }
 }
@@ -0,0 +1,17 @@
+package org.example;
+/**
+ * The FetchMode enum selects how DaoQuestion loads the responses
+ * belonging to the questions returned by a search.
+ */
+public enum FetchMode {
+    /**
+     * Loads questions and their responses with a single joined query
+     * and assembles the object graph in one pass over the result set.
+     */
+    JOIN,
+    /**
+     * Loads the questions first and then runs one response query per question.
+     * Kept as a fallback and for comparison on large topics.
+     */
+    PER_QUESTION
+}
@@ -0,0 +1,61 @@
+package org.example;
+/**
+ * The ImportResult class reports what a bulk import wrote to the database
+ * and how long it took.
+ */
+public class ImportResult {
+    public ImportResult(int quizCount, int questionCount, int responseCount, long elapsedNanos) {
+        this.quizCount = quizCount;
+        this.questionCount = questionCount;
+        this.responseCount = responseCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getQuizCount() {
+        return quizCount;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public int getResponseCount() {
+        return responseCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the total number of rows written across the quiz, question and response tables.
+     *
+     * @return The total row count.
+     */
+    public long getRowCount() {
+        return (long) quizCount + questionCount + responseCount;
+    }
+
+    /**
+     * Returns the import throughput.
+     *
+     * @return Rows written per second, or 0 if no time was measured.
+     */
+    public double getRowsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return getRowCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d quizzes, %d questions, %d responses in %.1f ms (%.0f rows/s)",
+                quizCount, questionCount, responseCount, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+    }
+
+    private final int quizCount;
+    private final int questionCount;
+    private final int responseCount;
+    private final long elapsedNanos;
+}
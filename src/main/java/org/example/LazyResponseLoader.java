@@ -0,0 +1,152 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+/**
+ * The LazyResponseLoader class loads the responses of every question in one quiz
+ * graph the first time any of them is needed, so a lazily loaded graph costs one
+ * extra query rather than one per question. The query runs through the executor of
+ * the DaoQuiz that created the graph, with its timeouts and circuit breaker.
+ */
+class LazyResponseLoader {
+    LazyResponseLoader(DataSource dataSource, DaoMetrics metrics, DaoExecutor executor) {
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a question belonging to the graph.
+     *
+     * @return A question whose responses are loaded on first access.
+     */
+    Question newQuestion() {
+        LazyQuestion question = new LazyQuestion(this);
+        questions.add(question);
+        return question;
+    }
+
+    /**
+     * Loads the responses of all questions in the graph unless already loaded.
+     *
+     * @throws DaoException If the responses cannot be loaded or the circuit is open; a later access retries.
+     */
+    synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        // The questions of several quizzes arrive grouped by quiz; the merge below needs id order.
+        questions.sort(Comparator.comparingInt(Question::getId));
+        Integer[] questionIds = new Integer[questions.size()];
+        for (int i = 0; i < questionIds.length; i++) {
+            questionIds[i] = questions.get(i).getId();
+        }
+        try {
+            List<List<Response>> responses = executor.execute(DaoOperation.LOAD_RESPONSES, true,
+                    () -> readResponses(questionIds));
+            for (int i = 0; i < questions.size(); i++) {
+                questions.get(i).fill(i < responses.size() ? responses.get(i) : new ArrayList<>());
+            }
+            loaded = true;
+        } catch (SQLException e) {
+            metrics.recordError(e);
+            throw new DaoException("Failed to load the responses of " + questions.size() + " questions", e);
+        } finally {
+            metrics.recordOperation(DaoOperation.LOAD_RESPONSES, start);
+        }
+    }
+
+    private List<List<Response>> readResponses(Integer[] questionIds) throws SQLException {
+        String responsesQuery = "SELECT question_id, id, text, correct FROM response "
+                + "WHERE question_id = ANY(?) ORDER BY question_id, id";
+        List<List<Response>> responses = new ArrayList<>(questionIds.length);
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(responsesQuery)) {
+            DaoExecutor.applyQueryTimeout(preparedStatement);
+            preparedStatement.setArray(1, connection.createArrayOf("integer", questionIds));
+            metrics.recordStatements(1);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                // Both the questions and the rows are ordered by question id, so one merge pass pairs them.
+                int index = -1;
+                List<Response> current = null;
+                int rows = 0;
+                while (resultSet.next()) {
+                    rows++;
+                    int questionId = resultSet.getInt(1);
+                    while (current == null || questionIds[index] != questionId) {
+                        current = new ArrayList<>(RESPONSES_PER_QUESTION);
+                        responses.add(current);
+                        index++;
+                    }
+                    Response response = new Response(resultSet.getString(3), resultSet.getBoolean(4));
+                    response.setId(resultSet.getInt(2));
+                    current.add(response);
+                }
+                metrics.recordRowsRead(rows);
+            }
+        }
+        return responses;
+    }
+
+    private Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return DaoExecutor.applyNetworkTimeout(dataSource.getConnection());
+        } finally {
+            metrics.recordConnectionAcquire(start);
+        }
+    }
+
+    /**
+     * The LazyQuestion class is a Question whose responses are loaded on first access.
+     */
+    private static class LazyQuestion extends Question {
+        LazyQuestion(LazyResponseLoader loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        public List<Response> getResponses() {
+            if (!filled) {
+                loader.load();
+            }
+            return super.getResponses();
+        }
+
+        @Override
+        public void setResponses(List<Response> responses) {
+            // Explicitly set responses replace whatever would have been loaded.
+            filled = true;
+            super.setResponses(responses);
+        }
+
+        @Override
+        public void addResponse(Response response) {
+            getResponses().add(response);
+        }
+
+        void fill(List<Response> responses) {
+            if (!filled) {
+                setResponses(responses);
+            }
+        }
+
+        private final LazyResponseLoader loader;
+        private volatile boolean filled;
+    }
+
+    private static final int RESPONSES_PER_QUESTION = 4;
+
+    private final DataSource dataSource;
+    private final DaoMetrics metrics;
+    private final DaoExecutor executor;
+    private final List<LazyQuestion> questions = new ArrayList<>();
+    private boolean loaded;
+}
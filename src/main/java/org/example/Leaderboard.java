@@ -0,0 +1,259 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+/**
+ * The Leaderboard class ranks players by score while scores change.
+ * Entries are kept in a concurrent skip list ordered by score, so an update is
+ * O(log n) and the top k are read in O(k). A Fenwick tree over score values counts
+ * the players per score, so a player's rank is O(log maxScore) without walking the list.
+ * The tree starts small and doubles as higher scores arrive, so a board takes memory
+ * for the scores it actually holds rather than for the highest score it could track.
+ * Updates for different players run in parallel; updates for one player are serialized.
+ * Among equal scores the player who reached the score first is listed first.
+ */
+public class Leaderboard {
+    /**
+     * Default highest score tracked exactly by rank(); higher scores share the top slot.
+     */
+    public static final int DEFAULT_MAX_SCORE = 1 << 16;
+
+    // Score slots the tree starts with; a quiz board rarely needs more.
+    private static final int INITIAL_SLOTS = 64;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry entry) -> -entry.score)
+            .thenComparingLong(entry -> entry.sequence);
+
+    public Leaderboard(String name) {
+        this(name, DEFAULT_MAX_SCORE);
+    }
+
+    /**
+     * Constructs a Leaderboard.
+     *
+     * @param name     The name of the board, used as its key when snapshotting.
+     * @param maxScore The highest score rank() distinguishes; the tree only grows this large
+     *                 if scores this high are reached.
+     */
+    public Leaderboard(String name, int maxScore) {
+        this.name = name;
+        this.maxScore = maxScore;
+        this.counts = new AtomicLongArray(Math.min(INITIAL_SLOTS, slotsFor(maxScore + 1)) + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds to a player's score, creating the player with a score of zero if needed.
+     *
+     * @param player The player.
+     * @param delta  The amount to add, which may be negative.
+     * @return The player's new score.
+     */
+    public long addScore(String player, long delta) {
+        return scores.compute(player, (key, entry) -> move(key, entry, (entry == null ? 0 : entry.score) + delta)).score;
+    }
+
+    /**
+     * Sets a player's score.
+     *
+     * @param player The player.
+     * @param score  The new score.
+     */
+    public void setScore(String player, long score) {
+        scores.compute(player, (key, entry) -> move(key, entry, score));
+    }
+
+    /**
+     * Returns a player's score.
+     *
+     * @param player The player.
+     * @return The score, or 0 if the player is not on the board.
+     */
+    public long getScore(String player) {
+        Entry entry = scores.get(player);
+        return entry == null ? 0 : entry.score;
+    }
+
+    /**
+     * Returns the best players.
+     *
+     * @param k The number of players wanted.
+     * @return Up to k entries, highest score first.
+     */
+    public List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, 1024));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    /**
+     * Returns a player's rank. Players with equal scores share a rank.
+     *
+     * @param player The player.
+     * @return 1 for the best score, or 0 if the player is not on the board.
+     */
+    public long rank(String player) {
+        Entry entry = scores.get(player);
+        if (entry == null) {
+            return 0;
+        }
+        // Players ranked above are those in the slots above this score's slot.
+        AtomicLongArray tree = counts;
+        int slot = slot(entry.score);
+        int slots = tree.length() - 1;
+        // The root node of a power of two sized tree holds the number of players.
+        return 1 + tree.get(slots) - (slot > slots ? tree.get(slots) : prefixSum(tree, slot));
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    /**
+     * Returns every entry in rank order, for example to snapshot the board.
+     *
+     * @return A weakly consistent list of all entries.
+     */
+    public List<Entry> entries() {
+        return new ArrayList<>(ranking);
+    }
+
+    /**
+     * Clears the changed flag and reports whether the board changed since the last call.
+     *
+     * @return True if a score changed since the previous call.
+     */
+    boolean takeChanged() {
+        return changed.getAndSet(false);
+    }
+
+    void markChanged() {
+        changed.set(true);
+    }
+
+    private Entry move(String player, Entry previous, long score) {
+        Entry next = new Entry(player, score, sequence.incrementAndGet());
+        int slot = slot(score);
+        if (slot >= counts.length()) {
+            grow(slot);
+        }
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(next);
+        // Counting is blocked only while the tree grows.
+        long stamp = growLock.readLock();
+        try {
+            if (previous != null) {
+                add(slot(previous.score), -1);
+            }
+            add(slot, 1);
+        } finally {
+            growLock.unlockRead(stamp);
+        }
+        changed.set(true);
+        return next;
+    }
+
+    private void grow(int slot) {
+        long stamp = growLock.writeLock();
+        try {
+            AtomicLongArray tree = counts;
+            int slots = tree.length() - 1;
+            if (slot <= slots) {
+                return;
+            }
+            int grownSlots = slotsFor(slot);
+            AtomicLongArray grown = new AtomicLongArray(grownSlots + 1);
+            for (int i = 1; i <= slots; i++) {
+                grown.set(i, tree.get(i));
+            }
+            // The new slots are empty, so each new power of two node covers exactly the old players.
+            for (int i = slots * 2; i <= grownSlots; i *= 2) {
+                grown.set(i, tree.get(slots));
+            }
+            counts = grown;
+        } finally {
+            growLock.unlockWrite(stamp);
+        }
+    }
+
+    private static int slotsFor(int slot) {
+        return Integer.highestOneBit(Math.max(1, slot - 1)) << 1;
+    }
+
+    private int slot(long score) {
+        // Slot 1 holds scores of zero and below, slot maxScore + 1 the top scores.
+        return (int) Math.max(1, Math.min(maxScore + 1, score + 1));
+    }
+
+    private void add(int slot, long delta) {
+        AtomicLongArray tree = counts;
+        for (int i = slot; i < tree.length(); i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    private static long prefixSum(AtomicLongArray tree, int slot) {
+        long sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * The Entry class is one player's position on a leaderboard.
+     */
+    public static class Entry {
+        Entry(String player, long score, long sequence) {
+            this.player = player;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public long getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return player + "=" + score;
+        }
+
+        private final String player;
+        private final long score;
+        // Orders ties without comparing player names, which would chase extra pointers per skip list step.
+        private final long sequence;
+    }
+
+    private final String name;
+    private final int maxScore;
+    // Holds slots 1 to a power of two; replaced by a larger copy when a higher score arrives.
+    private volatile AtomicLongArray counts;
+    private final StampedLock growLock = new StampedLock();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<String, Entry> scores = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean changed = new AtomicBoolean();
+}
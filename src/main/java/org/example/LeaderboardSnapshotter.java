@@ -0,0 +1,71 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * The LeaderboardSnapshotter class periodically writes changed leaderboards to the
+ * database on a background thread, so the boards survive a restart without every
+ * score update touching the database.
+ */
+public class LeaderboardSnapshotter implements AutoCloseable {
+
+    /**
+     * Constructs and starts a LeaderboardSnapshotter.
+     *
+     * @param leaderboards The boards to snapshot.
+     * @param dataSource   The data source to write to.
+     * @param intervalMs   The time between snapshots.
+     */
+    public LeaderboardSnapshotter(Leaderboards leaderboards, DataSource dataSource, long intervalMs) {
+        this.leaderboards = leaderboards;
+        this.dataSource = dataSource;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::snapshot, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getSnapshotCount() {
+        return snapshots.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a final one.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    private void snapshot() {
+        try {
+            leaderboards.snapshot(dataSource);
+            snapshots.incrementAndGet();
+        } catch (SQLException e) {
+            failed.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    private final Leaderboards leaderboards;
+    private final DataSource dataSource;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+}
@@ -0,0 +1,181 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * The Leaderboards class holds one Leaderboard per quiz and one per topic and keeps
+ * them up to date as answers are scored. Boards can be snapshotted to the
+ * leaderboard_snapshot table and restored from it after a restart.
+ */
+public class Leaderboards {
+    private static final String QUIZ_PREFIX = "quiz:";
+    private static final String TOPIC_PREFIX = "topic:";
+    private static final int SNAPSHOT_BATCH_SIZE = 1000;
+    private static final int RESTORE_FETCH_SIZE = 5000;
+
+    /**
+     * Constructs Leaderboards that only keep per-quiz boards.
+     */
+    public Leaderboards() {
+        this(null);
+    }
+
+    /**
+     * Constructs Leaderboards.
+     *
+     * @param quizEngine The engine used to resolve the topic of a quiz, or null to keep no topic boards.
+     */
+    public Leaderboards(QuizEngine quizEngine) {
+        this.quizEngine = quizEngine;
+    }
+
+    /**
+     * Adds points to a player on the board of a quiz and on the board of its topic.
+     *
+     * @param player The player.
+     * @param quizId The quiz the answered question belongs to.
+     * @param points The points to add; 0 only puts the player on the boards.
+     */
+    public void record(String player, int quizId, long points) {
+        quiz(quizId).addScore(player, points);
+        String topic = quizEngine == null ? null : quizEngine.getQuizTopic(quizId);
+        if (topic != null) {
+            topic(topic).addScore(player, points);
+        }
+    }
+
+    /**
+     * Returns the board of a quiz, creating an empty one if needed.
+     *
+     * @param quizId The quiz id.
+     * @return The board.
+     */
+    public Leaderboard quiz(int quizId) {
+        return board(QUIZ_PREFIX + quizId);
+    }
+
+    /**
+     * Returns the board of a topic, creating an empty one if needed.
+     *
+     * @param topic The topic.
+     * @return The board.
+     */
+    public Leaderboard topic(String topic) {
+        return board(TOPIC_PREFIX + topic);
+    }
+
+    public Collection<Leaderboard> getBoards() {
+        return boards.values();
+    }
+
+    /**
+     * Writes every board that changed since the last snapshot to the leaderboard_snapshot
+     * table. Each board is replaced as a whole in its own transaction, so a reader never
+     * sees a board half written.
+     *
+     * @param dataSource The data source to write to.
+     * @return The number of boards written.
+     * @throws SQLException If a database error occurs; boards not yet written stay marked as changed.
+     */
+    public int snapshot(DataSource dataSource) throws SQLException {
+        int written = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (Leaderboard board : boards.values()) {
+                    if (!board.takeChanged()) {
+                        continue;
+                    }
+                    try {
+                        writeBoard(connection, board);
+                        connection.commit();
+                        written++;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        board.markChanged();
+                        throw e;
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Loads the boards stored in the leaderboard_snapshot table, replacing the scores of
+     * the players found there.
+     *
+     * @param dataSource The data source to read from.
+     * @return The number of entries restored.
+     * @throws SQLException If a database error occurs.
+     */
+    public int restore(DataSource dataSource) throws SQLException {
+        int restored = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // Stream the rows instead of loading boards with a million players at once.
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT board, player, score FROM leaderboard_snapshot")) {
+                statement.setFetchSize(RESTORE_FETCH_SIZE);
+                ResultSet resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    board(resultSet.getString(1)).setScore(resultSet.getString(2), resultSet.getLong(3));
+                    restored++;
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        // Restored boards match the table, so they need no snapshot until they change.
+        boards.values().forEach(Leaderboard::takeChanged);
+        return restored;
+    }
+
+    private static void writeBoard(Connection connection, Leaderboard board) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM leaderboard_snapshot WHERE board = ?")) {
+            statement.setString(1, board.getName());
+            statement.executeUpdate();
+        }
+        List<Leaderboard.Entry> entries = board.entries();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO leaderboard_snapshot (board, player, score) VALUES (?, ?, ?)")) {
+            int batched = 0;
+            for (Leaderboard.Entry entry : entries) {
+                statement.setString(1, board.getName());
+                statement.setString(2, entry.getPlayer());
+                statement.setLong(3, entry.getScore());
+                statement.addBatch();
+                if (++batched == SNAPSHOT_BATCH_SIZE) {
+                    statement.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private Leaderboard board(String name) {
+        Leaderboard board = boards.get(name);
+        if (board == null) {
+            board = boards.computeIfAbsent(name, Leaderboard::new);
+        }
+        return board;
+    }
+
+    private final QuizEngine quizEngine;
+    private final Map<String, Leaderboard> boards = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,16 @@
+package org.example;
+/**
+ * The LoadMode enum selects when DaoQuiz loads the responses of the questions
+ * in a quiz graph.
+ */
+public enum LoadMode {
+    /**
+     * Loads quizzes, questions and responses up front with a joined query.
+     */
+    EAGER,
+    /**
+     * Loads quizzes and questions up front. The responses of the whole graph are
+     * loaded with one query the first time any question's responses are accessed.
+     */
+    LAZY
+}
@@ -1,25 +1,31 @@
 package org.example;
 
-import org.postgresql.ds.PGSimpleDataSource;
+import com.zaxxer.hikari.HikariDataSource;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 /**
  * Main class serves as the entry point for the application.
  */
 public class Main {
     public static void main(String[] args) {
-        // Configure the PostgreSQL data source
-        PGSimpleDataSource dataSource = DatabaseConfig.configureDataSource();
-
-        try {
-            // Obtain a database connection
+        // Configure the pooled PostgreSQL data source
+        try (HikariDataSource dataSource = DatabaseConfig.configurePooledDataSource()) {
+            // Bring the schema up to date before serving anything
+            List<Integer> applied = new SchemaMigrator(dataSource).migrate();
+            if (!applied.isEmpty()) {
+                System.out.println("Applied schema migrations " + applied);
+            }
+            // Obtain a database connection from the pool
             Connection connection = dataSource.getConnection();
-            // Close the database connection
+            System.out.println(DatabaseConfig.describePool(dataSource));
+            // Return the database connection to the pool
             connection.close();
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             // Handle any SQL exceptions that occur
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
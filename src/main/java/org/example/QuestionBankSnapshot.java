@@ -0,0 +1,497 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * The QuestionBankSnapshot class is a read-only, memory-mapped copy of every quiz,
+ * question and response, used to warm up a node without reading the bank through JDBC.
+ * Questions are addressed by an index like in TopicBank and decoded from the mapped
+ * file only when accessed, so opening a snapshot costs almost no heap.
+ *
+ * <p>File layout, all integers big-endian and all offsets relative to the file start:
+ * <ul>
+ *   <li>records: topic names and question records, grouped by topic and ordered by question id.
+ *   A question record is id, quiz id, difficulty, response count and the content, followed by
+ *   each response as id, correct byte and text. Strings are a byte length and UTF-8 bytes.</li>
+ *   <li>topic table: name offset, first question index and question count per topic.</li>
+ *   <li>quiz table: id, difficulty and topic index per quiz, ordered by id.</li>
+ *   <li>question offsets: the record offset of each question index.</li>
+ *   <li>id index: question id and question index pairs, ordered by id.</li>
+ *   <li>footer: FOOTER_INTS integers giving the magic number, version, counts and section offsets.</li>
+ * </ul>
+ * A single mapping is limited to 2 GB, which bounds the snapshot size.
+ */
+public class QuestionBankSnapshot {
+    private static final int MAGIC = 0x515A534E;
+    private static final int VERSION = 1;
+    private static final int FOOTER_INTS = 9;
+    private static final int QUESTION_HEADER_BYTES = 16;
+    private static final int EXPORT_FETCH_SIZE = 5000;
+
+    private QuestionBankSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int footer = buffer.limit() - FOOTER_INTS * Integer.BYTES;
+        if (footer < 0 || buffer.getInt(footer) != MAGIC) {
+            throw new IOException("Not a question bank snapshot");
+        }
+        if (buffer.getInt(footer + 4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(footer + 4));
+        }
+        this.questionCount = buffer.getInt(footer + 8);
+        this.quizCount = buffer.getInt(footer + 12);
+        this.topicCount = buffer.getInt(footer + 16);
+        this.topicTable = buffer.getInt(footer + 20);
+        this.quizTable = buffer.getInt(footer + 24);
+        this.questionOffsets = buffer.getInt(footer + 28);
+        this.idIndex = buffer.getInt(footer + 32);
+
+        // Topics are few, so a name lookup table is worth its heap.
+        Map<String, Integer> topicIndexes = new HashMap<>();
+        List<String> names = new ArrayList<>(topicCount);
+        for (int t = 0; t < topicCount; t++) {
+            String name = readString(buffer.getInt(topicTable + t * 12));
+            names.add(name);
+            topicIndexes.put(name, t);
+        }
+        this.topicNames = Collections.unmodifiableList(names);
+        this.topicIndexes = topicIndexes;
+    }
+
+    /**
+     * Writes every quiz, question and response to a snapshot file. The file is written
+     * next to the target and moved into place, so readers never see a partial snapshot.
+     *
+     * @param dataSource The data source to export from.
+     * @param file       The snapshot file to write.
+     * @return The number of questions written.
+     * @throws SQLException If reading the database fails.
+     * @throws IOException  If writing the file fails or the snapshot would exceed 2 GB.
+     */
+    public static int export(DataSource dataSource, Path file) throws SQLException, IOException {
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            int questions;
+            try (Connection connection = dataSource.getConnection();
+                 SnapshotWriter writer = new SnapshotWriter(temporary)) {
+                boolean autoCommit = connection.getAutoCommit();
+                int isolation = connection.getTransactionIsolation();
+                // One snapshot for both queries, and a cursor for the fetch size.
+                connection.setAutoCommit(false);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                try {
+                    writer.writeQuestions(connection);
+                    writer.writeQuizzes(connection);
+                } finally {
+                    connection.rollback();
+                    connection.setTransactionIsolation(isolation);
+                    connection.setAutoCommit(autoCommit);
+                }
+                writer.writeTables();
+                questions = writer.questionCount;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return questions;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Opens a snapshot by mapping the file into memory. The mapping stays valid after the
+     * call returns and is released when the snapshot is garbage collected.
+     *
+     * @param file The snapshot file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be mapped or is not a snapshot.
+     */
+    public static QuestionBankSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + file);
+            }
+            return new QuestionBankSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return questionCount;
+    }
+
+    /**
+     * Finds a question by id with a binary search over the id index.
+     *
+     * @param questionId The question id.
+     * @return The index of the question, or -1 if the snapshot does not hold it.
+     */
+    public int indexOf(int questionId) {
+        int low = 0;
+        int high = questionCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = buffer.getInt(idIndex + middle * 8);
+            if (id < questionId) {
+                low = middle + 1;
+            } else if (id > questionId) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(idIndex + middle * 8 + 4);
+            }
+        }
+        return -1;
+    }
+
+    public int questionId(int index) {
+        return buffer.getInt(record(index));
+    }
+
+    public int quizId(int index) {
+        return buffer.getInt(record(index) + 4);
+    }
+
+    public int difficulty(int index) {
+        return buffer.getInt(record(index) + 8);
+    }
+
+    public int responseCount(int index) {
+        return buffer.getInt(record(index) + 12);
+    }
+
+    public String content(int index) {
+        return readString(record(index) + QUESTION_HEADER_BYTES);
+    }
+
+    public int responseId(int index, int response) {
+        return buffer.getInt(response(index, response));
+    }
+
+    public boolean isCorrect(int index, int response) {
+        return buffer.get(response(index, response) + 4) != 0;
+    }
+
+    public String responseText(int index, int response) {
+        return readString(response(index, response) + 5);
+    }
+
+    /**
+     * Decodes one question into a Question object with its responses.
+     *
+     * @param index The index of the question.
+     * @return A new Question.
+     */
+    public Question question(int index) {
+        int offset = record(index);
+        Question question = new Question();
+        question.setId(buffer.getInt(offset));
+        question.setQuizId(buffer.getInt(offset + 4));
+        int responses = buffer.getInt(offset + 12);
+        question.setContent(readString(offset + QUESTION_HEADER_BYTES));
+        List<Response> list = new ArrayList<>(responses);
+        int position = offset + QUESTION_HEADER_BYTES + Integer.BYTES + buffer.getInt(offset + QUESTION_HEADER_BYTES);
+        for (int r = 0; r < responses; r++) {
+            Response response = new Response(readString(position + 5), buffer.get(position + 4) != 0);
+            response.setId(buffer.getInt(position));
+            list.add(response);
+            position += 9 + buffer.getInt(position + 5);
+        }
+        question.setResponses(list);
+        return question;
+    }
+
+    public List<String> getTopics() {
+        return topicNames;
+    }
+
+    /**
+     * Returns the index of the first question of a topic; its questions are the
+     * topicSize(topic) indexes from there on, ordered by question id.
+     *
+     * @param topic The topic.
+     * @return The first index, or -1 if the snapshot has no such topic.
+     */
+    public int topicStart(String topic) {
+        Integer t = topicIndexes.get(topic);
+        return t == null ? -1 : buffer.getInt(topicTable + t * 12 + 4);
+    }
+
+    public int topicSize(String topic) {
+        Integer t = topicIndexes.get(topic);
+        return t == null ? 0 : buffer.getInt(topicTable + t * 12 + 8);
+    }
+
+    /**
+     * Copies the questions of a topic into a TopicBank, for example to warm up a QuizEngine.
+     *
+     * @param topic The topic.
+     * @return The bank, or null if the topic has no questions.
+     */
+    public TopicBank topicBank(String topic) {
+        int size = topicSize(topic);
+        if (size == 0) {
+            return null;
+        }
+        TopicBank.Builder builder = new TopicBank.Builder(topic);
+        int start = topicStart(topic);
+        for (int index = start; index < start + size; index++) {
+            int offset = record(index);
+            builder.addQuestion(buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+                    readString(offset + QUESTION_HEADER_BYTES));
+            int responses = buffer.getInt(offset + 12);
+            int position = offset + QUESTION_HEADER_BYTES + Integer.BYTES + buffer.getInt(offset + QUESTION_HEADER_BYTES);
+            for (int r = 0; r < responses; r++) {
+                builder.addResponse(buffer.getInt(position), readString(position + 5), buffer.get(position + 4) != 0);
+                position += 9 + buffer.getInt(position + 5);
+            }
+        }
+        return builder.build();
+    }
+
+    public int quizCount() {
+        return quizCount;
+    }
+
+    /**
+     * Decodes one entry of the quiz table, ordered by quiz id.
+     *
+     * @param quiz The position of the quiz, from 0 up to quizCount().
+     * @return A new Quiz without its questions.
+     */
+    public Quiz quiz(int quiz) {
+        Quiz result = new Quiz();
+        result.setId(buffer.getInt(quizTable + quiz * 12));
+        result.setDifficulty(buffer.getInt(quizTable + quiz * 12 + 4));
+        result.setTopic(topicNames.get(buffer.getInt(quizTable + quiz * 12 + 8)));
+        return result;
+    }
+
+    private int record(int index) {
+        return buffer.getInt(questionOffsets + index * 4);
+    }
+
+    private int response(int index, int response) {
+        int offset = record(index);
+        int position = offset + QUESTION_HEADER_BYTES + Integer.BYTES + buffer.getInt(offset + QUESTION_HEADER_BYTES);
+        for (int r = 0; r < response; r++) {
+            position += 9 + buffer.getInt(position + 5);
+        }
+        return position;
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The SnapshotWriter class streams the records to the file and collects the tables written after them.
+     */
+    private static class SnapshotWriter implements AutoCloseable {
+        SnapshotWriter(Path file) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        }
+
+        void writeQuestions(Connection connection) throws SQLException, IOException {
+            String exportQuery = "SELECT z.topic, z.difficulty, q.quiz_id, q.id, q.content, r.id, r.text, r.correct "
+                    + "FROM quiz z JOIN question q ON q.quiz_id = z.id "
+                    + "LEFT JOIN response r ON r.question_id = q.id "
+                    + "ORDER BY z.topic, q.id, r.id";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(exportQuery)) {
+                preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    String topic = null;
+                    int questionId = 0;
+                    boolean pending = false;
+                    while (resultSet.next()) {
+                        String rowTopic = resultSet.getString(1);
+                        if (!pending || resultSet.getInt(4) != questionId) {
+                            if (pending) {
+                                finishQuestion();
+                            }
+                            if (!rowTopic.equals(topic)) {
+                                topic = rowTopic;
+                                addTopic(topic, questionCount);
+                            }
+                            questionId = resultSet.getInt(4);
+                            startQuestion(questionId, resultSet.getInt(3), resultSet.getInt(2), resultSet.getString(5));
+                            pending = true;
+                        }
+                        int responseId = resultSet.getInt(6);
+                        if (!resultSet.wasNull()) {
+                            addResponse(responseId, resultSet.getBoolean(8), resultSet.getString(7));
+                        }
+                    }
+                    if (pending) {
+                        finishQuestion();
+                    }
+                }
+            }
+        }
+
+        void writeQuizzes(Connection connection) throws SQLException, IOException {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT id, difficulty, topic FROM quiz ORDER BY id")) {
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        String topic = resultSet.getString(3);
+                        Integer topicIndex = topicIndexes.get(topic);
+                        if (topicIndex == null) {
+                            // A topic whose quizzes have no questions yet.
+                            topicIndex = addTopic(topic, questionCount);
+                        }
+                        quizzes = grow(quizzes, quizCount * 3 + 3);
+                        quizzes[quizCount * 3] = resultSet.getInt(1);
+                        quizzes[quizCount * 3 + 1] = resultSet.getInt(2);
+                        quizzes[quizCount * 3 + 2] = topicIndex;
+                        quizCount++;
+                    }
+                }
+            }
+        }
+
+        void writeTables() throws IOException {
+            int topicTable = offset();
+            for (int t = 0; t < topicCount; t++) {
+                // The question count of a topic is where the next topic starts.
+                int end = t + 1 < topicCount ? topics[(t + 1) * 2 + 1] : questionCount;
+                output.writeInt(topics[t * 2]);
+                output.writeInt(topics[t * 2 + 1]);
+                output.writeInt(end - topics[t * 2 + 1]);
+            }
+            int quizTable = offset();
+            for (int i = 0; i < quizCount * 3; i++) {
+                output.writeInt(quizzes[i]);
+            }
+            int questionOffsets = offset();
+            for (int i = 0; i < questionCount; i++) {
+                output.writeInt(offsets[i]);
+            }
+            int idIndex = offset();
+            long[] idsByIndex = new long[questionCount];
+            for (int i = 0; i < questionCount; i++) {
+                idsByIndex[i] = (long) ids[i] << 32 | i;
+            }
+            Arrays.sort(idsByIndex);
+            for (long entry : idsByIndex) {
+                output.writeInt((int) (entry >> 32));
+                output.writeInt((int) entry);
+            }
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(questionCount);
+            output.writeInt(quizCount);
+            output.writeInt(topicCount);
+            output.writeInt(topicTable);
+            output.writeInt(quizTable);
+            output.writeInt(questionOffsets);
+            output.writeInt(idIndex);
+            offset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+
+        private int addTopic(String topic, int firstQuestion) throws IOException {
+            // Topics without questions are added after the question records, so the next topic
+            // starts at questionCount and their count comes out as zero.
+            topics = grow(topics, topicCount * 2 + 2);
+            topics[topicCount * 2] = offset();
+            topics[topicCount * 2 + 1] = firstQuestion;
+            writeString(output, topic);
+            topicIndexes.put(topic, topicCount);
+            return topicCount++;
+        }
+
+        private void startQuestion(int questionId, int quizId, int difficulty, String content) throws IOException {
+            offsets = grow(offsets, questionCount + 1);
+            ids = grow(ids, questionCount + 1);
+            offsets[questionCount] = offset();
+            ids[questionCount] = questionId;
+            questionCount++;
+            output.writeInt(questionId);
+            output.writeInt(quizId);
+            output.writeInt(difficulty);
+            pendingContent = content;
+        }
+
+        private void addResponse(int responseId, boolean correct, String text) throws IOException {
+            // Responses are buffered because the question record starts with their count.
+            pendingResponses.writeInt(responseId);
+            pendingResponses.writeByte(correct ? 1 : 0);
+            writeString(pendingResponses, text);
+            pendingResponseCount++;
+        }
+
+        private void finishQuestion() throws IOException {
+            output.writeInt(pendingResponseCount);
+            writeString(output, pendingContent);
+            responseBytes.writeTo(output);
+            responseBytes.reset();
+            pendingResponseCount = 0;
+        }
+
+        private static void writeString(DataOutputStream output, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        private int offset() throws IOException {
+            // DataOutputStream.size saturates at Integer.MAX_VALUE, which is also the mapping limit.
+            if (output.size() == Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB");
+            }
+            return output.size();
+        }
+
+        private static int[] grow(int[] array, int required) {
+            return required <= array.length ? array : Arrays.copyOf(array, Math.max(required, array.length * 2));
+        }
+
+        private final DataOutputStream output;
+        private final ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pendingResponses = new DataOutputStream(responseBytes);
+        private String pendingContent;
+        private int pendingResponseCount;
+        private final Map<String, Integer> topicIndexes = new HashMap<>();
+        private int[] topics = new int[32];
+        private int topicCount;
+        private int[] quizzes = new int[48];
+        private int quizCount;
+        private int[] offsets = new int[1024];
+        private int[] ids = new int[1024];
+        private int questionCount;
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int questionCount;
+    private final int quizCount;
+    private final int topicCount;
+    private final int topicTable;
+    private final int quizTable;
+    private final int questionOffsets;
+    private final int idIndex;
+    private final List<String> topicNames;
+    private final Map<String, Integer> topicIndexes;
+}
@@ -0,0 +1,376 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+/**
+ * The QuestionBlock class is an immutable, compact store of many questions and their
+ * responses, meant for holding large question banks in memory. Instead of one Question,
+ * ArrayList and Response object per row, a block keeps parallel primitive arrays: question
+ * and response ids in int arrays, the correct flags in one BitSet, and every text as a
+ * UTF-8 span of one shared byte arena. Short texts that repeat, such as "True" and "False",
+ * are stored once. The responses of question i are the entries from responseStart[i] up to
+ * responseStart[i + 1] of the response arrays.
+ * <p>
+ * question(i) and asList() return QuestionView objects over the block. A view is created
+ * on each call and decodes its texts on access, so keep the block, not the views. Views
+ * are not Question objects, so they cannot be handed to a DAO write by mistake; use
+ * toQuestion(i) for a copy that can be edited and saved.
+ */
+public class QuestionBlock {
+
+    private QuestionBlock(Builder builder) {
+        int size = builder.questionCount;
+        this.questionIds = Arrays.copyOf(builder.questionIds, size);
+        this.quizIds = Arrays.copyOf(builder.quizIds, size);
+        this.contentTexts = Arrays.copyOf(builder.contentTexts, size);
+        this.responseStart = Arrays.copyOf(builder.responseStart, size + 1);
+        this.responseStart[size] = builder.responseCount;
+        this.responseIds = Arrays.copyOf(builder.responseIds, builder.responseCount);
+        this.responseTexts = Arrays.copyOf(builder.responseTexts, builder.responseCount);
+        this.correct = (BitSet) builder.correct.clone();
+        this.textStart = Arrays.copyOf(builder.textStart, builder.textCount + 1);
+        this.textStart[builder.textCount] = builder.arenaLength;
+        this.arena = Arrays.copyOf(builder.arena, builder.arenaLength);
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public int questionId(int index) {
+        return questionIds[index];
+    }
+
+    public int quizId(int index) {
+        return quizIds[index];
+    }
+
+    public String content(int index) {
+        return text(contentTexts[index]);
+    }
+
+    public int responseCount(int index) {
+        return responseStart[index + 1] - responseStart[index];
+    }
+
+    public int responseId(int index, int response) {
+        return responseIds[responseStart[index] + response];
+    }
+
+    public String responseText(int index, int response) {
+        return text(responseTexts[responseStart[index] + response]);
+    }
+
+    public boolean isCorrect(int index, int response) {
+        return correct.get(responseStart[index] + response);
+    }
+
+    /**
+     * Finds the index of a question.
+     *
+     * @param questionId The ID of the question.
+     * @return The index of the question, or a negative value if it is not in this block.
+     */
+    public int indexOf(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId);
+    }
+
+    /**
+     * Returns a read-only view of one question.
+     *
+     * @param index The index of the question.
+     * @return A new view over the question and its responses.
+     */
+    public QuestionView question(int index) {
+        return new BlockQuestion(index);
+    }
+
+    /**
+     * Returns a read-only list of views over every question, in ascending id order.
+     *
+     * @return A list that creates each view when it is accessed.
+     */
+    public List<QuestionView> asList() {
+        return new QuestionList();
+    }
+
+    /**
+     * Builds a Question object for one question. Unlike question(index), this copies the
+     * texts, and the result may be edited and saved.
+     *
+     * @param index The index of the question.
+     * @return A new Question with its responses.
+     */
+    public Question toQuestion(int index) {
+        Question question = new Question();
+        question.setId(questionIds[index]);
+        question.setContent(content(index));
+        question.setQuizId(quizIds[index]);
+        for (int i = responseStart[index]; i < responseStart[index + 1]; i++) {
+            Response response = new Response(text(responseTexts[i]), correct.get(i));
+            response.setId(responseIds[i]);
+            question.addResponse(response);
+        }
+        return question;
+    }
+
+    /**
+     * Returns the number of bytes held by the arrays of this block, not counting object
+     * headers. Useful to compare with the size of the same questions as Question objects.
+     *
+     * @return The approximate size of the block's data.
+     */
+    public long dataBytes() {
+        long ints = (long) questionIds.length * 3 + responseStart.length + responseIds.length * 2L + textStart.length;
+        return ints * Integer.BYTES + arena.length + correct.size() / Byte.SIZE;
+    }
+
+    private String text(int text) {
+        if (text == NULL_TEXT) {
+            return null;
+        }
+        return new String(arena, textStart[text], textStart[text + 1] - textStart[text], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A read-only question of a QuestionBlock.
+     */
+    public interface QuestionView {
+        int getId();
+
+        String getContent();
+
+        int getQuizId();
+
+        /**
+         * Returns the responses of the question.
+         *
+         * @return A read-only list that creates each view when it is accessed.
+         */
+        List<ResponseView> getResponses();
+    }
+
+    /**
+     * A read-only response of a QuestionBlock.
+     */
+    public interface ResponseView {
+        int getId();
+
+        String getText();
+
+        boolean isCorrect();
+    }
+
+    /**
+     * A QuestionView backed by one entry of the block.
+     */
+    private final class BlockQuestion implements QuestionView {
+        BlockQuestion(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getId() {
+            return questionIds[index];
+        }
+
+        @Override
+        public String getContent() {
+            return content(index);
+        }
+
+        @Override
+        public int getQuizId() {
+            return quizIds[index];
+        }
+
+        @Override
+        public List<ResponseView> getResponses() {
+            return new ResponseList(responseStart[index], responseStart[index + 1]);
+        }
+
+        private final int index;
+    }
+
+    /**
+     * A ResponseView backed by one entry of the block's response arrays.
+     */
+    private final class BlockResponse implements ResponseView {
+        BlockResponse(int response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getId() {
+            return responseIds[response];
+        }
+
+        @Override
+        public String getText() {
+            return text(responseTexts[response]);
+        }
+
+        @Override
+        public boolean isCorrect() {
+            return correct.get(response);
+        }
+
+        private final int response;
+    }
+
+    private final class QuestionList extends AbstractList<QuestionView> implements RandomAccess {
+        @Override
+        public QuestionView get(int index) {
+            return new BlockQuestion(index);
+        }
+
+        @Override
+        public int size() {
+            return questionIds.length;
+        }
+    }
+
+    private final class ResponseList extends AbstractList<ResponseView> implements RandomAccess {
+        ResponseList(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public ResponseView get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return new BlockResponse(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        private final int from;
+        private final int to;
+    }
+
+    private static final int NULL_TEXT = -1;
+
+    private final int[] questionIds;
+    private final int[] quizIds;
+    private final int[] contentTexts;
+    private final int[] responseStart;
+    private final int[] responseIds;
+    private final int[] responseTexts;
+    private final BitSet correct;
+    private final int[] textStart;
+    private final byte[] arena;
+
+    /**
+     * The Builder class collects questions in ascending id order. DaoQuestion.loadQuestionBlock
+     * fills one straight from a result set, without creating Question or Response objects.
+     */
+    public static class Builder {
+
+        /**
+         * Starts a new question; following addResponse calls belong to it.
+         *
+         * @throws IllegalArgumentException If the id is not larger than the previous one.
+         */
+        public Builder addQuestion(int questionId, int quizId, String content) {
+            if (questionCount > 0 && questionId <= questionIds[questionCount - 1]) {
+                throw new IllegalArgumentException("Questions must be added in ascending id order: " + questionId);
+            }
+            if (questionCount == questionIds.length) {
+                int capacity = Math.max(16, questionCount * 2);
+                questionIds = Arrays.copyOf(questionIds, capacity);
+                quizIds = Arrays.copyOf(quizIds, capacity);
+                contentTexts = Arrays.copyOf(contentTexts, capacity);
+                responseStart = Arrays.copyOf(responseStart, capacity + 1);
+            }
+            questionIds[questionCount] = questionId;
+            quizIds[questionCount] = quizId;
+            contentTexts[questionCount] = addText(content);
+            responseStart[questionCount] = responseCount;
+            questionCount++;
+            return this;
+        }
+
+        /**
+         * Adds a response to the question added last.
+         */
+        public Builder addResponse(int responseId, String text, boolean correct) {
+            if (questionCount == 0) {
+                throw new IllegalStateException("addQuestion must be called before addResponse");
+            }
+            if (responseCount == responseIds.length) {
+                int capacity = Math.max(64, responseCount * 2);
+                responseIds = Arrays.copyOf(responseIds, capacity);
+                responseTexts = Arrays.copyOf(responseTexts, capacity);
+            }
+            responseIds[responseCount] = responseId;
+            responseTexts[responseCount] = addText(text);
+            this.correct.set(responseCount, correct);
+            responseCount++;
+            return this;
+        }
+
+        public int size() {
+            return questionCount;
+        }
+
+        public QuestionBlock build() {
+            return new QuestionBlock(this);
+        }
+
+        private int addText(String text) {
+            if (text == null) {
+                return NULL_TEXT;
+            }
+            // Only short texts are looked up; long ones rarely repeat and would make the map large.
+            boolean shared = text.length() <= SHARED_TEXT_LENGTH;
+            if (shared) {
+                Integer existing = sharedTexts.get(text);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (arenaLength + bytes.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, arena, arenaLength, bytes.length);
+            if (textCount == textStart.length) {
+                textStart = Arrays.copyOf(textStart, Math.max(64, textCount * 2));
+            }
+            textStart[textCount] = arenaLength;
+            arenaLength += bytes.length;
+            if (shared) {
+                sharedTexts.put(text, textCount);
+            }
+            return textCount++;
+        }
+
+        private static final int SHARED_TEXT_LENGTH = 32;
+
+        private int questionCount;
+        private int responseCount;
+        private int textCount;
+        private int arenaLength;
+        private int[] questionIds = new int[0];
+        private int[] quizIds = new int[0];
+        private int[] contentTexts = new int[0];
+        private int[] responseStart = new int[1];
+        private int[] responseIds = new int[0];
+        private int[] responseTexts = new int[0];
+        private int[] textStart = new int[0];
+        private byte[] arena = new byte[256];
+        private final BitSet correct = new BitSet();
+        private final Map<String, Integer> sharedTexts = new HashMap<>();
+    }
+}
@@ -0,0 +1,209 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * The QuestionCache class is a bounded, least-recently-used cache of topic search results.
+ * Entries expire after a fixed time to live. Questions are copied when stored and again
+ * when returned, so callers can never mutate a cached question graph.
+ */
+public class QuestionCache {
+    /**
+     * Constructs a QuestionCache.
+     *
+     * @param maxEntries The maximum number of topics kept before the least recently used is evicted.
+     * @param ttl        How long an entry stays valid after it was loaded.
+     * @param unit       The unit of the ttl argument.
+     */
+    public QuestionCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a copy of the cached questions for a topic.
+     *
+     * @param topic The topic to look up.
+     * @return A private copy of the cached questions, or null if the topic is not cached or has expired.
+     */
+    public List<Question> get(String topic) {
+        List<Question> cached;
+        synchronized (this) {
+            Entry entry = entries.get(topic);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+                remove(topic);
+                misses.incrementAndGet();
+                return null;
+            }
+            cached = entry.questions;
+        }
+        hits.incrementAndGet();
+        return copyOf(cached);
+    }
+
+    /**
+     * Returns the current invalidation generation. A loader reads it before querying the
+     * database and passes it to {@link #put(String, List, long)}, so results that raced
+     * with a write are not stored.
+     *
+     * @return The current generation.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a copy of the questions for a topic unless an invalidation happened
+     * since the given generation was read.
+     *
+     * @param topic      The topic the questions belong to.
+     * @param questions  The questions loaded from the database.
+     * @param generation The generation read before the questions were loaded.
+     */
+    public void put(String topic, List<Question> questions, long generation) {
+        List<Question> copy = copyOf(questions);
+        synchronized (this) {
+            if (generation != this.generation.get()) {
+                return;
+            }
+            remove(topic);
+            entries.put(topic, new Entry(copy, System.nanoTime()));
+            for (Question question : copy) {
+                topicsByQuestionId.put(question.getId(), topic);
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unindex(evicted.getKey(), evicted.getValue());
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes the cached questions of a topic.
+     *
+     * @param topic The topic to invalidate; null is ignored.
+     */
+    public synchronized void invalidate(String topic) {
+        generation.incrementAndGet();
+        if (topic != null) {
+            remove(topic);
+        }
+    }
+
+    /**
+     * Removes the cached topic that contains the given question, if any.
+     *
+     * @param questionId The ID of the question that changed.
+     */
+    public synchronized void invalidateQuestion(int questionId) {
+        generation.incrementAndGet();
+        String topic = topicsByQuestionId.get(questionId);
+        if (topic != null) {
+            remove(topic);
+        }
+    }
+
+    /**
+     * Removes every cached topic.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        topicsByQuestionId.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionCache: size=" + size() + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount();
+    }
+
+    private void remove(String topic) {
+        Entry entry = entries.remove(topic);
+        if (entry != null) {
+            unindex(topic, entry);
+        }
+    }
+
+    private void unindex(String topic, Entry entry) {
+        for (Question question : entry.questions) {
+            topicsByQuestionId.remove(question.getId(), topic);
+        }
+    }
+
+    /**
+     * Creates a deep copy of a question list, including every response.
+     */
+    static List<Question> copyOf(List<Question> questions) {
+        List<Question> copy = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            Question questionCopy = new Question();
+            questionCopy.setId(question.getId());
+            questionCopy.setContent(question.getContent());
+            questionCopy.setQuizId(question.getQuizId());
+            if (question.getResponses() != null) {
+                List<Response> responses = new ArrayList<>(question.getResponses().size());
+                for (Response response : question.getResponses()) {
+                    Response responseCopy = new Response(response.getText(), response.isCorrect());
+                    responseCopy.setId(response.getId());
+                    responses.add(responseCopy);
+                }
+                questionCopy.setResponses(responses);
+            }
+            copy.add(questionCopy);
+        }
+        return copy;
+    }
+
+    private static class Entry {
+        Entry(List<Question> questions, long loadedAt) {
+            this.questions = questions;
+            this.loadedAt = loadedAt;
+        }
+
+        private final List<Question> questions;
+        private final long loadedAt;
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<Integer, String> topicsByQuestionId = new HashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+}
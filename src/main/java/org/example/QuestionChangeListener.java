@@ -0,0 +1,50 @@
+package org.example;
+/**
+ * The QuestionChangeListener interface is notified by DaoQuestion after a question
+ * write has been committed, so in-memory stores can refresh what they hold.
+ * A QuestionChangeSubscriber notifies it about the writes of other nodes.
+ */
+public interface QuestionChangeListener {
+    /**
+     * Called after a new question has been saved.
+     *
+     * @param question The saved question, with its generated id.
+     */
+    void questionSaved(Question question);
+
+    /**
+     * Called after a question has been updated. The question may have moved to another quiz.
+     *
+     * @param question The question as it was written.
+     */
+    void questionUpdated(Question question);
+
+    /**
+     * Called after a question has been deleted.
+     *
+     * @param questionId The ID of the deleted question.
+     */
+    void questionDeleted(int questionId);
+
+    /**
+     * Called after several questions have been deleted in one statement, for example
+     * by deleteQuestions or deleteQuiz.
+     *
+     * @param questionIds The IDs of the deleted questions.
+     */
+    void questionsDeleted(int[] questionIds);
+
+    /**
+     * Called after several questions have been moved to another quiz in one statement.
+     *
+     * @param questionIds  The IDs of the moved questions.
+     * @param targetQuizId The quiz the questions now belong to.
+     */
+    void questionsMoved(int[] questionIds, int targetQuizId);
+
+    /**
+     * Called when changes made by other nodes may have been missed, for example after the
+     * connection that receives them was lost. Everything held should be reloaded.
+     */
+    void changesMissed();
+}
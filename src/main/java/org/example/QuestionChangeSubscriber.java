@@ -0,0 +1,273 @@
+package org.example;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+/**
+ * The QuestionChangeSubscriber class receives the question changes other nodes publish with
+ * PostgreSQL NOTIFY (see DaoQuestion.setChangeChannel) and passes them to QuestionChangeListeners,
+ * so per-node caches and stores stay current without polling. Questions passed to the
+ * listeners carry only their id and quiz id. If the listening connection is lost, the listeners
+ * are told with changesMissed() once it is re-established, as notifications sent in between are gone.
+ */
+public class QuestionChangeSubscriber implements AutoCloseable {
+
+    /**
+     * The channel used when none is configured.
+     */
+    public static final String DEFAULT_CHANNEL = "question_changes";
+    /**
+     * Identifies the changes published by this process, so it can skip its own.
+     */
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
+    /**
+     * Constructs and starts a QuestionChangeSubscriber that skips the changes of this process,
+     * which its local listeners have already seen.
+     *
+     * @param dataSource The data source of the primary. The subscriber holds one of its connections
+     *                   for as long as it runs, so pass an unpooled one such as DatabaseConfig.configureDataSource().
+     * @param channel    The channel to listen on.
+     */
+    public QuestionChangeSubscriber(DataSource dataSource, String channel) {
+        this(dataSource, channel, NODE_ID);
+    }
+
+    /**
+     * Constructs and starts a QuestionChangeSubscriber.
+     *
+     * @param dataSource    The data source of the primary; an unpooled one is best.
+     * @param channel       The channel to listen on.
+     * @param ignoredNodeId The node whose changes are skipped, or null to receive every change.
+     */
+    public QuestionChangeSubscriber(DataSource dataSource, String channel, String ignoredNodeId) {
+        this.dataSource = dataSource;
+        this.channel = checkChannel(channel);
+        this.ignoredNodeId = ignoredNodeId;
+        this.thread = new Thread(this::run, "question-change-subscriber");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Registers a listener that is told about every change received.
+     *
+     * @param listener The listener to add.
+     */
+    public void addQuestionChangeListener(QuestionChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addQuestionChangeListener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeQuestionChangeListener(QuestionChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Waits until the subscriber is listening, so changes committed afterwards are received.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return True if the subscriber is listening, false if the timeout elapsed first.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitListening(long timeout, TimeUnit unit) throws InterruptedException {
+        return listening.await(timeout, unit);
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getReconnectCount() {
+        return reconnects.get();
+    }
+
+    public long getMalformedCount() {
+        return malformed.get();
+    }
+
+    /**
+     * Stops listening and closes the connection.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(POLL_INTERVAL_MS * 4L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Builds the NOTIFY payloads announcing a change. Large id lists are split over several
+     * payloads to stay below PostgreSQL's payload limit of 8000 bytes.
+     *
+     * @param kind        The kind of change: saved, updated, deleted or moved.
+     * @param questionIds The IDs of the changed questions.
+     * @param quizId      The quiz the questions belong to now, or 0 for deleted questions.
+     * @return The payloads to send.
+     */
+    static List<String> payloads(String kind, int[] questionIds, int quizId) {
+        List<String> payloads = new ArrayList<>(questionIds.length / IDS_PER_PAYLOAD + 1);
+        for (int from = 0; from < questionIds.length; from += IDS_PER_PAYLOAD) {
+            StringBuilder payload = new StringBuilder(NODE_ID).append('|').append(kind).append('|').append(quizId).append('|');
+            int to = Math.min(questionIds.length, from + IDS_PER_PAYLOAD);
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    payload.append(',');
+                }
+                payload.append(questionIds[i]);
+            }
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * Checks that a channel name can be used unquoted in LISTEN.
+     *
+     * @param channel The channel name.
+     * @return The channel name.
+     * @throws IllegalArgumentException If the name is not a lower-case SQL identifier.
+     */
+    static String checkChannel(String channel) {
+        if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        return channel;
+    }
+
+    private void run() {
+        long backoffMs = MIN_BACKOFF_MS;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    reconnects.incrementAndGet();
+                    for (QuestionChangeListener listener : listeners) {
+                        try {
+                            listener.changesMissed();
+                        } catch (RuntimeException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+                connectedBefore = true;
+                backoffMs = MIN_BACKOFF_MS;
+                listening.countDown();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_INTERVAL_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                dispatch(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                // A malformed payload is skipped; it must not stop the subscriber.
+                                malformed.incrementAndGet();
+                                System.err.println("Skipping malformed question change: " + notification.getParameter());
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                e.printStackTrace();
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split("\\|", 4);
+        if (parts.length != 4 || parts[0].equals(ignoredNodeId)) {
+            return;
+        }
+        received.incrementAndGet();
+        String[] idTexts = parts[3].split(",");
+        int[] questionIds = new int[idTexts.length];
+        for (int i = 0; i < idTexts.length; i++) {
+            questionIds[i] = Integer.parseInt(idTexts[i]);
+        }
+        int quizId = Integer.parseInt(parts[2]);
+        for (QuestionChangeListener listener : listeners) {
+            // A failing listener must not keep the others from hearing about the change.
+            try {
+                deliver(listener, parts[1], questionIds, quizId);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void deliver(QuestionChangeListener listener, String kind, int[] questionIds, int quizId) {
+        switch (kind) {
+            case "saved" -> listener.questionSaved(question(questionIds[0], quizId));
+            case "updated" -> listener.questionUpdated(question(questionIds[0], quizId));
+            case "deleted" -> {
+                if (questionIds.length == 1) {
+                    listener.questionDeleted(questionIds[0]);
+                } else {
+                    listener.questionsDeleted(questionIds);
+                }
+            }
+            case "moved" -> listener.questionsMoved(questionIds, quizId);
+            default -> {
+            }
+        }
+    }
+
+    private static Question question(int questionId, int quizId) {
+        Question question = new Question();
+        question.setId(questionId);
+        question.setQuizId(quizId);
+        return question;
+    }
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    // About 8 bytes per id keeps a payload well below the 8000 byte limit.
+    private static final int IDS_PER_PAYLOAD = 800;
+    private static final int POLL_INTERVAL_MS = 500;
+    private static final long MIN_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DataSource dataSource;
+    private final String channel;
+    private final String ignoredNodeId;
+    private final Thread thread;
+    private final List<QuestionChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch listening = new CountDownLatch(1);
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private volatile boolean running = true;
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+/**
+ * The QuestionRowReader class assembles questions from a joined result set with the
+ * columns question id, content, quiz id, response id, text and correct, ordered by
+ * question id. All rows of one question are folded into a single Question, so only
+ * the question currently being read is held in memory.
+ */
+class QuestionRowReader {
+    QuestionRowReader(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    /**
+     * Reads the next complete question.
+     *
+     * @return The next question with all of its responses, or null when the result set is exhausted.
+     * @throws SQLException If reading the result set fails.
+     */
+    Question next() throws SQLException {
+        if (!started) {
+            started = true;
+            exhausted = !advance();
+        }
+        if (exhausted) {
+            return null;
+        }
+        Question question = new Question();
+        question.setId(resultSet.getInt(1));
+        question.setContent(resultSet.getString(2));
+        question.setQuizId(resultSet.getInt(3));
+        do {
+            // Rows are ordered by question id, so a new id starts the next question.
+            if (resultSet.getInt(1) != question.getId()) {
+                return question;
+            }
+            int responseId = resultSet.getInt(4);
+            if (!resultSet.wasNull()) {
+                Response response = new Response(resultSet.getString(5), resultSet.getBoolean(6));
+                response.setId(responseId);
+                question.addResponse(response);
+            }
+        } while (advance());
+        exhausted = true;
+        return question;
+    }
+
+    /**
+     * Copies the remaining rows into a QuestionBlock builder without creating Question or
+     * Response objects.
+     *
+     * @param builder The builder that receives the questions and responses.
+     * @throws SQLException If reading the result set fails.
+     */
+    void readInto(QuestionBlock.Builder builder) throws SQLException {
+        if (started) {
+            throw new IllegalStateException("readInto must be called before next");
+        }
+        started = true;
+        exhausted = true;
+        int questionId = 0;
+        boolean first = true;
+        while (advance()) {
+            if (first || resultSet.getInt(1) != questionId) {
+                first = false;
+                questionId = resultSet.getInt(1);
+                builder.addQuestion(questionId, resultSet.getInt(3), resultSet.getString(2));
+            }
+            int responseId = resultSet.getInt(4);
+            if (!resultSet.wasNull()) {
+                builder.addResponse(responseId, resultSet.getString(5), resultSet.getBoolean(6));
+            }
+        }
+    }
+
+    int getRowsRead() {
+        return rowsRead;
+    }
+
+    private boolean advance() throws SQLException {
+        if (resultSet.next()) {
+            rowsRead++;
+            return true;
+        }
+        return false;
+    }
+
+    private final ResultSet resultSet;
+    private boolean started;
+    private boolean exhausted;
+    private int rowsRead;
+}
@@ -0,0 +1,558 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+/**
+ * The QuizEngine class serves randomized quizzes from memory. It preloads every quiz,
+ * question and response into one TopicBank per topic and draws questions without
+ * touching the database. Registered as a QuestionChangeListener on a DaoQuestion, it
+ * applies each write to copies of the topics it affected and swaps them in atomically,
+ * without reading the topics again. Changes received from other nodes carry only ids,
+ * so for those the affected topic is reloaded. Every change stamps the topics it touched
+ * with a new version, and a load or refresh that read a topic while its version moved
+ * reads it again, so a change applied during the read is not overwritten by older rows.
+ */
+public class QuizEngine implements QuestionChangeListener {
+    /**
+     * Number of rows fetched per round trip while loading.
+     */
+    public static final int LOAD_FETCH_SIZE = 5000;
+    /**
+     * Number of times refreshTopic reads a topic that keeps changing before it reads it
+     * while holding off changes.
+     */
+    public static final int MAX_REFRESH_ATTEMPTS = 3;
+
+    /**
+     * Constructs an empty QuizEngine; call load() or load(Collection) before drawing.
+     *
+     * @param dataSource The data source to load from, or null for an engine fed only by load(Collection).
+     */
+    public QuizEngine(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Replaces the engine contents with every quiz in the database, streaming the rows
+     * through a cursor so the load holds only the compact form in memory. Topics that
+     * changed while they were being read keep their current contents and are then
+     * refreshed on their own.
+     *
+     * @throws SQLException If loading fails; the previous contents are kept in that case.
+     */
+    public void load() throws SQLException {
+        long start;
+        synchronized (lock) {
+            start = version;
+        }
+        Map<Integer, String> quizTopicsLoaded = new HashMap<>();
+        Map<Integer, Integer> quizDifficultiesLoaded = new HashMap<>();
+        Map<String, TopicBank> loaded = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            loadQuizzes(connection, null, quizTopicsLoaded, quizDifficultiesLoaded);
+            loadTopics(connection, null, loaded);
+        }
+        List<String> changedDuringLoad = new ArrayList<>();
+        synchronized (lock) {
+            Contents current = contents;
+            Set<String> allTopics = new HashSet<>(current.topics().keySet());
+            allTopics.addAll(loaded.keySet());
+            for (String topic : allTopics) {
+                if (versionOf(topic) > start) {
+                    changedDuringLoad.add(topic);
+                    loaded.remove(topic);
+                    TopicBank bank = current.topics().get(topic);
+                    if (bank != null) {
+                        loaded.put(topic, bank);
+                    }
+                }
+            }
+            // Quizzes looked up during the load are kept; a quiz that no longer exists is harmless.
+            current.quizTopics().forEach(quizTopicsLoaded::putIfAbsent);
+            current.quizDifficulties().forEach(quizDifficultiesLoaded::putIfAbsent);
+            replace(loaded, quizTopicsLoaded, quizDifficultiesLoaded);
+        }
+        for (String topic : changedDuringLoad) {
+            refreshTopic(topic);
+        }
+    }
+
+    /**
+     * Replaces the engine contents with the given quizzes, which must carry their ids.
+     *
+     * @param quizzes The quizzes with their questions and responses.
+     */
+    public void load(Collection<Quiz> quizzes) {
+        Map<String, List<Question>> questionsByTopic = new HashMap<>();
+        Map<Integer, Quiz> quizzesById = new HashMap<>();
+        for (Quiz quiz : quizzes) {
+            quizzesById.put(quiz.getId(), quiz);
+            List<Question> questions = questionsByTopic.computeIfAbsent(quiz.getTopic(), topic -> new ArrayList<>());
+            if (quiz.getQuestions() != null) {
+                questions.addAll(quiz.getQuestions());
+            }
+        }
+        Map<String, TopicBank> loaded = new HashMap<>();
+        questionsByTopic.forEach((topic, questions) -> {
+            questions.sort(Comparator.comparingInt(Question::getId));
+            TopicBank.Builder builder = new TopicBank.Builder(topic);
+            for (Question question : questions) {
+                builder.addQuestion(question.getId(), question.getQuizId(),
+                        quizzesById.get(question.getQuizId()).getDifficulty(), question.getContent());
+                for (Response response : question.getResponses()) {
+                    builder.addResponse(response.getId(), response.getText(), response.isCorrect());
+                }
+            }
+            loaded.put(topic, builder.build());
+        });
+        Map<Integer, String> quizTopicsLoaded = new HashMap<>();
+        Map<Integer, Integer> quizDifficultiesLoaded = new HashMap<>();
+        quizzesById.forEach((id, quiz) -> {
+            quizTopicsLoaded.put(id, quiz.getTopic());
+            quizDifficultiesLoaded.put(id, quiz.getDifficulty());
+        });
+        replace(loaded, quizTopicsLoaded, quizDifficultiesLoaded);
+    }
+
+    /**
+     * Replaces the engine contents with a question bank snapshot, which avoids reading the
+     * bank through JDBC at startup. Writes made after the snapshot was exported are not
+     * included; refresh the topics they touched, or call load(), to catch up.
+     *
+     * @param snapshot The snapshot to load from.
+     */
+    public void load(QuestionBankSnapshot snapshot) {
+        Map<Integer, String> quizTopicsLoaded = new HashMap<>();
+        Map<Integer, Integer> quizDifficultiesLoaded = new HashMap<>();
+        for (int quiz = 0; quiz < snapshot.quizCount(); quiz++) {
+            Quiz entry = snapshot.quiz(quiz);
+            quizTopicsLoaded.put(entry.getId(), entry.getTopic().intern());
+            quizDifficultiesLoaded.put(entry.getId(), entry.getDifficulty());
+        }
+        Map<String, TopicBank> loaded = new HashMap<>();
+        for (String topic : snapshot.getTopics()) {
+            TopicBank bank = snapshot.topicBank(topic);
+            if (bank != null) {
+                loaded.put(topic, bank);
+            }
+        }
+        replace(loaded, quizTopicsLoaded, quizDifficultiesLoaded);
+    }
+
+    /**
+     * Reloads one topic from the database and swaps it in. If the topic changes while it
+     * is being read, it is read again; the last of MAX_REFRESH_ATTEMPTS reads holds off
+     * changes until it is swapped in.
+     *
+     * @param topic The topic to reload; it is removed if it no longer has questions.
+     * @throws SQLException If loading fails; the previous contents are kept in that case.
+     */
+    public void refreshTopic(String topic) throws SQLException {
+        for (int attempt = 1; attempt < MAX_REFRESH_ATTEMPTS; attempt++) {
+            long start;
+            synchronized (lock) {
+                start = version;
+            }
+            TopicRead read = readTopic(topic);
+            synchronized (lock) {
+                if (versionOf(topic) <= start) {
+                    swapIn(topic, read);
+                    return;
+                }
+            }
+        }
+        synchronized (lock) {
+            swapIn(topic, readTopic(topic));
+        }
+    }
+
+    /**
+     * Returns the current store of a topic. Draw from and read the same TopicBank
+     * instance, since a refresh replaces it with a new one.
+     *
+     * @param topic The topic.
+     * @return The topic's questions, or null if the topic has none.
+     */
+    public TopicBank topic(String topic) {
+        return contents.topics().get(topic);
+    }
+
+    /**
+     * Returns the topic of a loaded quiz.
+     *
+     * @param quizId The quiz id.
+     * @return The topic, or null if the quiz is not loaded.
+     */
+    public String getQuizTopic(int quizId) {
+        return contents.quizTopics().get(quizId);
+    }
+
+    public Set<String> getTopics() {
+        return contents.topics().keySet();
+    }
+
+    /**
+     * Draws random questions for a topic and difficulty and returns them as Question
+     * objects. For an allocation-free path use topic(String) and TopicBank.draw instead.
+     *
+     * @param topic      The topic to draw from.
+     * @param difficulty The quiz difficulty, or TopicBank.ANY_DIFFICULTY.
+     * @param count      The number of questions wanted.
+     * @return Up to count distinct questions in random order.
+     */
+    public List<Question> drawQuestions(String topic, int difficulty, int count) {
+        TopicBank bank = contents.topics().get(topic);
+        if (bank == null) {
+            return new ArrayList<>();
+        }
+        int[] indexes = new int[count];
+        int drawn = bank.draw(difficulty, count, indexes, ThreadLocalRandom.current());
+        List<Question> questions = new ArrayList<>(drawn);
+        for (int i = 0; i < drawn; i++) {
+            questions.add(bank.question(indexes[i]));
+        }
+        return questions;
+    }
+
+    @Override
+    public void questionSaved(Question question) {
+        applyQuestion(question);
+    }
+
+    @Override
+    public void questionUpdated(Question question) {
+        applyQuestion(question);
+    }
+
+    @Override
+    public void questionDeleted(int questionId) {
+        questionsDeleted(new int[]{questionId});
+    }
+
+    @Override
+    public void questionsDeleted(int[] questionIds) {
+        synchronized (lock) {
+            Contents current = contents;
+            Map<String, TopicBank> topics = new HashMap<>(current.topics());
+            Set<String> affected = topicsOfQuestions(current, questionIds);
+            for (String topic : affected) {
+                putTopic(topics, topics.get(topic).withoutQuestions(questionIds));
+            }
+            contents = current.withTopics(topics);
+            markChanged(affected);
+        }
+    }
+
+    @Override
+    public void questionsMoved(int[] questionIds, int targetQuizId) {
+        boolean targetKnown = lookUpQuiz(targetQuizId);
+        String targetTopic;
+        int movedCount = 0;
+        synchronized (lock) {
+            Contents current = contents;
+            targetTopic = current.quizTopics().get(targetQuizId);
+            Map<String, TopicBank> topics = new HashMap<>(current.topics());
+            List<Question> moved = new ArrayList<>();
+            Set<String> affected = topicsOfQuestions(current, questionIds);
+            for (String topic : affected) {
+                TopicBank bank = topics.get(topic);
+                for (int questionId : questionIds) {
+                    int index = bank.indexOf(questionId);
+                    if (index >= 0) {
+                        Question question = bank.question(index);
+                        question.setQuizId(targetQuizId);
+                        moved.add(question);
+                    }
+                }
+                putTopic(topics, bank.withoutQuestions(questionIds));
+            }
+            if (targetKnown) {
+                putTopic(topics, bankOf(topics, targetTopic)
+                        .withQuestions(moved, current.quizDifficulties().get(targetQuizId)));
+                movedCount = moved.size();
+                affected.add(targetTopic);
+            }
+            contents = current.withTopics(topics);
+            markChanged(affected);
+        }
+        if (targetKnown && movedCount < questionIds.length) {
+            // Some of the questions were not loaded here, so the target topic is read to pick them up.
+            refresh(targetTopic);
+        }
+    }
+
+    @Override
+    public void changesMissed() {
+        try {
+            load();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to reload the quiz engine after missed changes", e);
+        }
+    }
+
+    private void applyQuestion(Question question) {
+        if (question.getContent() == null) {
+            // A change received from another node: only the ids are known, so the topics are read again.
+            String previousTopic = topicOfQuestion(contents, question.getId());
+            if (lookUpQuiz(question.getQuizId())) {
+                refresh(getQuizTopic(question.getQuizId()));
+            }
+            if (previousTopic != null && !previousTopic.equals(getQuizTopic(question.getQuizId()))) {
+                refresh(previousTopic);
+            }
+            return;
+        }
+        if (!lookUpQuiz(question.getQuizId())) {
+            return;
+        }
+        synchronized (lock) {
+            Contents current = contents;
+            String topic = current.quizTopics().get(question.getQuizId());
+            Map<String, TopicBank> topics = new HashMap<>(current.topics());
+            String previousTopic = topicOfQuestion(current, question.getId());
+            if (previousTopic != null && !previousTopic.equals(topic)) {
+                putTopic(topics, topics.get(previousTopic).withoutQuestions(new int[]{question.getId()}));
+            }
+            putTopic(topics, bankOf(topics, topic)
+                    .withQuestions(List.of(question), current.quizDifficulties().get(question.getQuizId())));
+            contents = current.withTopics(topics);
+            markChanged(previousTopic == null ? List.of(topic) : List.of(topic, previousTopic));
+        }
+    }
+
+    /**
+     * Makes sure the topic and difficulty of a quiz are known, reading them for a quiz
+     * created after the load.
+     *
+     * @param quizId The quiz id.
+     * @return True if the quiz is known, false if it does not exist or could not be read.
+     */
+    private boolean lookUpQuiz(int quizId) {
+        if (contents.quizTopics().containsKey(quizId)) {
+            return true;
+        }
+        if (dataSource == null) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("SELECT topic, difficulty FROM quiz WHERE id = ?")) {
+            preparedStatement.setInt(1, quizId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                Map<Integer, String> quizTopicsLoaded = Map.of(quizId, resultSet.getString(1).intern());
+                Map<Integer, Integer> quizDifficultiesLoaded = Map.of(quizId, resultSet.getInt(2));
+                synchronized (lock) {
+                    contents = contents.withQuizzes(quizTopicsLoaded, quizDifficultiesLoaded);
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to look up quiz " + quizId, e);
+            return false;
+        }
+    }
+
+    private void refresh(String topic) {
+        try {
+            refreshTopic(topic);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to refresh topic " + topic, e);
+        }
+    }
+
+    private static TopicBank bankOf(Map<String, TopicBank> topics, String topic) {
+        TopicBank bank = topics.get(topic);
+        return bank == null ? new TopicBank.Builder(topic).build() : bank;
+    }
+
+    private static void putTopic(Map<String, TopicBank> topics, TopicBank bank) {
+        if (bank.size() == 0) {
+            topics.remove(bank.getTopic());
+        } else {
+            topics.put(bank.getTopic(), bank);
+        }
+    }
+
+    private static Set<String> topicsOfQuestions(Contents contents, int[] questionIds) {
+        Set<String> affected = new HashSet<>();
+        for (int questionId : questionIds) {
+            String topic = topicOfQuestion(contents, questionId);
+            if (topic != null) {
+                affected.add(topic);
+            }
+        }
+        return affected;
+    }
+
+    private static String topicOfQuestion(Contents contents, int questionId) {
+        for (TopicBank bank : contents.topics().values()) {
+            if (bank.indexOf(questionId) >= 0) {
+                return bank.getTopic();
+            }
+        }
+        return null;
+    }
+
+    private void replace(Map<String, TopicBank> topics, Map<Integer, String> quizTopics,
+                         Map<Integer, Integer> quizDifficulties) {
+        synchronized (lock) {
+            Set<String> replaced = new HashSet<>(contents.topics().keySet());
+            replaced.addAll(topics.keySet());
+            contents = new Contents(Map.copyOf(topics), Map.copyOf(quizTopics), Map.copyOf(quizDifficulties));
+            markChanged(replaced);
+        }
+    }
+
+    private TopicRead readTopic(String topic) throws SQLException {
+        Map<String, TopicBank> loaded = new HashMap<>();
+        Map<Integer, String> quizTopicsLoaded = new HashMap<>();
+        Map<Integer, Integer> quizDifficultiesLoaded = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            loadQuizzes(connection, topic, quizTopicsLoaded, quizDifficultiesLoaded);
+            loadTopics(connection, topic, loaded);
+        }
+        return new TopicRead(loaded.get(topic), quizTopicsLoaded, quizDifficultiesLoaded);
+    }
+
+    // Callers hold lock.
+    private void swapIn(String topic, TopicRead read) {
+        Contents current = contents;
+        Map<String, TopicBank> topics = new HashMap<>(current.topics());
+        if (read.bank() == null) {
+            topics.remove(topic);
+        } else {
+            topics.put(topic, read.bank());
+        }
+        contents = current.withQuizzes(read.quizTopics(), read.quizDifficulties()).withTopics(topics);
+        markChanged(List.of(topic));
+    }
+
+    // Callers hold lock.
+    private void markChanged(Collection<String> topics) {
+        version++;
+        for (String topic : topics) {
+            topicVersions.put(topic, version);
+        }
+    }
+
+    // Callers hold lock.
+    private long versionOf(String topic) {
+        return topicVersions.getOrDefault(topic, 0L);
+    }
+
+    private static void loadQuizzes(Connection connection, String topic, Map<Integer, String> quizTopics,
+                                    Map<Integer, Integer> quizDifficulties) throws SQLException {
+        String quizQuery = "SELECT id, topic, difficulty FROM quiz" + (topic == null ? "" : " WHERE topic = ?");
+        try (PreparedStatement preparedStatement = connection.prepareStatement(quizQuery)) {
+            if (topic != null) {
+                preparedStatement.setString(1, topic);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    quizTopics.put(resultSet.getInt(1), resultSet.getString(2).intern());
+                    quizDifficulties.put(resultSet.getInt(1), resultSet.getInt(3));
+                }
+            }
+        }
+    }
+
+    private static void loadTopics(Connection connection, String topic, Map<String, TopicBank> banks)
+            throws SQLException {
+        String loadQuery = "SELECT z.topic, z.difficulty, q.quiz_id, q.id, q.content, r.id, r.text, r.correct "
+                + "FROM quiz z JOIN question q ON q.quiz_id = z.id "
+                + "LEFT JOIN response r ON r.question_id = q.id "
+                + (topic == null ? "" : "WHERE z.topic = ? ")
+                + "ORDER BY z.topic, q.id, r.id";
+        boolean autoCommit = connection.getAutoCommit();
+        // The driver only uses a cursor for the fetch size inside a transaction.
+        connection.setAutoCommit(false);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(loadQuery)) {
+            preparedStatement.setFetchSize(LOAD_FETCH_SIZE);
+            if (topic != null) {
+                preparedStatement.setString(1, topic);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                TopicBank.Builder builder = null;
+                int questionId = 0;
+                while (resultSet.next()) {
+                    String rowTopic = resultSet.getString(1);
+                    // Rows are ordered by topic, so a new topic finishes the previous bank.
+                    if (builder == null || !builder.getTopic().equals(rowTopic)) {
+                        if (builder != null) {
+                            banks.put(builder.getTopic(), builder.build());
+                        }
+                        builder = new TopicBank.Builder(rowTopic);
+                        questionId = 0;
+                    }
+                    if (resultSet.getInt(4) != questionId) {
+                        questionId = resultSet.getInt(4);
+                        builder.addQuestion(questionId, resultSet.getInt(3), resultSet.getInt(2), resultSet.getString(5));
+                    }
+                    int responseId = resultSet.getInt(6);
+                    if (!resultSet.wasNull()) {
+                        builder.addResponse(responseId, resultSet.getString(7), resultSet.getBoolean(8));
+                    }
+                }
+                if (builder != null) {
+                    banks.put(builder.getTopic(), builder.build());
+                }
+            }
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(QuizEngine.class.getName());
+
+    private final DataSource dataSource;
+    // Serializes the writers that derive new contents from the current ones; readers do not lock.
+    private final Object lock = new Object();
+    private volatile Contents contents = new Contents(Map.of(), Map.of(), Map.of());
+    // Incremented by every change; each topic holds the value of the last change that touched it. Guarded by lock.
+    private long version;
+    private final Map<String, Long> topicVersions = new HashMap<>();
+
+    /**
+     * The topics and quizzes of the engine, replaced as a whole so readers never see
+     * one half of a load or refresh.
+     */
+    private record Contents(Map<String, TopicBank> topics, Map<Integer, String> quizTopics,
+                            Map<Integer, Integer> quizDifficulties) {
+
+        Contents withTopics(Map<String, TopicBank> newTopics) {
+            return new Contents(Map.copyOf(newTopics), quizTopics, quizDifficulties);
+        }
+
+        Contents withQuizzes(Map<Integer, String> addedTopics, Map<Integer, Integer> addedDifficulties) {
+            Map<Integer, String> newTopics = new HashMap<>(quizTopics);
+            newTopics.putAll(addedTopics);
+            Map<Integer, Integer> newDifficulties = new HashMap<>(quizDifficulties);
+            newDifficulties.putAll(addedDifficulties);
+            return new Contents(topics, Map.copyOf(newTopics), Map.copyOf(newDifficulties));
+        }
+    }
+
+    /**
+     * The rows of one topic read by refreshTopic.
+     */
+    private record TopicRead(TopicBank bank, Map<Integer, String> quizTopics,
+                             Map<Integer, Integer> quizDifficulties) {
+    }
+}
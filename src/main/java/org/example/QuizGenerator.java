@@ -0,0 +1,258 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+/**
+ * The QuizGenerator class builds personalized quizzes from the topics loaded in a QuizEngine.
+ * Each quiz takes the requested number of questions from each difficulty, never gives a player
+ * a question they already got from this generator, and places the correct responses so that
+ * every answer position is used about equally often within the quiz. Players are spread over
+ * a fork/join pool; each task draws from its own split of one seeded SplittableRandom, so the
+ * same seed gives the same quizzes however the work is scheduled.
+ */
+public class QuizGenerator {
+
+    /**
+     * Constructs a QuizGenerator that runs on the common fork/join pool.
+     *
+     * @param quizEngine The engine holding the topics to draw from.
+     */
+    public QuizGenerator(QuizEngine quizEngine) {
+        this(quizEngine, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a QuizGenerator.
+     *
+     * @param quizEngine The engine holding the topics to draw from.
+     * @param pool       The pool that generates the quizzes.
+     */
+    public QuizGenerator(QuizEngine quizEngine, ForkJoinPool pool) {
+        this.quizEngine = quizEngine;
+        this.pool = pool;
+    }
+
+    /**
+     * Generates quizzes with a random seed.
+     *
+     * @param requests The quizzes to generate.
+     * @return The generated quizzes, in the order of the requests.
+     */
+    public List<Quiz> generate(List<QuizRequest> requests) {
+        return generate(requests, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Generates quizzes. The quizzes of one player are built one after another in request
+     * order; different players are built in parallel. A quiz holds fewer questions than
+     * requested when its topic has too few unseen questions of a difficulty, and none when
+     * the topic is not loaded. Its questions are ordered by ascending difficulty, and its
+     * difficulty is the rounded average of theirs. Generated quizzes have no id.
+     *
+     * @param requests The quizzes to generate.
+     * @param seed     The seed; the same seed, requests and player history give the same quizzes.
+     * @return The generated quizzes, in the order of the requests.
+     */
+    public List<Quiz> generate(List<QuizRequest> requests, long seed) {
+        Map<String, List<Integer>> requestsByPlayer = new LinkedHashMap<>();
+        Map<String, TopicBank> banks = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            QuizRequest request = requests.get(i);
+            requestsByPlayer.computeIfAbsent(request.getPlayer(), player -> new ArrayList<>()).add(i);
+            // Every quiz of this call draws from the same bank, even if a topic is refreshed meanwhile.
+            banks.computeIfAbsent(request.getTopic(), quizEngine::topic);
+        }
+        Generation generation = new Generation(requests, banks, requestsByPlayer);
+        pool.invoke(new GenerateTask(generation, 0, generation.players.length, new SplittableRandom(seed)));
+        return Arrays.asList(generation.quizzes);
+    }
+
+    /**
+     * Returns the number of questions a player has been given so far.
+     *
+     * @param player The player.
+     * @return The number of distinct questions in the player's history.
+     */
+    public int getSeenCount(String player) {
+        Set<Integer> seen = history.get(player);
+        if (seen == null) {
+            return 0;
+        }
+        synchronized (seen) {
+            return seen.size();
+        }
+    }
+
+    /**
+     * Forgets the questions a player has been given, so they can get them again.
+     *
+     * @param player The player.
+     */
+    public void forgetPlayer(String player) {
+        history.remove(player);
+    }
+
+    private void generatePlayer(Generation generation, int player, SplittableRandom random) {
+        Set<Integer> seen = history.computeIfAbsent(generation.players[player], key -> new HashSet<>());
+        // Only one task handles a player per call; the lock guards against overlapping calls.
+        synchronized (seen) {
+            for (int request : generation.requestIndexes[player]) {
+                QuizRequest quizRequest = generation.requests.get(request);
+                generation.quizzes[request] = generateQuiz(quizRequest,
+                        generation.banks.get(quizRequest.getTopic()), seen, random);
+            }
+        }
+    }
+
+    private static Quiz generateQuiz(QuizRequest request, TopicBank bank, Set<Integer> seen, SplittableRandom random) {
+        Quiz quiz = new Quiz();
+        quiz.setTopic(request.getTopic());
+        List<Question> questions = new ArrayList<>(request.getQuestionCount());
+        quiz.setQuestions(questions);
+        if (bank == null) {
+            return quiz;
+        }
+        int[] indexes = new int[request.getQuestionCount()];
+        int[] correctPositions = new int[MAX_BALANCED_POSITIONS];
+        long difficultySum = 0;
+        for (Map.Entry<Integer, Integer> entry : request.getQuestionsPerDifficulty().entrySet()) {
+            int drawn = bank.draw(entry.getKey(), entry.getValue(), indexes, random,
+                    index -> seen.contains(bank.questionId(index)));
+            for (int i = 0; i < drawn; i++) {
+                seen.add(bank.questionId(indexes[i]));
+                questions.add(question(bank, indexes[i], correctPositions, random));
+            }
+            difficultySum += (long) entry.getKey() * drawn;
+        }
+        if (!questions.isEmpty()) {
+            quiz.setDifficulty(Math.round((float) difficultySum / questions.size()));
+        }
+        return quiz;
+    }
+
+    private static Question question(TopicBank bank, int index, int[] correctPositions, SplittableRandom random) {
+        int responseCount = bank.responseCount(index);
+        int correct = -1;
+        for (int i = 0; i < responseCount && correct < 0; i++) {
+            if (bank.isCorrect(index, i)) {
+                correct = i;
+            }
+        }
+        int[] order = new int[responseCount];
+        for (int i = 0; i < responseCount; i++) {
+            order[i] = i;
+        }
+        for (int i = responseCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        if (correct >= 0 && responseCount <= MAX_BALANCED_POSITIONS) {
+            // Put the first correct response where it has appeared least often in this quiz,
+            // breaking ties at random, so no position gives the answer away.
+            int start = random.nextInt(responseCount);
+            int target = start;
+            for (int i = 1; i < responseCount; i++) {
+                int position = (start + i) % responseCount;
+                if (correctPositions[position] < correctPositions[target]) {
+                    target = position;
+                }
+            }
+            correctPositions[target]++;
+            for (int i = 0; i < responseCount; i++) {
+                if (order[i] == correct) {
+                    order[i] = order[target];
+                    order[target] = correct;
+                    break;
+                }
+            }
+        }
+        Question question = new Question();
+        question.setId(bank.questionId(index));
+        question.setContent(bank.content(index));
+        question.setQuizId(bank.quizId(index));
+        List<Response> responses = new ArrayList<>(responseCount);
+        for (int response : order) {
+            Response copy = new Response(bank.responseText(index, response), bank.isCorrect(index, response));
+            copy.setId(bank.responseId(index, response));
+            responses.add(copy);
+        }
+        question.setResponses(responses);
+        return question;
+    }
+
+    /**
+     * Holds the input and output of one generate call, shared read-only by its tasks
+     * apart from the quiz slots, each of which only one task writes.
+     */
+    private static final class Generation {
+        Generation(List<QuizRequest> requests, Map<String, TopicBank> banks, Map<String, List<Integer>> requestsByPlayer) {
+            this.requests = requests;
+            this.banks = banks;
+            this.players = requestsByPlayer.keySet().toArray(new String[0]);
+            this.requestIndexes = new int[players.length][];
+            for (int i = 0; i < players.length; i++) {
+                requestIndexes[i] = requestsByPlayer.get(players[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+            this.quizzes = new Quiz[requests.size()];
+        }
+
+        final List<QuizRequest> requests;
+        final Map<String, TopicBank> banks;
+        final String[] players;
+        final int[][] requestIndexes;
+        final Quiz[] quizzes;
+    }
+
+    /**
+     * Generates the quizzes of a range of players, halving the range until it is small enough.
+     * The random generator is split before forking, so the draws do not depend on scheduling.
+     */
+    private final class GenerateTask extends RecursiveAction {
+        GenerateTask(Generation generation, int from, int to, SplittableRandom random) {
+            this.generation = generation;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PLAYERS_PER_TASK) {
+                for (int player = from; player < to; player++) {
+                    generatePlayer(generation, player, random.split());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            GenerateTask right = new GenerateTask(generation, middle, to, random.split());
+            invokeAll(new GenerateTask(generation, from, middle, random), right);
+        }
+
+        private final Generation generation;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+    }
+
+    // Small enough to keep every core busy, large enough that task overhead stays negligible.
+    private static final int PLAYERS_PER_TASK = 16;
+    // Correct answers are balanced over at most this many positions; longer response lists keep a shuffled order.
+    private static final int MAX_BALANCED_POSITIONS = 16;
+
+    private final QuizEngine quizEngine;
+    private final ForkJoinPool pool;
+    private final Map<String, Set<Integer>> history = new ConcurrentHashMap<>();
+}
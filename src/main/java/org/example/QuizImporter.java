@@ -0,0 +1,245 @@
+package org.example;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+/**
+ * The QuizImporter class loads large numbers of quizzes, with their questions
+ * and responses, using PostgreSQL COPY instead of one INSERT per row.
+ * Ids are reserved from the table sequences in bulk and written back onto the
+ * imported objects. The whole import runs in one transaction, so readers see
+ * none of the rows until every chunk has been written and committed.
+ */
+public class QuizImporter {
+    /**
+     * Default number of quizzes buffered in memory before they are copied to the database.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /**
+     * Constructs a QuizImporter with the default chunk size.
+     *
+     * @param dataSource The data source to use for database connections.
+     */
+    public QuizImporter(DataSource dataSource) {
+        this(dataSource, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a QuizImporter.
+     *
+     * @param dataSource The data source to use for database connections.
+     * @param chunkSize  The number of quizzes buffered in memory before they are copied.
+     */
+    public QuizImporter(DataSource dataSource, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.dataSource = dataSource;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports a list of quizzes together with their questions and responses.
+     *
+     * @param quizzes The quizzes to import; their ids and those of their questions
+     *                and responses are set on success.
+     * @return The number of rows written and the throughput.
+     * @throws SQLException If the import fails; no rows are left behind in that case.
+     */
+    public ImportResult importQuizzes(List<Quiz> quizzes) throws SQLException {
+        return importQuizzes(quizzes.iterator());
+    }
+
+    /**
+     * Imports a stream of quizzes together with their questions and responses.
+     * The stream is consumed lazily in chunks, so it may be larger than the heap
+     * as long as callers do not keep references to the imported objects.
+     *
+     * @param quizzes The quizzes to import; their ids and those of their questions
+     *                and responses are set on success.
+     * @return The number of rows written and the throughput.
+     * @throws SQLException If the import fails; no rows are left behind in that case.
+     */
+    public ImportResult importQuizzes(Stream<Quiz> quizzes) throws SQLException {
+        return importQuizzes(quizzes.iterator());
+    }
+
+    private ImportResult importQuizzes(Iterator<Quiz> quizzes) throws SQLException {
+        long start = System.nanoTime();
+        int quizCount = 0;
+        int questionCount = 0;
+        int responseCount = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                List<Quiz> chunk = new ArrayList<>(chunkSize);
+                while (quizzes.hasNext()) {
+                    chunk.add(quizzes.next());
+                    if (chunk.size() == chunkSize || !quizzes.hasNext()) {
+                        int[] counts = copyChunk(chunk, connection, copyManager);
+                        quizCount += counts[0];
+                        questionCount += counts[1];
+                        responseCount += counts[2];
+                        chunk.clear();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return new ImportResult(quizCount, questionCount, responseCount, System.nanoTime() - start);
+    }
+
+    private int[] copyChunk(List<Quiz> chunk, Connection connection, CopyManager copyManager) throws SQLException {
+        List<Question> questions = new ArrayList<>();
+        List<Response> responses = new ArrayList<>();
+        List<Integer> responseQuestionIds = new ArrayList<>();
+        for (Quiz quiz : chunk) {
+            if (quiz.getQuestions() == null) {
+                continue;
+            }
+            for (Question question : quiz.getQuestions()) {
+                questions.add(question);
+                if (question.getResponses() != null) {
+                    responses.addAll(question.getResponses());
+                }
+            }
+        }
+
+        int[] quizIds = reserveIds(connection, "quiz", chunk.size());
+        int[] questionIds = reserveIds(connection, "question", questions.size());
+        int[] responseIds = reserveIds(connection, "response", responses.size());
+
+        int questionIndex = 0;
+        int responseIndex = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            Quiz quiz = chunk.get(i);
+            quiz.setId(quizIds[i]);
+            if (quiz.getQuestions() == null) {
+                continue;
+            }
+            for (Question question : quiz.getQuestions()) {
+                question.setId(questionIds[questionIndex++]);
+                question.setQuizId(quiz.getId());
+                if (question.getResponses() == null) {
+                    continue;
+                }
+                for (Response response : question.getResponses()) {
+                    response.setId(responseIds[responseIndex++]);
+                    responseQuestionIds.add(question.getId());
+                }
+            }
+        }
+
+        try {
+            try (Writer writer = copyWriter(copyManager, "COPY quiz (id, topic, difficulty) FROM STDIN")) {
+                for (Quiz quiz : chunk) {
+                    writer.write(Integer.toString(quiz.getId()));
+                    writer.write('\t');
+                    writeText(writer, quiz.getTopic());
+                    writer.write('\t');
+                    writer.write(Integer.toString(quiz.getDifficulty()));
+                    writer.write('\n');
+                }
+            }
+            try (Writer writer = copyWriter(copyManager, "COPY question (id, content, quiz_id) FROM STDIN")) {
+                for (Question question : questions) {
+                    writer.write(Integer.toString(question.getId()));
+                    writer.write('\t');
+                    writeText(writer, question.getContent());
+                    writer.write('\t');
+                    writer.write(Integer.toString(question.getQuizId()));
+                    writer.write('\n');
+                }
+            }
+            try (Writer writer = copyWriter(copyManager, "COPY response (id, text, correct, question_id) FROM STDIN")) {
+                for (int i = 0; i < responses.size(); i++) {
+                    Response response = responses.get(i);
+                    writer.write(Integer.toString(response.getId()));
+                    writer.write('\t');
+                    writeText(writer, response.getText());
+                    writer.write('\t');
+                    writer.write(response.isCorrect() ? "t" : "f");
+                    writer.write('\t');
+                    writer.write(Integer.toString(responseQuestionIds.get(i)));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("COPY into quiz tables failed", e);
+        }
+        return new int[]{chunk.size(), questions.size(), responses.size()};
+    }
+
+    private Writer copyWriter(CopyManager copyManager, String copySql) throws SQLException {
+        PGCopyOutputStream outputStream = new PGCopyOutputStream(copyManager.copyIn(copySql));
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Reserves a block of ids from the SERIAL sequence of a table in one query.
+     */
+    private int[] reserveIds(Connection connection, String table, int count) throws SQLException {
+        int[] ids = new int[count];
+        if (count == 0) {
+            return ids;
+        }
+        String reserveQuery = "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(reserveQuery)) {
+            preparedStatement.setString(1, table);
+            preparedStatement.setInt(2, count);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                int i = 0;
+                while (resultSet.next()) {
+                    ids[i++] = resultSet.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Writes a value in COPY text format, escaping the characters COPY treats specially.
+     */
+    private static void writeText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int chunkSize;
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * The QuizRequest class describes one quiz for QuizGenerator to build: whose it is,
+ * which topic it draws from and how many questions it takes from each difficulty.
+ */
+public class QuizRequest {
+    /**
+     * Constructs a QuizRequest.
+     *
+     * @param player                 The player the quiz is for; they never get a question twice.
+     * @param topic                  The topic to draw from.
+     * @param questionsPerDifficulty The number of questions wanted per quiz difficulty.
+     */
+    public QuizRequest(String player, String topic, Map<Integer, Integer> questionsPerDifficulty) {
+        this.player = player;
+        this.topic = topic;
+        this.questionsPerDifficulty = Collections.unmodifiableMap(new TreeMap<>(questionsPerDifficulty));
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Returns the number of questions wanted per difficulty.
+     *
+     * @return The counts keyed by difficulty, in ascending difficulty order.
+     */
+    public Map<Integer, Integer> getQuestionsPerDifficulty() {
+        return questionsPerDifficulty;
+    }
+
+    public int getQuestionCount() {
+        int count = 0;
+        for (int questions : questionsPerDifficulty.values()) {
+            count += questions;
+        }
+        return count;
+    }
+
+    private final String player;
+    private final String topic;
+    private final Map<Integer, Integer> questionsPerDifficulty;
+}
@@ -0,0 +1,15 @@
+package org.example;
+/**
+ * The ReadRouting enum selects how ReplicaDataSource spreads reads over its replicas.
+ */
+public enum ReadRouting {
+    /**
+     * Hands out the replicas in turn.
+     */
+    ROUND_ROBIN,
+    /**
+     * Hands out the replica with the fewest connections currently borrowed through
+     * this data source, so a replica slowed down by long queries receives fewer new ones.
+     */
+    LEAST_LOADED
+}
@@ -0,0 +1,325 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+/**
+ * The ReplicaDataSource class is a read-only data source that spreads connections over
+ * the read replicas of a PostgreSQL primary. A replica that cannot be reached is skipped
+ * for a cool-down period, so reads do not each wait for it to fail again, and when no
+ * replica can serve a read the connection comes from the primary instead.
+ * Pass it to DaoQuestion.setReadDataSource and keep the primary as the DAO's data source,
+ * so reads go to the replicas and writes to the primary.
+ */
+public class ReplicaDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * Time in milliseconds a replica that could not be reached is skipped by default.
+     */
+    public static final long DEFAULT_COOL_DOWN_MS = 10_000;
+
+    /**
+     * Constructs a ReplicaDataSource that skips an unreachable replica for DEFAULT_COOL_DOWN_MS.
+     *
+     * @param primary  The data source of the primary, used when no replica can serve a read.
+     * @param replicas The data sources of the replicas; may be empty.
+     * @param routing  How reads are spread over the replicas.
+     */
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas, ReadRouting routing) {
+        this(primary, replicas, routing, DEFAULT_COOL_DOWN_MS);
+    }
+
+    /**
+     * Constructs a ReplicaDataSource.
+     *
+     * @param primary    The data source of the primary, used when no replica can serve a read.
+     * @param replicas   The data sources of the replicas; may be empty.
+     * @param routing    How reads are spread over the replicas.
+     * @param coolDownMs How long a replica that could not be reached is skipped before it is tried again.
+     */
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas, ReadRouting routing,
+                             long coolDownMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.routing = routing;
+        this.coolDownNanos = TimeUnit.MILLISECONDS.toNanos(coolDownMs);
+        this.unhealthyUntil = new AtomicLongArray(this.replicas.size());
+        this.borrowed = new AtomicIntegerArray(this.replicas.size());
+        this.reads = new LongAdder[this.replicas.size()];
+        for (int i = 0; i < reads.length; i++) {
+            reads[i] = new LongAdder();
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * Retrieves the number of connections handed out by a replica.
+     *
+     * @param replica The index of the replica in the list given to the constructor.
+     * @return The number of connections handed out so far.
+     */
+    public long getReadCount(int replica) {
+        return reads[replica].sum();
+    }
+
+    /**
+     * Retrieves the number of connections of a replica that are currently borrowed.
+     *
+     * @param replica The index of the replica in the list given to the constructor.
+     * @return The number of connections not yet closed.
+     */
+    public int getBorrowedCount(int replica) {
+        return borrowed.get(replica);
+    }
+
+    /**
+     * Tells whether a replica is used for reads, that is, whether it was reachable the
+     * last time it was tried or its cool-down has passed.
+     *
+     * @param replica The index of the replica in the list given to the constructor.
+     * @return True if reads may go to the replica.
+     */
+    public boolean isHealthy(int replica) {
+        long until = unhealthyUntil.get(replica);
+        return until == 0 || System.nanoTime() - until >= 0;
+    }
+
+    /**
+     * Retrieves the number of reads that went to the primary because no replica could serve them.
+     *
+     * @return The number of connections handed out by the primary.
+     */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    /**
+     * Opens a connection to a replica chosen by the routing policy.
+     *
+     * @return A connection to a replica, or to the primary if no replica is reachable.
+     * @throws SQLException If neither a replica nor the primary could be reached.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(0);
+    }
+
+    /**
+     * Opens a connection to a replica that has replayed the write-ahead log at least up to
+     * a position, so it shows every transaction committed before that position.
+     *
+     * @param minLsn The log position as returned by parseLsn, or 0 for no minimum.
+     * @return A connection to a replica, or to the primary if no replica is reachable or caught up.
+     * @throws SQLException If neither a replica nor the primary could be reached.
+     */
+    Connection getConnection(long minLsn) throws SQLException {
+        int count = replicas.size();
+        int first = count == 0 ? 0 : pick();
+        for (int attempt = 0; attempt < count; attempt++) {
+            int replica = (first + attempt) % count;
+            if (!isHealthy(replica)) {
+                continue;
+            }
+            Connection connection;
+            try {
+                connection = replicas.get(replica).getConnection();
+            } catch (SQLException e) {
+                // An unreachable replica is skipped; the next one or the primary serves the read.
+                markUnhealthy(replica);
+                continue;
+            }
+            unhealthyUntil.set(replica, 0);
+            boolean caughtUp;
+            try {
+                caughtUp = minLsn == 0 || hasReplayed(connection, minLsn);
+            } catch (SQLException e) {
+                markUnhealthy(replica);
+                connection.close();
+                continue;
+            }
+            if (caughtUp) {
+                return track(replica, connection);
+            }
+            // Replicas stream from the same primary, so if this one lags the others most likely do too.
+            connection.close();
+            break;
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Closes the primary and replica data sources that can be closed, such as the pools
+     * created by DatabaseConfig.configureReplicatedDataSource.
+     */
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            closeQuietly(replica);
+        }
+        closeQuietly(primary);
+    }
+
+    /**
+     * Not supported; the credentials are configured on the primary and replica data sources.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured on the replica data sources");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Parses a write-ahead log position in PostgreSQL's text form, for example "16/B374D848".
+     *
+     * @param lsn The position as returned by pg_current_wal_insert_lsn()::text.
+     * @return The position as a number that orders like the log.
+     */
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return Long.parseLong(lsn.substring(0, slash), 16) << 32 | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    /**
+     * Formats a write-ahead log position in PostgreSQL's text form.
+     *
+     * @param lsn The position as returned by parseLsn.
+     * @return The position in the form accepted by the pg_lsn type.
+     */
+    static String formatLsn(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+
+    private int pick() {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        if (routing == ReadRouting.ROUND_ROBIN) {
+            return start;
+        }
+        // Starting the scan at the round-robin position spreads ties instead of always picking the first.
+        int best = start;
+        for (int i = 1; i < count; i++) {
+            int replica = (start + i) % count;
+            if (borrowed.get(replica) < borrowed.get(best)) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    private void markUnhealthy(int replica) {
+        // Zero means healthy, so a deadline that happens to be zero is moved by a nanosecond.
+        long until = System.nanoTime() + coolDownNanos;
+        unhealthyUntil.set(replica, until == 0 ? 1 : until);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to close data source " + dataSource, e);
+            }
+        }
+    }
+
+    private static boolean hasReplayed(Connection connection, long minLsn) throws SQLException {
+        // A server that is not in recovery returns null; it is a primary and has every write.
+        String replayedQuery = "SELECT pg_last_wal_replay_lsn() IS NULL OR pg_last_wal_replay_lsn() >= ?::pg_lsn";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(replayedQuery)) {
+            preparedStatement.setString(1, formatLsn(minLsn));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private Connection track(int replica, Connection connection) {
+        borrowed.incrementAndGet(replica);
+        reads[replica].increment();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && args == null && closed.compareAndSet(false, true)) {
+                        borrowed.decrementAndGet(replica);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicaDataSource.class.getName());
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadRouting routing;
+    private final long coolDownNanos;
+    // System.nanoTime() until which each replica is skipped, or 0 for a healthy replica.
+    private final AtomicLongArray unhealthyUntil;
+    private final AtomicIntegerArray borrowed;
+    private final LongAdder[] reads;
+    private final LongAdder primaryReads = new LongAdder();
+    private final AtomicInteger next = new AtomicInteger();
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+/**
+ * The SchemaMigrator class brings the database schema up to date at startup.
+ * It applies the files named V&lt;version&gt;__&lt;description&gt;.sql from the migrations
+ * directory in version order, each in its own transaction, and records every applied
+ * version with a checksum in the schema_version table.
+ */
+public class SchemaMigrator {
+    /**
+     * Default location of the migration scripts, relative to the working directory.
+     */
+    public static final Path DEFAULT_DIRECTORY = Path.of("database", "migrations");
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    /**
+     * Arbitrary key of the advisory lock that keeps several nodes from migrating at once.
+     */
+    private static final long LOCK_KEY = 7_428_301_552L;
+
+    /**
+     * Constructs a SchemaMigrator that reads migrations from DEFAULT_DIRECTORY.
+     *
+     * @param dataSource The data source of the database to migrate.
+     */
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Constructs a SchemaMigrator.
+     *
+     * @param dataSource The data source of the database to migrate.
+     * @param directory  The directory holding the migration scripts.
+     */
+    public SchemaMigrator(DataSource dataSource, Path directory) {
+        this.dataSource = dataSource;
+        this.directory = directory;
+    }
+
+    /**
+     * Applies every migration that has not been applied yet.
+     *
+     * @return The versions applied by this call, in order; empty if the schema was up to date.
+     * @throws SQLException          If a migration fails; that migration is rolled back.
+     * @throws IOException           If the migration scripts cannot be read.
+     * @throws IllegalStateException If an applied script has been changed since it ran.
+     */
+    public List<Integer> migrate() throws SQLException, IOException {
+        List<Migration> migrations = findMigrations();
+        List<Integer> applied = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INT PRIMARY KEY, "
+                        + "description TEXT NOT NULL, "
+                        + "checksum BIGINT NOT NULL, "
+                        + "applied_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+            }
+            connection.setAutoCommit(false);
+            try {
+                for (Migration migration : migrations) {
+                    if (apply(connection, migration)) {
+                        applied.add(migration.version);
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return applied;
+    }
+
+    private boolean apply(Connection connection, Migration migration) throws SQLException {
+        try {
+            try (Statement statement = connection.createStatement()) {
+                // Held until commit, so a concurrently starting node waits and then sees this version.
+                statement.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            }
+            Map<Integer, Long> checksums = appliedChecksums(connection);
+            Long checksum = checksums.get(migration.version);
+            if (checksum != null) {
+                connection.rollback();
+                if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migration " + migration.fileName
+                            + " was changed after it had been applied");
+                }
+                return false;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(migration.sql);
+            }
+            String recordQuery = "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(recordQuery)) {
+                preparedStatement.setInt(1, migration.version);
+                preparedStatement.setString(2, migration.description);
+                preparedStatement.setLong(3, migration.checksum);
+                preparedStatement.executeUpdate();
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration.fileName + " failed", e.getSQLState(), e);
+        }
+    }
+
+    private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (resultSet.next()) {
+                checksums.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return checksums;
+    }
+
+    private List<Migration> findMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    String sql = Files.readString(file, StandardCharsets.UTF_8);
+                    CRC32 crc = new CRC32();
+                    crc.update(sql.getBytes(StandardCharsets.UTF_8));
+                    migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                            matcher.group(2).replace('_', ' '), file.getFileName().toString(), sql, crc.getValue()));
+                }
+            }
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        return migrations;
+    }
+
+    private static class Migration {
+        Migration(int version, String description, String fileName, String sql, long checksum) {
+            this.version = version;
+            this.description = description;
+            this.fileName = fileName;
+            this.sql = sql;
+            this.checksum = checksum;
+        }
+
+        private final int version;
+        private final String description;
+        private final String fileName;
+        private final String sql;
+        private final long checksum;
+    }
+
+    private final DataSource dataSource;
+    private final Path directory;
+}
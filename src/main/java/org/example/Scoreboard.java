@@ -0,0 +1,115 @@
+package org.example;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * The Scoreboard class keeps running scores per player. Each player has striped
+ * LongAdder counters, so many threads can score answers for the same player without
+ * contending on a single memory location.
+ */
+public class Scoreboard {
+
+    /**
+     * Records one scored answer.
+     *
+     * @param player  The player who answered.
+     * @param correct Whether the answer was correct.
+     * @return The player's score entry, for callers that update derived structures.
+     */
+    public PlayerScore record(String player, boolean correct) {
+        PlayerScore score = scores.get(player);
+        if (score == null) {
+            score = scores.computeIfAbsent(player, PlayerScore::new);
+        }
+        score.answered.increment();
+        if (correct) {
+            score.correct.increment();
+        }
+        return score;
+    }
+
+    /**
+     * Claims a question for a player, so the player's first answer to it is the only
+     * one scored.
+     *
+     * @param player     The player who answered.
+     * @param questionId The question answered.
+     * @return True if the player had not claimed the question before, false for a repeat.
+     */
+    public boolean claim(String player, int questionId) {
+        PlayerScore score = scores.get(player);
+        if (score == null) {
+            score = scores.computeIfAbsent(player, PlayerScore::new);
+        }
+        return score.answeredQuestions.add(questionId);
+    }
+
+    /**
+     * Gives back a question claimed with claim, for an answer that was not recorded after all.
+     *
+     * @param player     The player.
+     * @param questionId The question.
+     */
+    public void release(String player, int questionId) {
+        PlayerScore score = scores.get(player);
+        if (score != null) {
+            score.answeredQuestions.remove(questionId);
+        }
+    }
+
+    /**
+     * Returns the score of a player.
+     *
+     * @param player The player.
+     * @return The number of correct answers, or 0 for an unknown player.
+     */
+    public long getScore(String player) {
+        PlayerScore score = scores.get(player);
+        return score == null ? 0 : score.getCorrect();
+    }
+
+    /**
+     * Returns the number of answers a player has submitted.
+     *
+     * @param player The player.
+     * @return The number of answers, or 0 for an unknown player.
+     */
+    public long getAnswered(String player) {
+        PlayerScore score = scores.get(player);
+        return score == null ? 0 : score.getAnswered();
+    }
+
+    public int getPlayerCount() {
+        return scores.size();
+    }
+
+    /**
+     * The PlayerScore class holds the counters of one player.
+     */
+    public static class PlayerScore {
+        PlayerScore(String player) {
+            this.player = player;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public long getCorrect() {
+            return correct.sum();
+        }
+
+        public long getAnswered() {
+            return answered.sum();
+        }
+
+        private final String player;
+        private final LongAdder correct = new LongAdder();
+        private final LongAdder answered = new LongAdder();
+        private final Set<Integer> answeredQuestions = ConcurrentHashMap.newKeySet();
+    }
+
+    private final Map<String, PlayerScore> scores = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+/**
+ * The StatementCache class prepares the statements of a DAO and counts how many of them
+ * were prepared for the first time on their physical connection and how many were reused.
+ * The PostgreSQL driver keeps the parsed statements per physical connection, keyed by their
+ * SQL, and once a statement has run DatabaseConfig.PREPARE_THRESHOLD times it stays prepared
+ * on the server, so a reused statement skips parsing and planning. Pooled connections are
+ * tracked by the driver connection behind the pool proxy, so reuse is counted across borrows.
+ */
+class StatementCache {
+
+    /**
+     * Prepares a statement on a connection.
+     *
+     * @param connection The connection to prepare the statement on.
+     * @param sql        The SQL of the statement; use constant SQL so the driver can reuse it.
+     * @param metrics    The metrics that count the statement as prepared or reused.
+     * @return The prepared statement; the caller closes it.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    PreparedStatement prepare(Connection connection, String sql, DaoMetrics metrics) throws SQLException {
+        metrics.recordStatementPrepare(register(connection, sql));
+        return withQueryTimeout(connection.prepareStatement(sql));
+    }
+
+    /**
+     * Prepares a statement that returns the given generated columns.
+     *
+     * @param connection       The connection to prepare the statement on.
+     * @param sql              The SQL of the statement.
+     * @param generatedColumns The columns returned by getGeneratedKeys().
+     * @param metrics          The metrics that count the statement as prepared or reused.
+     * @return The prepared statement; the caller closes it.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    PreparedStatement prepare(Connection connection, String sql, String[] generatedColumns, DaoMetrics metrics)
+            throws SQLException {
+        metrics.recordStatementPrepare(register(connection, sql));
+        return withQueryTimeout(connection.prepareStatement(sql, generatedColumns));
+    }
+
+    // Statements get the query timeout of the DaoExecutor operation they are prepared for.
+    private static PreparedStatement withQueryTimeout(PreparedStatement preparedStatement) throws SQLException {
+        try {
+            DaoExecutor.applyQueryTimeout(preparedStatement);
+            return preparedStatement;
+        } catch (SQLException e) {
+            preparedStatement.close();
+            throw e;
+        }
+    }
+
+    private boolean register(Connection connection, String sql) throws SQLException {
+        Object physicalConnection = connection.isWrapperFor(PGConnection.class)
+                ? connection.unwrap(PGConnection.class)
+                : connection;
+        synchronized (statements) {
+            return !statements.computeIfAbsent(physicalConnection, key -> new HashSet<>()).add(sql);
+        }
+    }
+
+    // Weak keys let closed physical connections drop out together with their statements.
+    private final Map<Object, Set<String>> statements = new WeakHashMap<>();
+}
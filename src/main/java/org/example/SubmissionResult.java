@@ -0,0 +1,26 @@
+package org.example;
+/**
+ * The SubmissionResult enum tells a player what happened to a submitted answer.
+ */
+public enum SubmissionResult {
+    /**
+     * The answer was correct and has been scored.
+     */
+    CORRECT,
+    /**
+     * The answer was wrong and has been scored.
+     */
+    WRONG,
+    /**
+     * The response does not exist or belongs to another question; nothing was recorded.
+     */
+    INVALID,
+    /**
+     * The pipeline is saturated; nothing was recorded and the player should retry later.
+     */
+    REJECTED,
+    /**
+     * The player has already answered this question; nothing was recorded.
+     */
+    DUPLICATE
+}
@@ -0,0 +1,383 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+/**
+ * The TopicBank class is an immutable, compact store of the questions of one topic.
+ * Questions are addressed by an index and kept in parallel primitive arrays ordered by
+ * question id; the responses of question i are the entries from responseStart[i] up to
+ * responseStart[i + 1] of the response arrays. Strings are interned so repeated texts
+ * such as "True" and "False" are stored once.
+ */
+public class TopicBank {
+
+    private TopicBank(Builder builder) {
+        int size = builder.questionCount;
+        this.topic = builder.topic;
+        this.questionIds = Arrays.copyOf(builder.questionIds, size);
+        this.quizIds = Arrays.copyOf(builder.quizIds, size);
+        this.difficulties = Arrays.copyOf(builder.difficulties, size);
+        this.contents = Arrays.copyOf(builder.contents, size);
+        this.responseStart = Arrays.copyOf(builder.responseStart, size + 1);
+        this.responseStart[size] = builder.responseCount;
+        this.responseIds = Arrays.copyOf(builder.responseIds, builder.responseCount);
+        this.responseTexts = Arrays.copyOf(builder.responseTexts, builder.responseCount);
+        this.correct = (BitSet) builder.correct.clone();
+
+        this.allIndexes = new int[size];
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            allIndexes[i] = i;
+            counts.merge(difficulties[i], 1, Integer::sum);
+        }
+        Map<Integer, int[]> indexes = new HashMap<>();
+        counts.forEach((difficulty, count) -> indexes.put(difficulty, new int[count]));
+        Map<Integer, Integer> filled = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int position = filled.merge(difficulties[i], 1, Integer::sum) - 1;
+            indexes.get(difficulties[i])[position] = i;
+        }
+        this.indexesByDifficulty = indexes;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public int questionId(int index) {
+        return questionIds[index];
+    }
+
+    public int quizId(int index) {
+        return quizIds[index];
+    }
+
+    public int difficulty(int index) {
+        return difficulties[index];
+    }
+
+    public String content(int index) {
+        return contents[index];
+    }
+
+    public int responseCount(int index) {
+        return responseStart[index + 1] - responseStart[index];
+    }
+
+    public int responseId(int index, int response) {
+        return responseIds[responseStart[index] + response];
+    }
+
+    public String responseText(int index, int response) {
+        return responseTexts[responseStart[index] + response];
+    }
+
+    public boolean isCorrect(int index, int response) {
+        return correct.get(responseStart[index] + response);
+    }
+
+    /**
+     * Finds the index of a question.
+     *
+     * @param questionId The ID of the question.
+     * @return The index of the question, or a negative value if it is not in this topic.
+     */
+    public int indexOf(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId);
+    }
+
+    /**
+     * Builds a Question object for one question. Unlike the accessors, this allocates.
+     *
+     * @param index The index of the question.
+     * @return A new Question with its responses.
+     */
+    public Question question(int index) {
+        Question question = new Question();
+        question.setId(questionIds[index]);
+        question.setContent(contents[index]);
+        question.setQuizId(quizIds[index]);
+        for (int i = responseStart[index]; i < responseStart[index + 1]; i++) {
+            Response response = new Response(responseTexts[i], correct.get(i));
+            response.setId(responseIds[i]);
+            question.addResponse(response);
+        }
+        return question;
+    }
+
+    /**
+     * Returns a copy of this bank with questions added, or replaced where the bank already
+     * holds a question with the same id. This bank is left unchanged.
+     *
+     * @param questions  The questions with their ids, quiz ids, contents and responses.
+     * @param difficulty The difficulty of the quiz the questions belong to.
+     * @return A new bank with the questions.
+     */
+    public TopicBank withQuestions(Collection<Question> questions, int difficulty) {
+        List<Question> added = new ArrayList<>(questions);
+        added.sort(Comparator.comparingInt(Question::getId));
+        Builder builder = new Builder(topic);
+        int next = 0;
+        for (int i = 0; i < questionIds.length; i++) {
+            while (next < added.size() && added.get(next).getId() < questionIds[i]) {
+                addQuestion(builder, added.get(next++), difficulty);
+            }
+            // A replaced question is skipped here and added from the list on the next step.
+            if (next == added.size() || added.get(next).getId() != questionIds[i]) {
+                copyQuestion(i, builder);
+            }
+        }
+        while (next < added.size()) {
+            addQuestion(builder, added.get(next++), difficulty);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a copy of this bank without some questions. This bank is left unchanged.
+     *
+     * @param removedIds The IDs of the questions to leave out; IDs not in this bank are ignored.
+     * @return A new bank without the questions, which may be empty.
+     */
+    public TopicBank withoutQuestions(int[] removedIds) {
+        int[] sorted = removedIds.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder(topic);
+        for (int i = 0; i < questionIds.length; i++) {
+            if (Arrays.binarySearch(sorted, questionIds[i]) < 0) {
+                copyQuestion(i, builder);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addQuestion(Builder builder, Question question, int difficulty) {
+        builder.addQuestion(question.getId(), question.getQuizId(), difficulty, question.getContent());
+        for (Response response : question.getResponses()) {
+            builder.addResponse(response.getId(), response.getText(), response.isCorrect());
+        }
+    }
+
+    private void copyQuestion(int index, Builder builder) {
+        builder.addQuestion(questionIds[index], quizIds[index], difficulties[index], contents[index]);
+        for (int i = responseStart[index]; i < responseStart[index + 1]; i++) {
+            builder.addResponse(responseIds[i], responseTexts[i], correct.get(i));
+        }
+    }
+
+    /**
+     * Draws distinct random questions without allocating.
+     *
+     * @param difficulty The quiz difficulty to draw from, or ANY_DIFFICULTY.
+     * @param count      The number of questions wanted.
+     * @param out        Receives the indexes of the drawn questions.
+     * @param random     The random generator to use, typically ThreadLocalRandom.current().
+     * @return The number of questions drawn: the smallest of count, out.length and
+     * the number of questions available.
+     */
+    public int draw(int difficulty, int count, int[] out, RandomGenerator random) {
+        int[] pool = difficulty == ANY_DIFFICULTY ? allIndexes : indexesByDifficulty.get(difficulty);
+        if (pool == null) {
+            return 0;
+        }
+        int n = Math.min(Math.min(count, out.length), pool.length);
+        if (n * 2 <= pool.length) {
+            // Sparse draw: rejection sampling needs few retries while at most half the pool is taken.
+            for (int i = 0; i < n; i++) {
+                int candidate;
+                do {
+                    candidate = pool[random.nextInt(pool.length)];
+                } while (contains(out, i, candidate));
+                out[i] = candidate;
+            }
+        } else {
+            // Dense draw: selection sampling picks each element with the right probability in one pass.
+            int chosen = 0;
+            for (int i = 0; i < pool.length && chosen < n; i++) {
+                if (random.nextInt(pool.length - i) < n - chosen) {
+                    out[chosen++] = pool[i];
+                }
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = out[i];
+                out[i] = out[j];
+                out[j] = swap;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Draws distinct random questions, skipping excluded ones, for example questions
+     * a player has already seen.
+     *
+     * @param difficulty The quiz difficulty to draw from, or ANY_DIFFICULTY.
+     * @param count      The number of questions wanted.
+     * @param out        Receives the indexes of the drawn questions.
+     * @param random     The random generator to use.
+     * @param excluded   Tells whether the question at an index must not be drawn.
+     * @return The number of questions drawn: the smallest of count, out.length and
+     * the number of questions available that are not excluded.
+     */
+    public int draw(int difficulty, int count, int[] out, RandomGenerator random, IntPredicate excluded) {
+        int[] pool = difficulty == ANY_DIFFICULTY ? allIndexes : indexesByDifficulty.get(difficulty);
+        if (pool == null) {
+            return 0;
+        }
+        int n = Math.min(Math.min(count, out.length), pool.length);
+        int drawn = 0;
+        // Rejection sampling is cheap while few questions are excluded; give up on it after a few misses per slot.
+        for (int attempts = 8 * n; drawn < n && attempts > 0; attempts--) {
+            int candidate = pool[random.nextInt(pool.length)];
+            if (!contains(out, drawn, candidate) && !excluded.test(candidate)) {
+                out[drawn++] = candidate;
+            }
+        }
+        if (drawn < n) {
+            // Most of the pool is excluded: selection sampling over the remaining eligible questions.
+            int eligible = 0;
+            for (int candidate : pool) {
+                if (!contains(out, drawn, candidate) && !excluded.test(candidate)) {
+                    eligible++;
+                }
+            }
+            int wanted = Math.min(n - drawn, eligible);
+            int alreadyDrawn = drawn;
+            for (int i = 0; i < pool.length && wanted > 0; i++) {
+                int candidate = pool[i];
+                if (contains(out, alreadyDrawn, candidate) || excluded.test(candidate)) {
+                    continue;
+                }
+                if (random.nextInt(eligible) < wanted) {
+                    out[drawn++] = candidate;
+                    wanted--;
+                }
+                eligible--;
+            }
+            for (int i = drawn - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = out[i];
+                out[i] = out[j];
+                out[j] = swap;
+            }
+        }
+        return drawn;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passed to draw to ignore the difficulty.
+     */
+    public static final int ANY_DIFFICULTY = Integer.MIN_VALUE;
+
+    private final String topic;
+    private final int[] questionIds;
+    private final int[] quizIds;
+    private final int[] difficulties;
+    private final String[] contents;
+    private final int[] responseStart;
+    private final int[] responseIds;
+    private final String[] responseTexts;
+    private final BitSet correct;
+    private final int[] allIndexes;
+    private final Map<Integer, int[]> indexesByDifficulty;
+
+    /**
+     * The Builder class collects the questions of a topic in ascending id order.
+     */
+    public static class Builder {
+        public Builder(String topic) {
+            this.topic = topic.intern();
+        }
+
+        /**
+         * Starts a new question; following addResponse calls belong to it.
+         *
+         * @throws IllegalArgumentException If the id is not larger than the previous one.
+         */
+        public Builder addQuestion(int questionId, int quizId, int difficulty, String content) {
+            if (questionCount > 0 && questionId <= questionIds[questionCount - 1]) {
+                throw new IllegalArgumentException("Questions must be added in ascending id order: " + questionId);
+            }
+            if (questionCount == questionIds.length) {
+                int capacity = Math.max(16, questionCount * 2);
+                questionIds = Arrays.copyOf(questionIds, capacity);
+                quizIds = Arrays.copyOf(quizIds, capacity);
+                difficulties = Arrays.copyOf(difficulties, capacity);
+                contents = Arrays.copyOf(contents, capacity);
+                responseStart = Arrays.copyOf(responseStart, capacity + 1);
+            }
+            questionIds[questionCount] = questionId;
+            quizIds[questionCount] = quizId;
+            difficulties[questionCount] = difficulty;
+            contents[questionCount] = content == null ? null : content.intern();
+            responseStart[questionCount] = responseCount;
+            questionCount++;
+            return this;
+        }
+
+        /**
+         * Adds a response to the question added last.
+         */
+        public Builder addResponse(int responseId, String text, boolean correct) {
+            if (questionCount == 0) {
+                throw new IllegalStateException("addQuestion must be called before addResponse");
+            }
+            if (responseCount == responseIds.length) {
+                int capacity = Math.max(64, responseCount * 2);
+                responseIds = Arrays.copyOf(responseIds, capacity);
+                responseTexts = Arrays.copyOf(responseTexts, capacity);
+            }
+            responseIds[responseCount] = responseId;
+            responseTexts[responseCount] = text == null ? null : text.intern();
+            this.correct.set(responseCount, correct);
+            responseCount++;
+            return this;
+        }
+
+        public int size() {
+            return questionCount;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public TopicBank build() {
+            return new TopicBank(this);
+        }
+
+        private final String topic;
+        private int questionCount;
+        private int responseCount;
+        private int[] questionIds = new int[0];
+        private int[] quizIds = new int[0];
+        private int[] difficulties = new int[0];
+        private String[] contents = new String[0];
+        private int[] responseStart = new int[1];
+        private int[] responseIds = new int[0];
+        private String[] responseTexts = new String[0];
+        private final BitSet correct = new BitSet();
+    }
+}
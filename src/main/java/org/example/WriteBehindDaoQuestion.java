@@ -0,0 +1,355 @@
+package org.example;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * The WriteBehindDaoQuestion class is a DaoQuestion that holds question updates in memory
+ * and writes them to the database in batches. Updates of the same question are merged,
+ * the last one winning, so an editor that autosaves several times a second costs one
+ * write per flush instead of one per save. The buffer is flushed on a background thread
+ * once it holds maxPending questions or every flushIntervalMs, and when the DAO is closed.
+ * searchQuestionByTopic sees buffered updates; the other searches read committed data only.
+ */
+public class WriteBehindDaoQuestion extends DaoQuestion implements AutoCloseable {
+
+    /**
+     * Constructs and starts a WriteBehindDaoQuestion.
+     *
+     * @param dataSource      The data source to use for database connections.
+     * @param maxPending      The number of buffered questions that triggers a flush.
+     * @param flushIntervalMs The maximum time an update stays buffered while the database is reachable.
+     */
+    public WriteBehindDaoQuestion(DataSource dataSource, int maxPending, long flushIntervalMs) {
+        super(dataSource);
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        if (flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("flushIntervalMs must be positive: " + flushIntervalMs);
+        }
+        this.maxPending = maxPending;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "question-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Buffers an update of a question. A copy of the question is buffered, so the caller
+     * may keep editing its object. Responses added by the update get their ids once it is
+     * flushed, on the buffered copy and on the caller's response objects, so the next
+     * update of the same object keeps them instead of inserting them again. Errors in
+     * writing the update are reported when the buffer is flushed, not here. The first
+     * update of a question in a quiz not seen before reads the topic of that quiz, so
+     * searches can place the buffered question; the topic is then remembered.
+     *
+     * @param question The question object with updated information.
+     * @throws DaoException If the topic of the quiz cannot be read; nothing is buffered in that case.
+     */
+    @Override
+    public void updateQuestion(Question question) {
+        String topic = topicOf(question.getQuizId());
+        PendingWrite previous;
+        synchronized (responseIdLock) {
+            Question copy = QuestionCache.copyOf(List.of(question)).get(0);
+            Map<Response, Response> addedResponses = new IdentityHashMap<>();
+            for (int i = 0; i < copy.getResponses().size(); i++) {
+                Response response = question.getResponses().get(i);
+                if (response.getId() == 0) {
+                    addedResponses.put(response, copy.getResponses().get(i));
+                }
+            }
+            previous = pending.put(copy.getId(), new PendingWrite(copy, topic, addedResponses));
+        }
+        if (previous != null) {
+            getMetrics().recordCollapsedWrite();
+        }
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * Writes every buffered update to the database in one transaction. If the batch
+     * violates a constraint, the updates are retried one by one and the ones that still
+     * fail are dropped; after any other error the updates stay buffered for the next flush.
+     *
+     * @throws DaoException If the database could not be reached or the batch failed for another reason.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<PendingWrite> batch = new ArrayList<>(pending.size());
+            for (Map.Entry<Integer, PendingWrite> entry : pending.entrySet()) {
+                PendingWrite write = entry.getValue();
+                // Readers look in pending before flushing, so publish first and remove second.
+                flushing.put(entry.getKey(), write);
+                if (pending.remove(entry.getKey(), write)) {
+                    batch.add(write);
+                } else {
+                    flushing.remove(entry.getKey(), write);
+                }
+            }
+            // A fixed lock order keeps concurrent writers of the same questions from deadlocking.
+            batch.sort(Comparator.comparingInt(write -> write.question().getId()));
+            try {
+                List<Question> questions = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                    questions.add(write.question());
+                }
+                super.updateQuestions(questions);
+                for (PendingWrite write : batch) {
+                    assignResponseIds(write);
+                }
+            } catch (DaoException e) {
+                if (!isConstraintViolation(e)) {
+                    for (PendingWrite write : batch) {
+                        pending.putIfAbsent(write.question().getId(), write);
+                    }
+                    throw e;
+                }
+                writeOneByOne(batch);
+            } finally {
+                for (PendingWrite write : batch) {
+                    flushing.remove(write.question().getId(), write);
+                }
+                flushes.incrementAndGet();
+                getMetrics().recordOperation(DaoOperation.FLUSH_QUESTION_UPDATES, start);
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flushes and writes the remaining buffered updates.
+     *
+     * @throws DaoException If the remaining updates could not be written.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Retrieves the questions of a topic with buffered updates applied, including
+     * questions a buffered update moves into or out of the topic.
+     *
+     * @param topic     The topic to search for.
+     * @param fetchMode The strategy used to load the responses of each question.
+     * @return A list of questions matching the topic.
+     * @throws DaoException If a database error occurs, or the circuit breaker is open.
+     */
+    @Override
+    public List<Question> searchQuestionByTopic(String topic, FetchMode fetchMode) {
+        // Buffered updates are taken before the query: one that is gone by then has been committed.
+        Map<Integer, PendingWrite> buffered = new HashMap<>(pending);
+        flushing.forEach(buffered::putIfAbsent);
+        List<Question> questions = super.searchQuestionByTopic(topic, fetchMode);
+        if (buffered.isEmpty()) {
+            return questions;
+        }
+        List<Question> merged = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            PendingWrite write = buffered.remove(question.getId());
+            if (write == null) {
+                merged.add(question);
+            } else if (topic.equals(write.topic())) {
+                merged.add(write.question());
+            }
+        }
+        for (PendingWrite write : buffered.values()) {
+            if (topic.equals(write.topic())) {
+                merged.add(write.question());
+            }
+        }
+        merged.sort(Comparator.comparingInt(Question::getId));
+        // Copies keep callers from editing the buffered questions.
+        return QuestionCache.copyOf(merged);
+    }
+
+    /**
+     * Deletes a question and discards its buffered update.
+     *
+     * @param questionId The ID of the question to be deleted.
+     * @throws DaoException If a database error occurs; nothing is deleted in that case.
+     */
+    @Override
+    public void deleteQuestion(int questionId) {
+        synchronized (flushLock) {
+            pending.remove(questionId);
+            super.deleteQuestion(questionId);
+        }
+    }
+
+    /**
+     * Deletes several questions and discards their buffered updates.
+     *
+     * @param questionIds The IDs of the questions to be deleted.
+     * @return The questions and responses that were deleted.
+     */
+    @Override
+    public BulkWriteResult deleteQuestions(int[] questionIds) {
+        synchronized (flushLock) {
+            for (int questionId : questionIds) {
+                pending.remove(questionId);
+            }
+            return super.deleteQuestions(questionIds);
+        }
+    }
+
+    /**
+     * Deletes a quiz and discards the buffered updates of its questions.
+     *
+     * @param quizId The ID of the quiz to be deleted.
+     * @return The quiz, questions and responses that were deleted.
+     */
+    @Override
+    public BulkWriteResult deleteQuiz(int quizId) {
+        synchronized (flushLock) {
+            pending.values().removeIf(write -> write.question().getQuizId() == quizId);
+            topics.remove(quizId);
+            return super.deleteQuiz(quizId);
+        }
+    }
+
+    /**
+     * Writes the buffered updates and then moves several questions to another quiz,
+     * so an older buffered update cannot move them back.
+     *
+     * @param questionIds  The IDs of the questions to be moved.
+     * @param targetQuizId The ID of the quiz the questions are moved to.
+     * @return The questions that were moved and the number of responses that moved with them.
+     */
+    @Override
+    public BulkWriteResult moveQuestions(int[] questionIds, int targetQuizId) {
+        synchronized (flushLock) {
+            flush();
+            return super.moveQuestions(questionIds, targetQuizId);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DaoException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeOneByOne(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            try {
+                super.updateQuestion(write.question());
+                assignResponseIds(write);
+            } catch (DaoException e) {
+                if (isConstraintViolation(e)) {
+                    dropped.incrementAndGet();
+                    e.printStackTrace();
+                } else {
+                    pending.putIfAbsent(write.question().getId(), write);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the ids of the responses a written update inserted to the caller's response
+     * objects, and to a newer buffered update of the same objects, so neither inserts them again.
+     *
+     * @param written The update that was written.
+     */
+    private void assignResponseIds(PendingWrite written) {
+        if (written.addedResponses().isEmpty()) {
+            return;
+        }
+        synchronized (responseIdLock) {
+            PendingWrite newer = pending.get(written.question().getId());
+            for (Map.Entry<Response, Response> entry : written.addedResponses().entrySet()) {
+                int responseId = entry.getValue().getId();
+                if (entry.getKey().getId() == 0) {
+                    entry.getKey().setId(responseId);
+                }
+                // A newer update copied the caller's response while this one was being written.
+                Response newerCopy = newer == null ? null : newer.addedResponses().remove(entry.getKey());
+                if (newerCopy != null && newerCopy.getId() == 0) {
+                    newerCopy.setId(responseId);
+                }
+            }
+        }
+    }
+
+    private String topicOf(int quizId) {
+        String topic = topics.get(quizId);
+        if (topic == null) {
+            topic = findTopicByQuizId(quizId);
+            if (topic != null) {
+                topics.put(quizId, topic);
+            }
+        }
+        return topic;
+    }
+
+    private static boolean isConstraintViolation(DaoException e) {
+        // SQLState class 23 is an integrity constraint violation, which a retry cannot fix.
+        return e.getSqlState() != null && e.getSqlState().startsWith("23");
+    }
+
+    /**
+     * A buffered update.
+     *
+     * @param question         The buffered copy of the question.
+     * @param topic            The topic of the quiz the question belongs to after the update.
+     * @param addedResponses   The caller's responses without an id, mapped to their buffered copies.
+     */
+    private record PendingWrite(Question question, String topic, Map<Response, Response> addedResponses) {
+    }
+
+    private final int maxPending;
+    private final ScheduledExecutorService executor;
+    private final Object flushLock = new Object();
+    // Orders copying a caller's question against handing it the ids of its new responses.
+    private final Object responseIdLock = new Object();
+    private final Map<Integer, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Map<Integer, PendingWrite> flushing = new ConcurrentHashMap<>();
+    private final Map<Integer, String> topics = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+}
@@ -0,0 +1,297 @@
+import org.example.Answer;
+import org.example.AnswerService;
+import org.example.AnswerWriter;
+import org.example.CorrectAnswerIndex;
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Leaderboards;
+import org.example.Question;
+import org.example.QuizEngine;
+import org.example.Response;
+import org.example.SchemaMigrator;
+import org.example.Scoreboard;
+import org.example.SubmissionResult;
+import org.example.TopicBank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The AnswerServiceTest class contains unit tests for the answer submission pipeline.
+ */
+public class AnswerServiceTest {
+
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the migration scripts cannot be read.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException, IOException {
+        dataSource = DatabaseConfig.configureDataSource();
+
+        // The answer table is created by a migration.
+        new SchemaMigrator(dataSource).migrate();
+    }
+
+    /**
+     * Tests that the answer index checks questions whose ids use the full int range.
+     */
+    @Test
+    public void testLargeQuestionIdsChecked() {
+        TopicBank.Builder builder = new TopicBank.Builder("large ids");
+        builder.addQuestion(1 << 30, 1, 1, "Question 2^30");
+        builder.addResponse(1, "Right", true);
+        builder.addResponse(2, "Wrong", false);
+        builder.addQuestion(Integer.MAX_VALUE, 1, 1, "Last question");
+        builder.addResponse(3, "Right", true);
+        CorrectAnswerIndex index = CorrectAnswerIndex.of(List.of(builder.build()));
+
+        assertEquals(CorrectAnswerIndex.CORRECT, index.check(1 << 30, 1));
+        assertEquals(CorrectAnswerIndex.WRONG, index.check(1 << 30, 2));
+        assertEquals(CorrectAnswerIndex.CORRECT, index.check(Integer.MAX_VALUE, 3));
+        assertEquals(CorrectAnswerIndex.INVALID, index.check(0, 1));
+        assertEquals(CorrectAnswerIndex.INVALID, index.check(Integer.MAX_VALUE, 1));
+    }
+
+    /**
+     * Tests scoring, rejection of foreign responses and asynchronous persistence.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testSubmitScoresAndPersists() throws SQLException {
+        // Create and save two questions with one correct and one wrong response each.
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        Question question1 = new Question();
+        question1.setContent("Question 1");
+        question1.setQuizId(1);
+        Response right = new Response("Right", true);
+        Response wrong = new Response("Wrong", false);
+        question1.addResponse(right);
+        question1.addResponse(wrong);
+        daoQuestion.saveQuestion(question1);
+        Question question2 = new Question();
+        question2.setContent("Question 2");
+        question2.setQuizId(1);
+        Response other = new Response("Other", true);
+        question2.addResponse(other);
+        daoQuestion.saveQuestion(question2);
+
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.load();
+        Scoreboard scoreboard = new Scoreboard();
+        Leaderboards leaderboards = new Leaderboards(quizEngine);
+        try (AnswerWriter answerWriter = new AnswerWriter(dataSource, 100, 10, 10)) {
+            AnswerService answerService = new AnswerService(CorrectAnswerIndex.of(quizEngine), scoreboard, answerWriter, 100,
+                    leaderboards);
+
+            assertEquals(SubmissionResult.CORRECT, answerService.submit("alice", question1.getId(), right.getId()));
+            // A second answer to the same question is not accepted.
+            assertEquals(SubmissionResult.DUPLICATE, answerService.submit("alice", question1.getId(), wrong.getId()));
+            assertEquals(SubmissionResult.WRONG, answerService.submit("bob", question1.getId(), wrong.getId()));
+            assertEquals(SubmissionResult.CORRECT, answerService.submit("bob", question2.getId(), other.getId()));
+            // A response of another question is not accepted.
+            assertEquals(SubmissionResult.INVALID, answerService.submit("bob", question1.getId(), other.getId()));
+        }
+
+        // Assert the running scores.
+        assertEquals(1, scoreboard.getScore("alice"));
+        assertEquals(1, scoreboard.getAnswered("alice"));
+        assertEquals(1, scoreboard.getScore("bob"));
+        assertEquals(2, scoreboard.getAnswered("bob"));
+
+        // Both players reached the board of quiz 1 with equal scores.
+        assertEquals(2, leaderboards.quiz(1).size());
+        assertEquals(1, leaderboards.quiz(1).rank("alice"));
+        assertEquals(1, leaderboards.quiz(1).rank("bob"));
+
+        // Closing the writer flushed every accepted answer to the database.
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT count(*), count(*) FILTER (WHERE correct) FROM answer WHERE question_id IN (?, ?)");
+            statement.setInt(1, question1.getId());
+            statement.setInt(2, question2.getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt(1));
+            assertEquals(2, resultSet.getInt(2));
+        }
+    }
+
+    /**
+     * Tests that a batch that fails to write is retried instead of dropped.
+     * @throws Exception If a database error occurs or the test is interrupted.
+     */
+    @Test
+    public void testFailedBatchRetried() throws Exception {
+        Question question = new Question();
+        question.setContent("Retried Question");
+        question.setQuizId(1);
+        Response response = new Response("Response 1", true);
+        question.addResponse(response);
+        new DaoQuestion(dataSource).saveQuestion(question);
+
+        // The first two connections fail, as during a database restart.
+        AtomicInteger connectionAttempts = new AtomicInteger();
+        DataSource flakyDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection") && connectionAttempts.incrementAndGet() <= 2) {
+                        throw new SQLException("Connection refused", "08001");
+                    }
+                    try {
+                        return method.invoke(dataSource, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        AnswerWriter answerWriter = new AnswerWriter(flakyDataSource, 10, 10, 10);
+        for (int i = 0; i < 3; i++) {
+            Answer answer = new Answer("carol", question.getId(), response.getId(), true, System.currentTimeMillis());
+            assertTrue(answerWriter.enqueue(answer, 100, TimeUnit.MILLISECONDS));
+        }
+        answerWriter.close();
+
+        assertEquals(3, answerWriter.getWrittenCount());
+        assertEquals(2, answerWriter.getRetryCount());
+        assertEquals(0, answerWriter.getFailedCount());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM answer WHERE question_id = ?")) {
+            statement.setInt(1, question.getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt(1));
+        }
+    }
+
+    /**
+     * Tests that an answer the database refuses is dropped without holding up the answers
+     * written with it or after it.
+     * @throws Exception If a database error occurs or the test is interrupted.
+     */
+    @Test
+    public void testRefusedAnswerDoesNotBlockWriter() throws Exception {
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        Question deleted = new Question();
+        deleted.setContent("Deleted Question");
+        deleted.setQuizId(1);
+        Response deletedResponse = new Response("Response 1", true);
+        deleted.addResponse(deletedResponse);
+        daoQuestion.saveQuestion(deleted);
+        Question kept = new Question();
+        kept.setContent("Kept Question");
+        kept.setQuizId(1);
+        Response keptResponse = new Response("Response 1", true);
+        kept.addResponse(keptResponse);
+        daoQuestion.saveQuestion(kept);
+        // Deleted after it was indexed, so its answer breaks the foreign key.
+        daoQuestion.deleteQuestion(deleted.getId());
+
+        AnswerWriter answerWriter = new AnswerWriter(dataSource, 10, 10, 100);
+        assertTrue(answerWriter.enqueue(new Answer("dave", kept.getId(), keptResponse.getId(), true,
+                System.currentTimeMillis()), 100, TimeUnit.MILLISECONDS));
+        assertTrue(answerWriter.enqueue(new Answer("dave", deleted.getId(), deletedResponse.getId(), true,
+                System.currentTimeMillis()), 100, TimeUnit.MILLISECONDS));
+        assertTrue(answerWriter.enqueue(new Answer("erin", kept.getId(), keptResponse.getId(), true,
+                System.currentTimeMillis()), 100, TimeUnit.MILLISECONDS));
+        // Answers submitted after the refused one are still written.
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (answerWriter.getWrittenCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(answerWriter.enqueue(new Answer("frank", kept.getId(), keptResponse.getId(), true,
+                System.currentTimeMillis()), 100, TimeUnit.MILLISECONDS));
+        answerWriter.close();
+
+        assertEquals(3, answerWriter.getWrittenCount());
+        assertEquals(1, answerWriter.getFailedCount());
+        assertEquals(0, answerWriter.getRetryCount());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM answer WHERE question_id = ?")) {
+            statement.setInt(1, kept.getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt(1));
+        }
+    }
+
+    /**
+     * Tests that every answer accepted while the writer is being closed is still written.
+     * @throws Exception If a database error occurs or the test is interrupted.
+     */
+    @Test
+    public void testAnswersAcceptedDuringCloseWritten() throws Exception {
+        Question question = new Question();
+        question.setContent("Closing Question");
+        question.setQuizId(1);
+        Response response = new Response("Response 1", true);
+        question.addResponse(response);
+        new DaoQuestion(dataSource).saveQuestion(question);
+
+        AnswerWriter answerWriter = new AnswerWriter(dataSource, 1000, 100, 10);
+        AtomicInteger accepted = new AtomicInteger();
+        Thread[] submitters = new Thread[4];
+        for (int i = 0; i < submitters.length; i++) {
+            String player = "player" + i;
+            submitters[i] = new Thread(() -> {
+                try {
+                    while (answerWriter.enqueue(new Answer(player, question.getId(), response.getId(), true,
+                            System.currentTimeMillis()), 100, TimeUnit.MILLISECONDS)) {
+                        accepted.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            submitters[i].start();
+        }
+        Thread.sleep(100);
+        answerWriter.close();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        assertEquals(accepted.get(), answerWriter.getEnqueuedCount());
+        assertEquals(accepted.get(), answerWriter.getWrittenCount());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM answer WHERE question_id = ?")) {
+            statement.setInt(1, question.getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(accepted.get(), resultSet.getInt(1));
+        }
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            // Deleting the questions cascades to their answers.
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id IN (?, ?)")) {
+                preparedStatement.setInt(1, 1);
+                preparedStatement.setInt(2, 2);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import org.example.AnswerStatistics;
+import org.example.CircuitBreaker;
+import org.example.DaoExecutor;
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.Response;
+import org.example.SchemaMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The AnswerStatisticsTest class contains unit tests for the AnswerStatistics class.
+ */
+public class AnswerStatisticsTest {
+
+    private PGSimpleDataSource dataSource;
+    private DaoQuestion daoQuestion;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the migration scripts cannot be read.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException, IOException {
+        dataSource = DatabaseConfig.configureDataSource();
+        daoQuestion = new DaoQuestion(dataSource);
+
+        // The statistics tables are created by a migration.
+        new SchemaMigrator(dataSource).migrate();
+    }
+
+    private Question savedQuestion(String content) {
+        Question question = new Question();
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Right", true));
+        question.addResponse(new Response("Wrong", false));
+        daoQuestion.saveQuestion(question);
+        return question;
+    }
+
+    private static void answer(AnswerStatistics statistics, Question question, int correct, int wrong) {
+        for (int i = 0; i < correct; i++) {
+            statistics.record(question.getId(), question.getResponses().get(0).getId(), true);
+        }
+        for (int i = 0; i < wrong; i++) {
+            statistics.record(question.getId(), question.getResponses().get(1).getId(), false);
+        }
+    }
+
+    /**
+     * Tests the in-memory counters, that flushes add only what was counted since the
+     * previous flush and that the hardest questions are ranked from the flushed rows.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testFlushAndHardestQuestions() throws SQLException {
+        Question easy = savedQuestion("Easy");
+        Question hard = savedQuestion("Hard");
+        Question rare = savedQuestion("Rarely answered");
+
+        AnswerStatistics statistics = new AnswerStatistics();
+        answer(statistics, easy, 9, 1);
+        answer(statistics, hard, 2, 8);
+        answer(statistics, rare, 0, 2);
+
+        assertEquals(10, statistics.getAnswered(hard.getId()));
+        assertEquals(2, statistics.getCorrect(hard.getId()));
+        assertEquals(0.8, statistics.getPickRate(hard.getResponses().get(1).getId()), 1e-9);
+        // Three questions and five picked responses.
+        assertEquals(8, statistics.flush(dataSource));
+        assertEquals(0, statistics.flush(dataSource));
+
+        answer(statistics, hard, 0, 10);
+        assertEquals(2, statistics.flush(dataSource));
+
+        List<AnswerStatistics.QuestionStatistics> hardest = AnswerStatistics.hardestQuestions(dataSource, "1", 10, 5);
+        assertEquals(2, hardest.size());
+        assertEquals(hard.getId(), hardest.get(0).getQuestionId());
+        assertEquals(20, hardest.get(0).getAnswered());
+        assertEquals(0.1, hardest.get(0).getCorrectRatio(), 1e-9);
+        assertEquals(easy.getId(), hardest.get(1).getQuestionId());
+        assertEquals(1, AnswerStatistics.hardestQuestions(dataSource, "1", 1, 5).size());
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT picks FROM response_stats WHERE response_id = ?")) {
+            statement.setInt(1, hard.getResponses().get(1).getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(18, resultSet.getLong(1));
+        }
+    }
+
+    /**
+     * Tests that counters of a deleted question are skipped instead of failing the flush.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testFlushSkipsDeletedQuestions() throws SQLException {
+        Question kept = savedQuestion("Kept");
+        Question deleted = savedQuestion("Deleted");
+
+        AnswerStatistics statistics = new AnswerStatistics();
+        answer(statistics, kept, 1, 0);
+        answer(statistics, deleted, 1, 0);
+        daoQuestion.deleteQuestion(deleted.getId());
+
+        statistics.flush(dataSource);
+        List<AnswerStatistics.QuestionStatistics> hardest = AnswerStatistics.hardestQuestions(dataSource, "1", 10, 1);
+        assertEquals(1, hardest.size());
+        assertEquals(kept.getId(), hardest.get(0).getQuestionId());
+    }
+
+    /**
+     * Tests that a flush runs through the executor: it fails at once while the circuit is
+     * open, and the counters it could not write are written by the next flush.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testFlushRunsThroughExecutor() throws SQLException {
+        Question question = savedQuestion("Flushed later");
+
+        AnswerStatistics statistics = new AnswerStatistics();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 60_000);
+        statistics.setExecutor(new DaoExecutor(1, 0, 0, circuitBreaker));
+        answer(statistics, question, 1, 2);
+
+        // Nothing listens on port 1, so the first flush opens the circuit.
+        PGSimpleDataSource unreachable = DatabaseConfig.configureDataSource("localhost", 1);
+        assertThrows(SQLException.class, () -> statistics.flush(unreachable));
+        SQLException rejected = assertThrows(SQLException.class, () -> statistics.flush(dataSource));
+        assertTrue(DaoExecutor.isCircuitOpen(rejected));
+
+        statistics.setExecutor(new DaoExecutor());
+        assertEquals(3, statistics.flush(dataSource));
+        List<AnswerStatistics.QuestionStatistics> hardest =
+                AnswerStatistics.hardestQuestions(statistics.getExecutor(), dataSource, "1", 10, 1);
+        assertEquals(1, hardest.size());
+        assertEquals(3, hardest.get(0).getAnswered());
+        assertEquals(1, hardest.get(0).getCorrect());
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "DELETE FROM question WHERE quiz_id = 1")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import org.example.AsyncDaoQuestion;
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The AsyncDaoQuestionTest class contains unit tests for the AsyncDaoQuestion class.
+ */
+public class AsyncDaoQuestionTest {
+
+    private AsyncDaoQuestion asyncDaoQuestion;
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+
+        asyncDaoQuestion = new AsyncDaoQuestion(new DaoQuestion(dataSource), 2);
+    }
+
+    /**
+     * Tests that many concurrent asynchronous searches all complete with the saved question.
+     */
+    @Test
+    public void testConcurrentSearches() {
+        Question question = new Question();
+        question.setContent("Async Question");
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        assertTrue(asyncDaoQuestion.saveQuestionAsync(question).join());
+
+        // More searches than in-flight slots, so most of them have to wait for a slot.
+        List<CompletableFuture<List<Question>>> searches = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            searches.add(asyncDaoQuestion.searchQuestionByTopicAsync("1"));
+        }
+        for (CompletableFuture<List<Question>> search : searches) {
+            List<Question> result = search.join();
+            assertEquals(1, result.size());
+            assertEquals("Async Question", result.get(0).getContent());
+        }
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        asyncDaoQuestion.close();
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id IN (?, ?)")) {
+                preparedStatement.setInt(1, 1);
+                preparedStatement.setInt(2, 2);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.CircuitBreaker;
+import org.example.CircuitOpenException;
+import org.example.DaoException;
+import org.example.DaoExecutor;
+import org.example.DaoOperation;
+import org.example.DaoQuestion;
+import org.example.DaoQuiz;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The DaoExecutorTest class contains unit tests for the timeouts, retries, circuit breaking
+ * and stale results of the DaoExecutor class. The database is reached through a local TCP
+ * proxy that can stop relaying traffic, as a paused server would, or refuse connections,
+ * as a killed one would.
+ */
+public class DaoExecutorTest {
+
+    private PGSimpleDataSource dataSource;
+    private DatabaseProxy proxy;
+
+
+    private static Question question(String content) {
+        Question question = new Question();
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        return question;
+    }
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     * @throws IOException If the proxy cannot be started.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataSource = DatabaseConfig.configureDataSource();
+        proxy = new DatabaseProxy(5432);
+    }
+
+    /**
+     * Tests that a query on a server that stopped answering ends after its timeout instead
+     * of blocking the caller, even though the server cannot cancel the query.
+     */
+    @Test
+    public void testPausedDatabaseTimesOut() {
+        new DaoQuestion(dataSource).saveQuestion(question("Paused"));
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(DatabaseConfig.configureDataSource("localhost", proxy.getPort()));
+        config.setMaximumPoolSize(1);
+        try (HikariDataSource pooledDataSource = new HikariDataSource(config)) {
+            DaoQuestion daoQuestion = new DaoQuestion(pooledDataSource);
+            daoQuestion.setExecutor(new DaoExecutor(1, 10, 50, null));
+            daoQuestion.getExecutor().setQueryTimeout(DaoOperation.SEARCH_QUESTION_BY_TOPIC, 1);
+            assertEquals(1, daoQuestion.searchQuestionByTopic("1").size());
+
+            // The pooled connection is already open, so the query itself is what stalls.
+            proxy.pause();
+            long start = System.nanoTime();
+            DaoException exception = assertThrows(DaoException.class, () -> daoQuestion.searchQuestionByTopic("1"));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // The server never saw the cancel, so the network timeout broke the connection.
+            assertEquals("08006", exception.getSqlState());
+            assertEquals(1, daoQuestion.getMetrics().getErrorCounts().get("08006"));
+            assertTrue(elapsedMs >= 1_000, "returned after " + elapsedMs + " ms");
+            assertTrue(elapsedMs < 1_000 + DaoExecutor.NETWORK_TIMEOUT_GRACE_MS + 2_000,
+                    "returned after " + elapsedMs + " ms");
+        }
+    }
+
+    /**
+     * Tests that failures to connect are retried, then open the circuit so later operations
+     * fail at once, that reads fall back to their stale results or fail fast meanwhile, and that the
+     * circuit closes once a probe reaches the restarted server.
+     * @throws Exception If the proxy cannot be restarted or the wait is interrupted.
+     */
+    @Test
+    public void testKilledDatabaseOpensCircuit() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 500);
+        DaoExecutor executor = new DaoExecutor(3, 10, 50, circuitBreaker);
+        executor.enableStaleResults(100, 60_000);
+        DaoQuestion daoQuestion = new DaoQuestion(DatabaseConfig.configureDataSource("localhost", proxy.getPort()));
+        daoQuestion.setExecutor(executor);
+        daoQuestion.saveQuestion(question("Before the crash"));
+        assertEquals(1, daoQuestion.searchQuestionByTopic("1").size());
+
+        proxy.kill();
+        // Three refused connections: two retries, then the circuit opens and the stale result is returned.
+        List<Question> stale = daoQuestion.searchQuestionByTopic("1");
+        assertEquals(1, stale.size());
+        assertEquals("Before the crash", stale.get(0).getContent());
+        assertEquals(2, executor.getRetryCount());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, executor.getStaleResultCount());
+
+        // The open circuit fails writes at once, and reads without a stale result fail instead of coming back empty.
+        DaoQuiz daoQuiz = new DaoQuiz(DatabaseConfig.configureDataSource("localhost", proxy.getPort()));
+        daoQuiz.setExecutor(executor);
+        long start = System.nanoTime();
+        DaoException exception = assertThrows(DaoException.class,
+                () -> daoQuestion.saveQuestion(question("During the crash")));
+        assertEquals(DaoExecutor.CIRCUIT_OPEN_SQL_STATE, exception.getSqlState());
+        assertInstanceOf(CircuitOpenException.class, exception.getCause());
+        // A real connection exception from the driver is not mistaken for the open circuit.
+        assertFalse(DaoExecutor.isCircuitOpen(new SQLException("Connection failure", "08000")));
+        assertTrue(assertThrows(DaoException.class, () -> daoQuestion.searchQuestionByTopic("2")).isCircuitOpen());
+        assertTrue(assertThrows(DaoException.class, () -> daoQuestion.findTopicByQuizId(2)).isCircuitOpen());
+        assertTrue(assertThrows(DaoException.class, () -> daoQuiz.findQuiz(2)).isCircuitOpen());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 500);
+        assertEquals(4, executor.getRejectedCount());
+        assertEquals(2, executor.getRetryCount());
+
+        proxy.restart();
+        Thread.sleep(600);
+        daoQuestion.saveQuestion(question("After the crash"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(2, daoQuestion.searchQuestionByTopic("1").size());
+        assertEquals(1, circuitBreaker.getOpenCount());
+    }
+
+    /**
+     * Tests that an update blocked by a row lock fails with the server's query timeout and
+     * is not retried.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testLockedRowTimesOut() throws SQLException {
+        Question question = question("Locked");
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        daoQuestion.saveQuestion(question);
+        daoQuestion.getExecutor().setQueryTimeout(DaoOperation.UPDATE_QUESTION, 1);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT id FROM question WHERE id = ? FOR UPDATE")) {
+                preparedStatement.setInt(1, question.getId());
+                preparedStatement.executeQuery().close();
+            }
+            question.setContent("Changed");
+            DaoException exception = assertThrows(DaoException.class, () -> daoQuestion.updateQuestion(question));
+            assertEquals("57014", exception.getSqlState());
+            assertEquals(0, daoQuestion.getExecutor().getRetryCount());
+            connection.rollback();
+        }
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        proxy.kill();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "DELETE FROM question WHERE quiz_id = 1")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Relays connections from a local port to the database.
+     */
+    private static final class DatabaseProxy {
+
+        DatabaseProxy(int targetPort) throws IOException {
+            this.targetPort = targetPort;
+            this.serverSocket = new ServerSocket(0);
+            this.port = serverSocket.getLocalPort();
+            startAccepting();
+        }
+
+        int getPort() {
+            return port;
+        }
+
+        // Keeps connections open but stops relaying, like a server that is stopped or swapped out.
+        void pause() {
+            paused = true;
+        }
+
+        // Closes every connection and refuses new ones, like a server that crashed.
+        void kill() {
+            paused = false;
+            close(serverSocket);
+            for (Socket socket : sockets) {
+                close(socket);
+            }
+            sockets.clear();
+        }
+
+        void restart() throws IOException {
+            paused = false;
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(port));
+            startAccepting();
+        }
+
+        private void startAccepting() {
+            ServerSocket listener = serverSocket;
+            Thread acceptor = new Thread(() -> {
+                while (!listener.isClosed()) {
+                    try {
+                        Socket client = listener.accept();
+                        Socket server = new Socket("localhost", targetPort);
+                        sockets.add(client);
+                        sockets.add(server);
+                        relay(client, server);
+                        relay(server, client);
+                    } catch (IOException e) {
+                        // The listener was closed by kill().
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private void relay(Socket from, Socket to) {
+            Thread relay = new Thread(() -> {
+                byte[] buffer = new byte[8192];
+                try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                        while (paused) {
+                            Thread.sleep(10);
+                        }
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                } catch (IOException | InterruptedException e) {
+                    // One side closed; the other is closed below.
+                } finally {
+                    close(from);
+                    close(to);
+                }
+            });
+            relay.setDaemon(true);
+            relay.start();
+        }
+
+        private static void close(AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // Already closed.
+            }
+        }
+
+        private final int targetPort;
+        private final int port;
+        private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+        private ServerSocket serverSocket;
+        private volatile boolean paused;
+    }
+}
@@ -0,0 +1,77 @@
+import org.example.DaoMetrics;
+import org.example.DaoOperation;
+import org.example.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The DaoMetricsTest class contains unit tests for the DaoMetrics and LatencyHistogram classes.
+ */
+public class DaoMetricsTest {
+
+    /**
+     * Tests that histogram percentiles stay within the bucket precision.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMaxNanos());
+        // Buckets are about 3% wide, so the reported value may be slightly above the exact one.
+        long median = histogram.getValueAtQuantile(0.5);
+        assertTrue(median >= 500_000 && median <= 500_000 * 1.04, "median " + median);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+    }
+
+    /**
+     * Tests the Prometheus text export of operations, counters and errors.
+     * @throws IOException If writing fails.
+     */
+    @Test
+    public void testPrometheusExport() throws IOException {
+        DaoMetrics metrics = new DaoMetrics();
+        metrics.recordOperation(DaoOperation.SAVE_QUESTION, System.nanoTime());
+        metrics.recordStatements(3);
+        metrics.recordRowsWritten(5);
+        metrics.recordStatementPrepare(false);
+        metrics.recordStatementPrepare(true);
+        metrics.recordStatementPrepare(true);
+        metrics.recordError(new SQLException("deadlock", "40P01"));
+
+        StringWriter writer = new StringWriter();
+        metrics.writePrometheus(writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("quiz_dao_operation_seconds_count{operation=\"save_question\"} 1"));
+        assertTrue(text.contains("quiz_dao_statements_total 3"));
+        assertTrue(text.contains("quiz_dao_rows_written_total 5"));
+        assertTrue(text.contains("quiz_dao_statements_prepared_total 1"));
+        assertTrue(text.contains("quiz_dao_statements_reused_total 2"));
+        assertTrue(text.contains("quiz_dao_errors_total{sqlstate=\"40P01\"} 1"));
+    }
+
+    /**
+     * Tests that operation labels do not depend on the default locale.
+     */
+    @Test
+    public void testLabelsIgnoreLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals("find_quiz", DaoOperation.FIND_QUIZ.label());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
@@ -1,16 +1,28 @@
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.BulkWriteResult;
+import org.example.DaoException;
+import org.example.DaoExecutor;
 import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.FetchMode;
 import org.example.Question;
 import org.example.Response;
+import org.example.SchemaMigrator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.postgresql.ds.PGSimpleDataSource;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,6 +97,10 @@ public class DaoQuestionTest {
             assertTrue(responseResultSet.next());
             assertEquals(response2.getText(), responseResultSet.getString("text"));
             assertEquals(response2.isCorrect(), responseResultSet.getBoolean("correct"));
+
+            // Assert that the generated response ids were written back in insertion order.
+            assertTrue(response1.getId() > 0);
+            assertTrue(response2.getId() > response1.getId());
         }
     }
 
@@ -141,6 +157,47 @@ public class DaoQuestionTest {
         }
     }
 
+    /**
+     * Tests that updateQuestion keeps the ids of unchanged responses and deletes removed ones.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testUpdateQuestionDiffsResponses() throws SQLException {
+        // Create and save a question with three responses.
+        Question question = new Question();
+        question.setContent("Sample Question");
+        question.setQuizId(1);
+        Response kept = new Response("Kept", true);
+        Response changed = new Response("Changed", false);
+        Response removed = new Response("Removed", false);
+        question.addResponse(kept);
+        question.addResponse(changed);
+        question.addResponse(removed);
+        daoQuestion.saveQuestion(question);
+        int keptId = kept.getId();
+        int changedId = changed.getId();
+
+        // Change one response, drop one and keep one untouched.
+        changed.setText("Changed again");
+        question.getResponses().remove(removed);
+        daoQuestion.updateQuestion(question);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement responseStatement = connection.prepareStatement("SELECT * FROM response WHERE question_id = ? ORDER BY id");
+            responseStatement.setInt(1, question.getId());
+            ResultSet responseResultSet = responseStatement.executeQuery();
+
+            // Assert that the remaining responses kept their ids and the removed one is gone.
+            assertTrue(responseResultSet.next());
+            assertEquals(keptId, responseResultSet.getInt("id"));
+            assertEquals("Kept", responseResultSet.getString("text"));
+            assertTrue(responseResultSet.next());
+            assertEquals(changedId, responseResultSet.getInt("id"));
+            assertEquals("Changed again", responseResultSet.getString("text"));
+            assertFalse(responseResultSet.next());
+        }
+    }
+
     /**
      * Tests the deleteQuestion method with responses.
      * @throws SQLException If a database error occurs.
@@ -178,6 +235,67 @@ public class DaoQuestionTest {
             // Assert that there are no rows in the result, indicating the responses are deleted.
             assertFalse(responseResultSet.next());
         }
+
+
+        // A delete that cannot reach the database reports it instead of passing silently.
+        DaoQuestion unreachable = new DaoQuestion(DatabaseConfig.configureDataSource("localhost", 1));
+        unreachable.setExecutor(new DaoExecutor(1, 0, 0, null));
+        assertThrows(DaoException.class, () -> unreachable.deleteQuestion(question.getId()));
+    }
+
+    /**
+     * Tests the bulk deleteQuestions, moveQuestions and deleteQuiz methods.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testBulkDeleteAndMove() throws SQLException {
+        // Create a quiz of its own to delete, and four questions with two responses each.
+        int quizId;
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO quiz (topic, difficulty) VALUES ('bulk-test', 1) RETURNING id");
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            quizId = resultSet.getInt(1);
+        }
+        int[] ids = new int[4];
+        for (int i = 0; i < ids.length; i++) {
+            Question question = new Question();
+            question.setContent("Question " + i);
+            question.setQuizId(1);
+            question.addResponse(new Response("Response 1", true));
+            question.addResponse(new Response("Response 2", false));
+            daoQuestion.saveQuestion(question);
+            ids[i] = question.getId();
+        }
+
+        // Delete two questions; the unknown id is ignored and the cascaded responses are counted.
+        BulkWriteResult deleted = daoQuestion.deleteQuestions(new int[]{ids[0], ids[1], -1});
+        assertEquals(2, deleted.getQuestionCount());
+        assertEquals(4, deleted.getResponseCount());
+
+        // Move the other two into the new quiz, then delete the quiz with them.
+        BulkWriteResult moved = daoQuestion.moveQuestions(new int[]{ids[2], ids[3]}, quizId);
+        assertEquals(2, moved.getQuestionCount());
+        assertEquals(4, moved.getResponseCount());
+        assertEquals(2, daoQuestion.searchQuestionByTopic("bulk-test").size());
+        BulkWriteResult deletedQuiz = daoQuestion.deleteQuiz(quizId);
+        assertEquals(1, deletedQuiz.getQuizCount());
+        assertEquals(2, deletedQuiz.getQuestionCount());
+        assertEquals(4, deletedQuiz.getResponseCount());
+        assertEquals(0, daoQuestion.deleteQuiz(quizId).getQuizCount());
+
+        // Verify that no question or response is left behind.
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT (SELECT count(*) FROM question WHERE id = ANY(?)), (SELECT count(*) FROM response WHERE question_id = ANY(?))");
+            statement.setArray(1, connection.createArrayOf("integer", new Integer[]{ids[0], ids[1], ids[2], ids[3]}));
+            statement.setArray(2, connection.createArrayOf("integer", new Integer[]{ids[0], ids[1], ids[2], ids[3]}));
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(0, resultSet.getInt(1));
+            assertEquals(0, resultSet.getInt(2));
+        }
     }
 
     /**
@@ -223,6 +341,155 @@ public class DaoQuestionTest {
         }
     }
 
+    /**
+     * Tests that the joined and per-question fetch modes return the same question graph.
+     */
+    @Test
+    public void testSearchQuestionByTopicFetchModesMatch() {
+        // Create and save a question with two responses and one without responses.
+        Question question1 = new Question();
+        question1.setContent("Question 1");
+        question1.setQuizId(1);
+        question1.addResponse(new Response("Response 1", true));
+        question1.addResponse(new Response("Response 2", false));
+        daoQuestion.saveQuestion(question1);
+
+        Question question2 = new Question();
+        question2.setContent("Question 2");
+        question2.setQuizId(1);
+        daoQuestion.saveQuestion(question2);
+
+        List<Question> joined = daoQuestion.searchQuestionByTopic("1", FetchMode.JOIN);
+        List<Question> perQuestion = daoQuestion.searchQuestionByTopic("1", FetchMode.PER_QUESTION);
+
+        // Assert that both modes return the same questions with the same responses.
+        assertEquals(perQuestion.size(), joined.size());
+        for (Question expected : perQuestion) {
+            Question actual = joined.stream().filter(q -> q.getId() == expected.getId()).findFirst().orElseThrow();
+            assertEquals(expected.getContent(), actual.getContent());
+            assertEquals(expected.getResponses().size(), actual.getResponses().size());
+            for (int i = 0; i < expected.getResponses().size(); i++) {
+                assertEquals(expected.getResponses().get(i).getText(), actual.getResponses().get(i).getText());
+                assertEquals(expected.getResponses().get(i).isCorrect(), actual.getResponses().get(i).isCorrect());
+            }
+        }
+    }
+
+    /**
+     * Tests that statements are prepared once per pooled connection and reused afterwards.
+     */
+    @Test
+    public void testStatementsAreReusedPerConnection() {
+        Question question = new Question();
+        question.setContent("Question 1");
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        daoQuestion.saveQuestion(question);
+
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(dataSource);
+        config.setMaximumPoolSize(1);
+        try (HikariDataSource pooledDataSource = new HikariDataSource(config)) {
+            DaoQuestion pooledDao = new DaoQuestion(pooledDataSource);
+            // The question query and the response query are prepared once for the whole topic.
+            pooledDao.searchQuestionByTopic("1", FetchMode.PER_QUESTION);
+            assertEquals(2, pooledDao.getMetrics().getStatementsPrepared());
+            assertEquals(0, pooledDao.getMetrics().getStatementsReused());
+
+            // The second search borrows the same connection, which still holds both statements.
+            List<Question> questions = pooledDao.searchQuestionByTopic("1", FetchMode.PER_QUESTION);
+            assertEquals(2, pooledDao.getMetrics().getStatementsPrepared());
+            assertEquals(2, pooledDao.getMetrics().getStatementsReused());
+            assertEquals("Response 1", questions.stream().filter(q -> q.getId() == question.getId())
+                    .findFirst().orElseThrow().getResponses().get(0).getText());
+        }
+    }
+
+    /**
+     * Tests keyset pagination and streaming against the list-returning search.
+     */
+    @Test
+    public void testSearchQuestionByTopicPagesAndStream() {
+        // Create and save five questions with two responses each.
+        for (int i = 0; i < 5; i++) {
+            Question question = new Question();
+            question.setContent("Question " + i);
+            question.setQuizId(1);
+            question.addResponse(new Response("Response 1", true));
+            question.addResponse(new Response("Response 2", false));
+            daoQuestion.saveQuestion(question);
+        }
+        List<Question> all = daoQuestion.searchQuestionByTopic("1");
+
+        // Read the topic two questions at a time until a short page ends it.
+        List<Question> paged = new ArrayList<>();
+        List<Question> page = daoQuestion.searchQuestionByTopic("1", 0, 2);
+        while (true) {
+            paged.addAll(page);
+            if (page.size() < 2) {
+                break;
+            }
+            page = daoQuestion.searchQuestionByTopic("1", page.get(page.size() - 1).getId(), 2);
+        }
+
+        List<Question> streamed;
+        try (Stream<Question> stream = daoQuestion.streamQuestionByTopic("1")) {
+            streamed = stream.collect(Collectors.toList());
+        }
+
+        // Assert that all three ways return the same questions in the same order with their responses.
+        assertEquals(5, all.size());
+        for (List<Question> result : List.of(paged, streamed)) {
+            assertEquals(all.size(), result.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(all.get(i).getId(), result.get(i).getId());
+                assertEquals(2, result.get(i).getResponses().size());
+            }
+        }
+    }
+
+    /**
+     * Tests full-text search ranking and paging over question content and response text.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the migration scripts cannot be read.
+     */
+    @Test
+    public void testSearchQuestionsByText() throws SQLException, IOException {
+        // The full-text columns are created by a migration.
+        new SchemaMigrator(dataSource).migrate();
+
+        Question inContent = new Question();
+        inContent.setContent("Which zeppelins crossed the Atlantic?");
+        inContent.setQuizId(1);
+        inContent.addResponse(new Response("Graf Zeppelin", true));
+        daoQuestion.saveQuestion(inContent);
+        Question inResponse = new Question();
+        inResponse.setContent("Name an airship");
+        inResponse.setQuizId(1);
+        inResponse.addResponse(new Response("A zeppelin", true));
+        inResponse.addResponse(new Response("A submarine", false));
+        daoQuestion.saveQuestion(inResponse);
+
+        // Stemming matches "zeppelins"; the content match ranks first.
+        List<Question> found = daoQuestion.searchQuestions("zeppelin", 0, 10);
+        assertEquals(2, found.size());
+        assertEquals(inContent.getId(), found.get(0).getId());
+        assertEquals(inResponse.getId(), found.get(1).getId());
+        assertEquals(2, found.get(1).getResponses().size());
+
+        // The second page holds the lower-ranked question only.
+        List<Question> secondPage = daoQuestion.searchQuestions("zeppelin", 1, 1);
+        assertEquals(1, secondPage.size());
+        assertEquals(inResponse.getId(), secondPage.get(0).getId());
+
+        // Updated text is searchable at once.
+        inResponse.setContent("Name a submarine");
+        inResponse.getResponses().get(0).setText("A U-boat");
+        daoQuestion.updateQuestion(inResponse);
+        assertEquals(1, daoQuestion.searchQuestions("zeppelin", 0, 10).size());
+        assertEquals(inResponse.getId(), daoQuestion.searchQuestions("u-boat", 0, 10).get(0).getId());
+    }
+
     /**
      * Cleans up test data after each test method is executed.
      */
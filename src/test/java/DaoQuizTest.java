@@ -0,0 +1,145 @@
+import org.example.CircuitBreaker;
+import org.example.DaoException;
+import org.example.DaoExecutor;
+import org.example.DaoQuestion;
+import org.example.DaoQuiz;
+import org.example.DatabaseConfig;
+import org.example.LoadMode;
+import org.example.Question;
+import org.example.Quiz;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The DaoQuizTest class contains unit tests for the DaoQuiz class.
+ */
+public class DaoQuizTest {
+
+    private DaoQuiz daoQuiz;
+    private PGSimpleDataSource dataSource;
+    private int firstQuizId;
+    private int secondQuizId;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     * Creates two quizzes of one topic; the second has two questions with responses.
+     * @throws SQLException If a database error occurs.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        dataSource = DatabaseConfig.configureDataSource();
+
+        daoQuiz = new DaoQuiz(dataSource);
+        firstQuizId = insertQuiz(9901);
+        secondQuizId = insertQuiz(9902);
+
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        for (int i = 0; i < 2; i++) {
+            Question question = new Question();
+            question.setContent("Question " + i);
+            question.setQuizId(secondQuizId);
+            question.addResponse(new Response("Right " + i, true));
+            question.addResponse(new Response("Wrong " + i, false));
+            question.addResponse(new Response("Other " + i, false));
+            daoQuestion.saveQuestion(question);
+        }
+    }
+
+    /**
+     * Tests that a quiz is loaded eagerly with its questions and responses in id order.
+     */
+    @Test
+    public void testFindQuizEager() {
+        Quiz quiz = daoQuiz.findQuiz(secondQuizId);
+
+        assertNotNull(quiz);
+        assertEquals("dao-quiz-test", quiz.getTopic());
+        assertEquals(9902, quiz.getDifficulty());
+        assertEquals(2, quiz.getQuestions().size());
+        Question first = quiz.getQuestions().get(0);
+        assertEquals("Question 0", first.getContent());
+        assertEquals(secondQuizId, first.getQuizId());
+        assertEquals(List.of("Right 0", "Wrong 0", "Other 0"), first.getResponses().stream().map(Response::getText).toList());
+        assertTrue(first.getResponses().get(0).isCorrect());
+
+        // A quiz without questions and a missing quiz.
+        assertTrue(daoQuiz.findQuiz(firstQuizId).getQuestions().isEmpty());
+        assertNull(daoQuiz.findQuiz(-1));
+    }
+
+    /**
+     * Tests loading by topic and difficulty, and that lazy responses cost one query for the whole graph.
+     */
+    @Test
+    public void testFindQuizzesLazy() {
+        List<Quiz> quizzes = daoQuiz.findQuizzesByTopic("dao-quiz-test", LoadMode.LAZY);
+        assertEquals(List.of(firstQuizId, secondQuizId), quizzes.stream().map(Quiz::getId).toList());
+        long statements = daoQuiz.getMetrics().getStatementCount();
+
+        List<Question> questions = quizzes.get(1).getQuestions();
+        assertEquals(3, questions.get(1).getResponses().size());
+        assertEquals("Wrong 0", questions.get(0).getResponses().get(1).getText());
+        assertEquals(statements + 1, daoQuiz.getMetrics().getStatementCount());
+
+        assertEquals(1, daoQuiz.findQuizzesByDifficulty(9902).size());
+    }
+
+    /**
+     * Tests that lazy responses are loaded through the executor of the DaoQuiz, so an open
+     * circuit fails them fast and a later access loads them once the circuit closes.
+     * @throws InterruptedException If the wait for the circuit is interrupted.
+     */
+    @Test
+    public void testLazyResponsesUseExecutor() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 200);
+        DaoExecutor executor = new DaoExecutor(1, 0, 0, circuitBreaker);
+        daoQuiz.setExecutor(executor);
+        Question question = daoQuiz.findQuiz(secondQuizId, LoadMode.LAZY).getQuestions().get(0);
+
+        circuitBreaker.recordFailure(new SQLException("Connection refused", "08001"));
+        DaoException exception = assertThrows(DaoException.class, question::getResponses);
+        assertTrue(exception.isCircuitOpen());
+        assertEquals(1, executor.getRejectedCount());
+
+        Thread.sleep(300);
+        assertEquals(3, question.getResponses().size());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            // Deleting the quizzes cascades to their questions and responses.
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM quiz WHERE topic = 'dao-quiz-test'")) {
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private int insertQuiz(int difficulty) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO quiz (topic, difficulty) VALUES ('dao-quiz-test', ?) RETURNING id");
+            statement.setInt(1, difficulty);
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import org.example.DatabaseConfig;
+import org.example.Leaderboard;
+import org.example.Leaderboards;
+import org.example.Quiz;
+import org.example.QuizEngine;
+import org.example.SchemaMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The LeaderboardTest class contains unit tests for the leaderboards.
+ */
+public class LeaderboardTest {
+
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the migration scripts cannot be read.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException, IOException {
+        dataSource = DatabaseConfig.configureDataSource();
+
+        // The snapshot table is created by a migration.
+        new SchemaMigrator(dataSource).migrate();
+    }
+
+    /**
+     * Tests ordering, ties and ranks as scores change.
+     */
+    @Test
+    public void testTopAndRank() {
+        Leaderboard leaderboard = new Leaderboard("test", 100);
+        leaderboard.addScore("alice", 3);
+        leaderboard.addScore("bob", 5);
+        leaderboard.addScore("carol", 3);
+        leaderboard.addScore("dave", 0);
+
+        List<Leaderboard.Entry> top = leaderboard.top(3);
+        assertEquals(List.of("bob", "alice", "carol"), top.stream().map(Leaderboard.Entry::getPlayer).toList());
+        assertEquals(1, leaderboard.rank("bob"));
+        // Equal scores share a rank.
+        assertEquals(2, leaderboard.rank("alice"));
+        assertEquals(2, leaderboard.rank("carol"));
+        assertEquals(4, leaderboard.rank("dave"));
+        assertEquals(0, leaderboard.rank("nobody"));
+
+        // Moving a player updates both the order and the ranks.
+        assertEquals(6, leaderboard.addScore("carol", 3));
+        assertEquals("carol", leaderboard.top(1).get(0).getPlayer());
+        assertEquals(2, leaderboard.rank("bob"));
+        assertEquals(3, leaderboard.rank("alice"));
+        assertEquals(4, leaderboard.size());
+    }
+
+    /**
+     * Tests that ranks stay exact while higher scores make the board grow, and that
+     * scores above the maximum share the top rank.
+     */
+    @Test
+    public void testRankWhileGrowing() {
+        Leaderboard leaderboard = new Leaderboard("growing", 1000);
+        Random random = new Random(7);
+        Map<String, Long> scores = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            String player = "player" + random.nextInt(100);
+            // Scores climb past every doubling of the tree, with some going back down.
+            long score = random.nextInt(2 + i * 2) - 5;
+            leaderboard.setScore(player, score);
+            scores.put(player, score);
+        }
+        for (Map.Entry<String, Long> entry : scores.entrySet()) {
+            long expected = 1 + scores.values().stream().filter(score -> Math.max(0, score) > Math.max(0, entry.getValue())).count();
+            assertEquals(expected, leaderboard.rank(entry.getKey()), entry.getKey());
+        }
+
+        leaderboard.setScore("top1", 5000);
+        leaderboard.setScore("top2", 2000);
+        assertEquals(1, leaderboard.rank("top1"));
+        assertEquals(1, leaderboard.rank("top2"));
+    }
+
+    /**
+     * Tests that quiz and topic boards are written to the database and restored.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testSnapshotAndRestore() throws SQLException {
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        Quiz quiz = new Quiz();
+        quiz.setId(-501);
+        quiz.setTopic("leaderboard-test");
+        quizEngine.load(List.of(quiz));
+
+        Leaderboards leaderboards = new Leaderboards(quizEngine);
+        leaderboards.record("alice", -501, 1);
+        leaderboards.record("alice", -501, 1);
+        leaderboards.record("bob", -501, 0);
+        assertEquals(2, leaderboards.snapshot(dataSource));
+        // Unchanged boards are not written again.
+        assertEquals(0, leaderboards.snapshot(dataSource));
+
+        Leaderboards restored = new Leaderboards(quizEngine);
+        assertEquals(4, restored.restore(dataSource));
+        assertEquals(2, restored.quiz(-501).getScore("alice"));
+        assertEquals(2, restored.topic("leaderboard-test").rank("bob"));
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "DELETE FROM leaderboard_snapshot WHERE board IN ('quiz:-501', 'topic:leaderboard-test')")) {
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
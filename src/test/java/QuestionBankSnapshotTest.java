@@ -0,0 +1,113 @@
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.QuestionBankSnapshot;
+import org.example.QuizEngine;
+import org.example.Response;
+import org.example.TopicBank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuestionBankSnapshotTest class contains unit tests for the QuestionBankSnapshot class.
+ */
+public class QuestionBankSnapshotTest {
+
+    private PGSimpleDataSource dataSource;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+    }
+
+    /**
+     * Tests that an exported snapshot serves the same questions as the database.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the snapshot cannot be written or read.
+     */
+    @Test
+    public void testExportAndOpen() throws SQLException, IOException {
+        // Save a question with non-ASCII text and one without responses.
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        Question question = new Question();
+        question.setContent("Mis on Eesti pealinn? Tallinn v\u00f5i Tartu?");
+        question.setQuizId(1);
+        question.addResponse(new Response("Tallinn", true));
+        question.addResponse(new Response("Tartu", false));
+        daoQuestion.saveQuestion(question);
+        Question empty = new Question();
+        empty.setContent("No responses yet");
+        empty.setQuizId(1);
+        daoQuestion.saveQuestion(empty);
+        String topic = daoQuestion.findTopicByQuizId(1);
+
+        Path file = directory.resolve("bank.snapshot");
+        int exported = QuestionBankSnapshot.export(dataSource, file);
+        QuestionBankSnapshot snapshot = QuestionBankSnapshot.open(file);
+
+        // Assert that the question is found by id and decoded from the mapped file.
+        assertEquals(exported, snapshot.size());
+        int index = snapshot.indexOf(question.getId());
+        assertTrue(index >= 0);
+        assertEquals(question.getContent(), snapshot.content(index));
+        assertEquals(1, snapshot.quizId(index));
+        assertEquals(2, snapshot.responseCount(index));
+        assertEquals("Tartu", snapshot.responseText(index, 1));
+        assertFalse(snapshot.isCorrect(index, 1));
+        assertEquals(question.getResponses().get(0).getId(), snapshot.responseId(index, 0));
+        Question decoded = snapshot.question(index);
+        assertEquals(question.getId(), decoded.getId());
+        assertEquals("Tallinn", decoded.getResponses().get(0).getText());
+        assertEquals(0, snapshot.responseCount(snapshot.indexOf(empty.getId())));
+        assertEquals(-1, snapshot.indexOf(-1));
+
+        // The topic range holds the questions in id order, and the engine loads from it.
+        int start = snapshot.topicStart(topic);
+        assertTrue(start >= 0 && index >= start && index < start + snapshot.topicSize(topic));
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.load(snapshot);
+        TopicBank bank = quizEngine.topic(topic);
+        assertEquals(snapshot.topicSize(topic), bank.size());
+        assertEquals("Tartu", bank.responseText(bank.indexOf(question.getId()), 1));
+        assertEquals(topic, quizEngine.getQuizTopic(1));
+
+        // Anything else is rejected.
+        Path other = directory.resolve("other");
+        Files.write(other, new byte[64]);
+        assertThrows(IOException.class, () -> QuestionBankSnapshot.open(other));
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id IN (?, ?)")) {
+                preparedStatement.setInt(1, 1);
+                preparedStatement.setInt(2, 2);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.QuestionBlock;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuestionBlockTest class contains unit tests for the QuestionBlock class.
+ */
+public class QuestionBlockTest {
+
+    private PGSimpleDataSource dataSource;
+    private DaoQuestion daoQuestion;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    /**
+     * Tests that a built block returns the texts, flags and ids it was given, including
+     * missing and non-ASCII texts, that its views are read-only and that a copied question
+     * is independent of the block.
+     */
+    @Test
+    public void testBuilderAndViews() {
+        QuestionBlock block = new QuestionBlock.Builder()
+                .addQuestion(3, 1, "Kas p\u00e4ike on t\u00e4ht?")
+                .addResponse(30, "True", true)
+                .addResponse(31, "False", false)
+                .addQuestion(7, 2, null)
+                .addQuestion(9, 2, "Is water wet?")
+                .addResponse(90, "True", false)
+                .addResponse(91, null, true)
+                .build();
+
+        assertEquals(3, block.size());
+        assertEquals(1, block.indexOf(7));
+        assertTrue(block.indexOf(8) < 0);
+        assertEquals("Kas p\u00e4ike on t\u00e4ht?", block.content(0));
+        assertNull(block.content(1));
+        assertEquals(0, block.responseCount(1));
+        assertEquals("True", block.responseText(2, 0));
+        assertFalse(block.isCorrect(2, 0));
+        assertNull(block.responseText(2, 1));
+        assertTrue(block.isCorrect(2, 1));
+
+        List<QuestionBlock.QuestionView> questions = block.asList();
+        QuestionBlock.QuestionView question = questions.get(2);
+        assertEquals(9, question.getId());
+        assertEquals(2, question.getQuizId());
+        assertEquals("Is water wet?", question.getContent());
+        QuestionBlock.ResponseView response = question.getResponses().get(1);
+        assertEquals(91, response.getId());
+        assertTrue(response.isCorrect());
+        assertThrows(UnsupportedOperationException.class, () -> question.getResponses().add(response));
+
+        Question copy = block.toQuestion(2);
+        copy.setContent("Changed");
+        copy.getResponses().get(1).setCorrect(false);
+        assertEquals(91, copy.getResponses().get(1).getId());
+        assertEquals("Is water wet?", block.content(2));
+        assertTrue(block.isCorrect(2, 1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new QuestionBlock.Builder().addQuestion(2, 1, "B").addQuestion(1, 1, "A"));
+    }
+
+    /**
+     * Tests that loading a topic into a block gives the same questions as searching it.
+     */
+    @Test
+    public void testLoadQuestionBlock() {
+        for (int i = 0; i < 3; i++) {
+            Question question = new Question();
+            question.setContent("Block question " + i);
+            question.setQuizId(1);
+            question.addResponse(new Response("True", i != 1));
+            question.addResponse(new Response("False", i == 1));
+            daoQuestion.saveQuestion(question);
+        }
+
+        List<Question> expected = daoQuestion.searchQuestionByTopic("1");
+        QuestionBlock block = daoQuestion.loadQuestionBlock("1");
+
+        assertEquals(expected.size(), block.size());
+        for (int i = 0; i < expected.size(); i++) {
+            QuestionBlock.QuestionView question = block.question(i);
+            assertEquals(expected.get(i).getId(), question.getId());
+            assertEquals(expected.get(i).getContent(), question.getContent());
+            assertEquals(expected.get(i).getQuizId(), question.getQuizId());
+            List<QuestionBlock.ResponseView> responses = question.getResponses();
+            assertEquals(expected.get(i).getResponses().size(), responses.size());
+            for (int j = 0; j < responses.size(); j++) {
+                Response response = expected.get(i).getResponses().get(j);
+                assertEquals(response.getId(), responses.get(j).getId());
+                assertEquals(response.getText(), responses.get(j).getText());
+                assertEquals(response.isCorrect(), responses.get(j).isCorrect());
+            }
+        }
+        assertEquals(0, daoQuestion.loadQuestionBlock("no such topic").size());
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "DELETE FROM question WHERE quiz_id = 1")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
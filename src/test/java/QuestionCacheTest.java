@@ -0,0 +1,135 @@
+import org.example.CachingDaoQuestion;
+import org.example.CircuitBreaker;
+import org.example.DaoException;
+import org.example.DaoExecutor;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.QuestionCache;
+import org.example.Response;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuestionCacheTest class contains unit tests for the QuestionCache class.
+ */
+public class QuestionCacheTest {
+
+    private static Question question(int id, String content) {
+        Question question = new Question();
+        question.setId(id);
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Response", true));
+        return question;
+    }
+
+    /**
+     * Tests that cached questions cannot be changed through returned or stored references.
+     */
+    @Test
+    public void testCopyOnReadAndWrite() {
+        QuestionCache cache = new QuestionCache(10, 1, TimeUnit.MINUTES);
+        Question original = question(1, "Question 1");
+        cache.put("1", List.of(original), cache.generation());
+
+        // Mutating the stored object and a returned copy must not affect the cache.
+        original.setContent("Changed");
+        List<Question> first = cache.get("1");
+        first.get(0).getResponses().get(0).setText("Changed");
+
+        List<Question> second = cache.get("1");
+        assertEquals("Question 1", second.get(0).getContent());
+        assertEquals("Response", second.get(0).getResponses().get(0).getText());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    /**
+     * Tests that the least recently used topic is evicted when the cache is full.
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        QuestionCache cache = new QuestionCache(2, 1, TimeUnit.MINUTES);
+        cache.put("1", List.of(question(1, "Question 1")), cache.generation());
+        cache.put("2", List.of(question(2, "Question 2")), cache.generation());
+        // Touch topic 1 so topic 2 becomes the least recently used.
+        assertNotNull(cache.get("1"));
+        cache.put("3", List.of(question(3, "Question 3")), cache.generation());
+
+        assertNull(cache.get("2"));
+        assertNotNull(cache.get("1"));
+        assertNotNull(cache.get("3"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests invalidation by question id and that loads racing with an invalidation are discarded.
+     */
+    @Test
+    public void testInvalidation() {
+        QuestionCache cache = new QuestionCache(10, 1, TimeUnit.MINUTES);
+        cache.put("1", List.of(question(1, "Question 1")), cache.generation());
+        cache.invalidateQuestion(1);
+        assertNull(cache.get("1"));
+
+        long generation = cache.generation();
+        cache.invalidate("1");
+        cache.put("1", List.of(question(1, "Question 1")), generation);
+        assertNull(cache.get("1"));
+    }
+
+    /**
+     * Tests that entries expire after their time to live.
+     */
+    @Test
+    public void testExpiry() {
+        QuestionCache cache = new QuestionCache(10, 0, TimeUnit.NANOSECONDS);
+        cache.put("1", List.of(question(1, "Question 1")), cache.generation());
+        assertNull(cache.get("1"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that a topic whose load failed is not cached as a topic without questions.
+     */
+    @Test
+    public void testFailedLoadIsNotCached() {
+        // Nothing listens on port 1, so every load fails.
+        CachingDaoQuestion daoQuestion = new CachingDaoQuestion(DatabaseConfig.configureDataSource("localhost", 1),
+                new QuestionCache(10, 1, TimeUnit.MINUTES));
+        daoQuestion.setExecutor(new DaoExecutor(1, 0, 0, null));
+        assertThrows(DaoException.class, () -> daoQuestion.searchQuestionByTopic("1"));
+        assertEquals(0, daoQuestion.getCache().size());
+
+        daoQuestion.setDataSource(DatabaseConfig.configureDataSource());
+        daoQuestion.searchQuestionByTopic("1");
+        assertEquals(1, daoQuestion.getCache().size());
+    }
+
+    /**
+     * Tests that an open circuit fails a cache miss instead of returning an empty list, and
+     * that a change whose topic cannot be looked up drops every cached topic.
+     */
+    @Test
+    public void testOpenCircuitFailsMissAndDropsCache() {
+        CachingDaoQuestion daoQuestion = new CachingDaoQuestion(DatabaseConfig.configureDataSource(),
+                new QuestionCache(10, 1, TimeUnit.MINUTES));
+        daoQuestion.searchQuestionByTopic("1");
+        assertEquals(1, daoQuestion.getCache().size());
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 60_000);
+        circuitBreaker.recordFailure(new SQLException("Connection refused", "08001"));
+        daoQuestion.setExecutor(new DaoExecutor(1, 0, 0, circuitBreaker));
+        DaoException exception = assertThrows(DaoException.class, () -> daoQuestion.searchQuestionByTopic("2"));
+        assertTrue(exception.isCircuitOpen());
+        assertEquals(1, daoQuestion.getCache().size());
+
+        daoQuestion.questionSaved(question(1, "Remote"));
+        assertEquals(0, daoQuestion.getCache().size());
+    }
+}
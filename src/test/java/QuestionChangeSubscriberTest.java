@@ -0,0 +1,211 @@
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.QuestionChangeListener;
+import org.example.QuestionChangeSubscriber;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuestionChangeSubscriberTest class contains unit tests for publishing question writes
+ * with NOTIFY and receiving them with the QuestionChangeSubscriber class.
+ */
+public class QuestionChangeSubscriberTest {
+
+    private static final String CHANNEL = "question_changes_test";
+
+    private PGSimpleDataSource dataSource;
+    private DaoQuestion daoQuestion;
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    private final QuestionChangeListener recorder = new QuestionChangeListener() {
+        @Override
+        public void questionSaved(Question question) {
+            events.add("saved " + question.getId() + " quiz " + question.getQuizId());
+        }
+
+        @Override
+        public void questionUpdated(Question question) {
+            events.add("updated " + question.getId() + " quiz " + question.getQuizId());
+        }
+
+        @Override
+        public void questionDeleted(int questionId) {
+            events.add("deleted " + questionId);
+        }
+
+        @Override
+        public void questionsDeleted(int[] questionIds) {
+            events.add("deleted " + Arrays.toString(questionIds));
+        }
+
+        @Override
+        public void questionsMoved(int[] questionIds, int targetQuizId) {
+            events.add("moved " + Arrays.toString(questionIds) + " quiz " + targetQuizId);
+        }
+
+        @Override
+        public void changesMissed() {
+            events.add("missed");
+        }
+    };
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+        daoQuestion = new DaoQuestion(dataSource);
+        daoQuestion.setChangeChannel(CHANNEL);
+    }
+
+    private Question savedQuestion(String content) {
+        Question question = new Question();
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        daoQuestion.saveQuestion(question);
+        return question;
+    }
+
+    /**
+     * Tests that every kind of question write reaches a subscriber, in commit order.
+     * @throws InterruptedException If the test is interrupted while waiting.
+     */
+    @Test
+    public void testWritesAreDelivered() throws InterruptedException {
+        // Accept this process's own changes, as the writer runs in the same JVM.
+        try (QuestionChangeSubscriber subscriber = new QuestionChangeSubscriber(dataSource, CHANNEL, null)) {
+            subscriber.addQuestionChangeListener(recorder);
+            assertTrue(subscriber.awaitListening(5, TimeUnit.SECONDS));
+
+            Question first = savedQuestion("First");
+            Question second = savedQuestion("Second");
+            first.setContent("First edited");
+            daoQuestion.updateQuestion(first);
+            daoQuestion.moveQuestions(new int[]{first.getId(), second.getId()}, 2);
+            daoQuestion.deleteQuestion(first.getId());
+            daoQuestion.deleteQuestions(new int[]{second.getId()});
+
+            assertEquals("saved " + first.getId() + " quiz 1", events.poll(5, TimeUnit.SECONDS));
+            assertEquals("saved " + second.getId() + " quiz 1", events.poll(5, TimeUnit.SECONDS));
+            assertEquals("updated " + first.getId() + " quiz 1", events.poll(5, TimeUnit.SECONDS));
+            assertEquals("moved [" + first.getId() + ", " + second.getId() + "] quiz 2", events.poll(5, TimeUnit.SECONDS));
+            assertEquals("deleted " + first.getId(), events.poll(5, TimeUnit.SECONDS));
+            assertEquals("deleted " + second.getId(), events.poll(5, TimeUnit.SECONDS));
+            assertEquals(6, subscriber.getReceivedCount());
+        }
+    }
+
+    /**
+     * Tests that a subscriber skips the changes of its own process and reports
+     * missed changes after its connection is lost.
+     * @throws Exception If a database error occurs or the test is interrupted.
+     */
+    @Test
+    public void testOwnChangesSkippedAndReconnect() throws Exception {
+        try (QuestionChangeSubscriber subscriber = new QuestionChangeSubscriber(dataSource, CHANNEL)) {
+            subscriber.addQuestionChangeListener(recorder);
+            assertTrue(subscriber.awaitListening(5, TimeUnit.SECONDS));
+
+            savedQuestion("Own change");
+            assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(
+                         "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = ?")) {
+                preparedStatement.setString(1, "LISTEN " + CHANNEL);
+                preparedStatement.executeQuery().close();
+            }
+            assertEquals("missed", events.poll(10, TimeUnit.SECONDS));
+            assertEquals(1, subscriber.getReconnectCount());
+        }
+    }
+
+    /**
+     * Tests that a malformed payload and a failing listener do not stop the subscriber.
+     * @throws Exception If a database error occurs or the test is interrupted.
+     */
+    @Test
+    public void testBadPayloadAndFailingListenerSurvived() throws Exception {
+        try (QuestionChangeSubscriber subscriber = new QuestionChangeSubscriber(dataSource, CHANNEL, null)) {
+            subscriber.addQuestionChangeListener(new QuestionChangeListener() {
+                @Override
+                public void questionSaved(Question question) {
+                    throw new IllegalStateException("Listener failure");
+                }
+
+                @Override
+                public void questionUpdated(Question question) {
+                }
+
+                @Override
+                public void questionDeleted(int questionId) {
+                }
+
+                @Override
+                public void questionsDeleted(int[] questionIds) {
+                }
+
+                @Override
+                public void questionsMoved(int[] questionIds, int targetQuizId) {
+                }
+
+                @Override
+                public void changesMissed() {
+                }
+            });
+            subscriber.addQuestionChangeListener(recorder);
+            assertTrue(subscriber.awaitListening(5, TimeUnit.SECONDS));
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                preparedStatement.setString(1, CHANNEL);
+                preparedStatement.setString(2, "other-node|deleted|0|not-a-number");
+                preparedStatement.executeQuery().close();
+            }
+            Question question = savedQuestion("After the bad payload");
+
+            assertEquals("saved " + question.getId() + " quiz 1", events.poll(5, TimeUnit.SECONDS));
+            assertEquals(1, subscriber.getMalformedCount());
+            assertEquals(0, subscriber.getReconnectCount());
+        }
+    }
+
+    /**
+     * Tests that an invalid channel name is rejected before it reaches SQL.
+     */
+    @Test
+    public void testInvalidChannelRejected() {
+        assertThrows(IllegalArgumentException.class, () -> daoQuestion.setChangeChannel("changes; DROP TABLE quiz"));
+        assertEquals(List.of(), List.copyOf(events));
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id IN (1, 2)")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.Quiz;
+import org.example.QuizEngine;
+import org.example.Response;
+import org.example.TopicBank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuizEngineTest class contains unit tests for the QuizEngine and TopicBank classes.
+ */
+public class QuizEngineTest {
+
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+    }
+
+    private static Quiz quiz(int id, String topic, int difficulty, int firstQuestionId, int questionCount) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setTopic(topic);
+        quiz.setDifficulty(difficulty);
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            Question question = new Question();
+            question.setId(firstQuestionId + i);
+            question.setQuizId(id);
+            question.setContent("Question " + (firstQuestionId + i));
+            Response right = new Response("True", true);
+            right.setId((firstQuestionId + i) * 10);
+            Response wrong = new Response("False", false);
+            wrong.setId((firstQuestionId + i) * 10 + 1);
+            question.addResponse(right);
+            question.addResponse(wrong);
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    /**
+     * Tests that draws are distinct, respect the difficulty and expose the loaded data.
+     */
+    @Test
+    public void testDrawFromLoadedQuizzes() {
+        QuizEngine quizEngine = new QuizEngine(null);
+        quizEngine.load(List.of(quiz(1, "history", 1, 1, 20), quiz(2, "history", 3, 21, 5)));
+
+        TopicBank bank = quizEngine.topic("history");
+        assertEquals(25, bank.size());
+        int index = bank.indexOf(7);
+        assertEquals("Question 7", bank.content(index));
+        assertEquals(2, bank.responseCount(index));
+        assertTrue(bank.isCorrect(index, 0));
+        assertFalse(bank.isCorrect(index, 1));
+        assertEquals(71, bank.responseId(index, 1));
+
+        // Both the sparse and the dense draw must return distinct questions of the requested difficulty.
+        Random random = new Random(42);
+        int[] drawn = new int[25];
+        for (int count : new int[]{3, 15, 20, 25}) {
+            int n = bank.draw(1, count, drawn, random);
+            assertEquals(Math.min(count, 20), n);
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < n; i++) {
+                assertTrue(seen.add(drawn[i]));
+                assertEquals(1, bank.difficulty(drawn[i]));
+            }
+        }
+        assertEquals(5, bank.draw(3, 10, drawn, random));
+        assertEquals(0, bank.draw(2, 10, drawn, random));
+        assertEquals(10, quizEngine.drawQuestions("history", TopicBank.ANY_DIFFICULTY, 10).size());
+    }
+
+    /**
+     * Tests that the engine picks up questions written through a DaoQuestion it listens to.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testRefreshOnDaoWrites() throws SQLException {
+        QuizEngine quizEngine = new QuizEngine(dataSource);
+        quizEngine.load();
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        daoQuestion.addQuestionChangeListener(quizEngine);
+
+        Question question = new Question();
+        question.setContent("Engine Question");
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        daoQuestion.saveQuestion(question);
+
+        TopicBank bank = quizEngine.topic("1");
+        assertNotNull(bank);
+        assertTrue(bank.indexOf(question.getId()) >= 0);
+
+        daoQuestion.deleteQuestion(question.getId());
+        assertNull(quizEngine.topic("1"));
+    }
+
+    /**
+     * Tests that a change applied while a topic is being refreshed is not overwritten by
+     * the rows the refresh read before the change.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testChangeDuringRefreshKept() throws SQLException {
+        AtomicReference<Runnable> afterRead = new AtomicReference<>();
+        // The hook runs when the refresh closes its connection: after the read, before the swap.
+        DataSource hookedDataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(dataSource, args);
+                    if (!method.getName().equals("getConnection")) {
+                        return result;
+                    }
+                    Connection connection = (Connection) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (connectionProxy, connectionMethod, connectionArgs) -> {
+                                Object value = connectionMethod.invoke(connection, connectionArgs);
+                                Runnable hook = connectionMethod.getName().equals("close") ? afterRead.getAndSet(null) : null;
+                                if (hook != null) {
+                                    hook.run();
+                                }
+                                return value;
+                            });
+                });
+        QuizEngine quizEngine = new QuizEngine(hookedDataSource);
+        DaoQuestion daoQuestion = new DaoQuestion(dataSource);
+        Question first = new Question();
+        first.setContent("Before the refresh");
+        first.setQuizId(1);
+        daoQuestion.saveQuestion(first);
+        quizEngine.load();
+
+        Question concurrent = new Question();
+        concurrent.setContent("During the refresh");
+        concurrent.setQuizId(1);
+        afterRead.set(() -> {
+            daoQuestion.saveQuestion(concurrent);
+            quizEngine.questionSaved(concurrent);
+        });
+        quizEngine.refreshTopic("1");
+
+        assertNull(afterRead.get());
+        TopicBank bank = quizEngine.topic("1");
+        assertTrue(bank.indexOf(first.getId()) >= 0);
+        assertTrue(bank.indexOf(concurrent.getId()) >= 0);
+    }
+
+    /**
+     * Tests that writes are applied to the loaded topics in memory, without a database.
+     */
+    @Test
+    public void testChangesAppliedWithoutReload() {
+        QuizEngine quizEngine = new QuizEngine(null);
+        quizEngine.load(List.of(quiz(1, "history", 1, 1, 3), quiz(2, "science", 2, 11, 2)));
+        TopicBank before = quizEngine.topic("history");
+
+        Question added = quiz(1, "history", 1, 5, 1).getQuestions().get(0);
+        quizEngine.questionSaved(added);
+        TopicBank history = quizEngine.topic("history");
+        assertEquals(4, history.size());
+        assertEquals(3, before.size());
+        assertEquals(1, history.difficulty(history.indexOf(5)));
+
+        Question edited = history.question(history.indexOf(2));
+        edited.setContent("Edited");
+        edited.setQuizId(2);
+        quizEngine.questionUpdated(edited);
+        assertTrue(quizEngine.topic("history").indexOf(2) < 0);
+        TopicBank science = quizEngine.topic("science");
+        assertEquals("Edited", science.content(science.indexOf(2)));
+        assertEquals(2, science.difficulty(science.indexOf(2)));
+        assertEquals(21, science.responseId(science.indexOf(2), 1));
+
+        quizEngine.questionsMoved(new int[]{11, 12}, 1);
+        assertEquals(1, quizEngine.topic("science").size());
+        assertEquals(1, quizEngine.topic("history").difficulty(quizEngine.topic("history").indexOf(12)));
+
+        quizEngine.questionsDeleted(new int[]{2, 5});
+        assertNull(quizEngine.topic("science"));
+        assertEquals(4, quizEngine.topic("history").size());
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id IN (?, ?)")) {
+                preparedStatement.setInt(1, 1);
+                preparedStatement.setInt(2, 2);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
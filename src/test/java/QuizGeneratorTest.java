@@ -0,0 +1,145 @@
+import org.example.Question;
+import org.example.Quiz;
+import org.example.QuizEngine;
+import org.example.QuizGenerator;
+import org.example.QuizRequest;
+import org.example.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuizGeneratorTest class contains unit tests for the QuizGenerator class.
+ */
+public class QuizGeneratorTest {
+
+    private QuizEngine quizEngine;
+
+    /**
+     * Loads a topic with 100 questions of four responses for each of the difficulties 1 to 3.
+     * The correct response is always stored first.
+     */
+    @BeforeEach
+    public void setUp() {
+        List<Quiz> quizzes = new ArrayList<>();
+        int nextId = 1;
+        for (int difficulty = 1; difficulty <= 3; difficulty++) {
+            Quiz quiz = new Quiz();
+            quiz.setId(difficulty);
+            quiz.setTopic("generated");
+            quiz.setDifficulty(difficulty);
+            List<Question> questions = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Question question = new Question();
+                question.setId(nextId++);
+                question.setQuizId(difficulty);
+                question.setContent("Question " + question.getId());
+                for (int j = 0; j < 4; j++) {
+                    Response response = new Response("Response " + j, j == 0);
+                    response.setId(nextId++);
+                    question.addResponse(response);
+                }
+                questions.add(question);
+            }
+            quiz.setQuestions(questions);
+            quizzes.add(quiz);
+        }
+        quizEngine = new QuizEngine(null);
+        quizEngine.load(quizzes);
+    }
+
+    /**
+     * Tests the difficulty mix, the question order and the balance of correct-answer positions.
+     */
+    @Test
+    public void testDifficultyMixAndBalancedAnswers() {
+        QuizGenerator generator = new QuizGenerator(quizEngine);
+        Quiz quiz = generator.generate(List.of(new QuizRequest("alice", "generated", Map.of(1, 10, 2, 20, 3, 10))), 1)
+                .get(0);
+
+        List<Question> questions = quiz.getQuestions();
+        assertEquals(40, questions.size());
+        assertEquals(2, quiz.getDifficulty());
+        int[] difficultyCounts = new int[4];
+        int[] correctPositions = new int[4];
+        int previousQuizId = 0;
+        for (Question question : questions) {
+            // Quiz ids equal difficulties here, and questions come in ascending difficulty.
+            assertTrue(question.getQuizId() >= previousQuizId);
+            previousQuizId = question.getQuizId();
+            difficultyCounts[question.getQuizId()]++;
+            assertEquals(4, question.getResponses().size());
+            for (int i = 0; i < 4; i++) {
+                if (question.getResponses().get(i).isCorrect()) {
+                    correctPositions[i]++;
+                }
+            }
+        }
+        assertArrayEquals(new int[]{0, 10, 20, 10}, difficultyCounts);
+        assertArrayEquals(new int[]{10, 10, 10, 10}, correctPositions);
+    }
+
+    /**
+     * Tests that a player never gets a question twice, across quizzes and calls,
+     * until the topic runs out.
+     */
+    @Test
+    public void testNoRepeatsPerPlayer() {
+        QuizGenerator generator = new QuizGenerator(quizEngine);
+        List<QuizRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(new QuizRequest("bob", "generated", Map.of(1, 30)));
+            requests.add(new QuizRequest("carol", "generated", Map.of(1, 30)));
+        }
+        List<Quiz> quizzes = new ArrayList<>(generator.generate(requests, 7));
+        quizzes.addAll(generator.generate(List.of(new QuizRequest("bob", "generated", Map.of(1, 30))), 8));
+
+        Set<Integer> bobSeen = new HashSet<>();
+        Set<Integer> carolSeen = new HashSet<>();
+        for (int i = 0; i < quizzes.size(); i++) {
+            Set<Integer> seen = i % 2 == 0 || i == 6 ? bobSeen : carolSeen;
+            for (Question question : quizzes.get(i).getQuestions()) {
+                assertTrue(seen.add(question.getId()), "question " + question.getId() + " repeated");
+            }
+        }
+        // Bob has used all 100 difficulty 1 questions, so his fourth quiz only got the last 10.
+        assertEquals(10, quizzes.get(6).getQuestions().size());
+        assertEquals(100, generator.getSeenCount("bob"));
+        assertEquals(90, generator.getSeenCount("carol"));
+
+        generator.forgetPlayer("bob");
+        assertEquals(30, generator.generate(List.of(new QuizRequest("bob", "generated", Map.of(1, 30)))).get(0)
+                .getQuestions().size());
+    }
+
+    /**
+     * Tests that the same seed gives the same quizzes whatever the parallelism.
+     */
+    @Test
+    public void testSameSeedSameQuizzes() {
+        List<QuizRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(new QuizRequest("player" + i, "generated", Map.of(1, 5, 3, 5)));
+        }
+        List<Quiz> sequential = new QuizGenerator(quizEngine, new ForkJoinPool(1)).generate(requests, 42);
+        List<Quiz> parallel = new QuizGenerator(quizEngine, new ForkJoinPool(4)).generate(requests, 42);
+
+        for (int i = 0; i < requests.size(); i++) {
+            List<Question> expected = sequential.get(i).getQuestions();
+            List<Question> actual = parallel.get(i).getQuestions();
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getId(), actual.get(j).getId());
+                assertEquals(expected.get(j).getResponses().get(0).getId(), actual.get(j).getResponses().get(0).getId());
+            }
+        }
+    }
+}
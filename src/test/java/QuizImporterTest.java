@@ -0,0 +1,113 @@
+import org.example.DatabaseConfig;
+import org.example.ImportResult;
+import org.example.Question;
+import org.example.Quiz;
+import org.example.QuizImporter;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QuizImporterTest class contains unit tests for the QuizImporter class.
+ */
+public class QuizImporterTest {
+
+    private static final String TOPIC = "import-test";
+
+    private QuizImporter quizImporter;
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+
+        // A small chunk size makes the import span several COPY rounds.
+        quizImporter = new QuizImporter(dataSource, 2);
+    }
+
+    /**
+     * Tests that imported quizzes, questions and responses get ids and are stored.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testImportQuizzes() throws SQLException {
+        // Create five quizzes with three questions and two responses each, one containing special characters.
+        List<Quiz> quizzes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Quiz quiz = new Quiz();
+            quiz.setTopic(TOPIC);
+            quiz.setDifficulty(i);
+            List<Question> questions = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Question question = new Question();
+                question.setContent("Question " + i + "\t" + j + "\\n");
+                question.addResponse(new Response("Yes", true));
+                question.addResponse(new Response("No\nreally", false));
+                questions.add(question);
+            }
+            quiz.setQuestions(questions);
+            quizzes.add(quiz);
+        }
+
+        ImportResult result = quizImporter.importQuizzes(quizzes);
+
+        // Assert that the reported counts match the imported graph.
+        assertEquals(5, result.getQuizCount());
+        assertEquals(15, result.getQuestionCount());
+        assertEquals(30, result.getResponseCount());
+        assertEquals(50, result.getRowCount());
+
+        // Assert that generated ids were written back and link the graph together.
+        Quiz firstQuiz = quizzes.get(0);
+        Question firstQuestion = firstQuiz.getQuestions().get(0);
+        assertTrue(firstQuiz.getId() > 0);
+        assertEquals(firstQuiz.getId(), firstQuestion.getQuizId());
+        assertTrue(firstQuestion.getResponses().get(0).getId() > 0);
+
+        // Verify that the rows exist in the database with their text preserved.
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT content FROM question WHERE id = ?");
+            statement.setInt(1, firstQuestion.getId());
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals(firstQuestion.getContent(), resultSet.getString("content"));
+
+            PreparedStatement responseStatement = connection.prepareStatement("SELECT text, question_id FROM response WHERE id = ?");
+            responseStatement.setInt(1, firstQuestion.getResponses().get(1).getId());
+            ResultSet responseResultSet = responseStatement.executeQuery();
+            assertTrue(responseResultSet.next());
+            assertEquals("No\nreally", responseResultSet.getString("text"));
+            assertEquals(firstQuestion.getId(), responseResultSet.getInt("question_id"));
+        }
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection()) {
+            // Deleting the quizzes cascades to their questions and responses.
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM quiz WHERE topic = ?")) {
+                preparedStatement.setString(1, TOPIC);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
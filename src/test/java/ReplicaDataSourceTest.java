@@ -0,0 +1,171 @@
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.ReadRouting;
+import org.example.ReplicaDataSource;
+import org.example.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The ReplicaDataSourceTest class contains unit tests for read routing with the ReplicaDataSource class.
+ * The replicas are read-only connections to the local database, so a write routed to one would fail.
+ */
+public class ReplicaDataSourceTest {
+
+    private PGSimpleDataSource primary;
+
+    private static PGSimpleDataSource dataSource(int port, boolean readOnly) {
+        PGSimpleDataSource dataSource = DatabaseConfig.configureDataSource("localhost", port);
+        dataSource.setReadOnly(readOnly);
+        dataSource.setConnectTimeout(2);
+        return dataSource;
+    }
+
+    private static Question question(String content) {
+        Question question = new Question();
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        return question;
+    }
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        primary = dataSource(5432, false);
+    }
+
+    /**
+     * Tests that reads alternate between the replicas while writes go to the primary.
+     */
+    @Test
+    public void testRoundRobinReadsAndPrimaryWrites() {
+        ReplicaDataSource replicas = new ReplicaDataSource(primary,
+                List.of(dataSource(5432, true), dataSource(5432, true)), ReadRouting.ROUND_ROBIN);
+        DaoQuestion daoQuestion = new DaoQuestion(primary);
+        daoQuestion.setReadDataSource(replicas);
+
+        Question question = question("Routed Question");
+        assertTrue(daoQuestion.saveQuestion(question));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(daoQuestion.searchQuestionByTopic("1").stream().anyMatch(q -> q.getId() == question.getId()));
+        }
+
+        assertEquals(2, replicas.getReadCount(0));
+        assertEquals(2, replicas.getReadCount(1));
+        assertEquals(0, replicas.getPrimaryReadCount());
+        assertEquals(0, replicas.getBorrowedCount(0) + replicas.getBorrowedCount(1));
+    }
+
+    /**
+     * Tests that least-loaded routing avoids a replica with a borrowed connection
+     * and that unreachable replicas are skipped.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testLeastLoadedAndUnreachableReplicas() throws SQLException {
+        ReplicaDataSource replicas = new ReplicaDataSource(primary,
+                List.of(dataSource(5432, true), dataSource(5432, true)), ReadRouting.LEAST_LOADED);
+        try (Connection held = replicas.getConnection()) {
+            int busy = replicas.getBorrowedCount(0) == 1 ? 0 : 1;
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = replicas.getConnection()) {
+                    assertEquals(1, replicas.getBorrowedCount(1 - busy));
+                }
+            }
+            assertEquals(1, replicas.getReadCount(busy));
+            assertEquals(3, replicas.getReadCount(1 - busy));
+        }
+        assertEquals(0, replicas.getBorrowedCount(0) + replicas.getBorrowedCount(1));
+
+        // Port 1 has no server; the reachable replica serves, and without one the primary does.
+        ReplicaDataSource partlyDown = new ReplicaDataSource(primary,
+                List.of(dataSource(1, true), dataSource(5432, true)), ReadRouting.ROUND_ROBIN);
+        for (int i = 0; i < 2; i++) {
+            partlyDown.getConnection().close();
+        }
+        assertEquals(2, partlyDown.getReadCount(1));
+        ReplicaDataSource allDown = new ReplicaDataSource(primary, List.of(dataSource(1, true)), ReadRouting.ROUND_ROBIN);
+        allDown.getConnection().close();
+        assertEquals(1, allDown.getPrimaryReadCount());
+    }
+
+    /**
+     * Tests that the pools configured for a primary and its replicas start while a replica
+     * is down, and that the replica is then skipped instead of being waited on for every read.
+     * @throws SQLException If a database error occurs.
+     */
+    @Test
+    public void testPooledReplicaDownAtStartup() throws SQLException {
+        try (ReplicaDataSource replicas = DatabaseConfig.configureReplicatedDataSource(
+                List.of("localhost:1", "localhost:5432"), ReadRouting.ROUND_ROBIN)) {
+            // The first read waits for the pool of the down replica to give up, then marks it unhealthy.
+            replicas.getConnection().close();
+            assertFalse(replicas.isHealthy(0));
+            assertTrue(replicas.isHealthy(1));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 4; i++) {
+                replicas.getConnection().close();
+            }
+            assertTrue((System.nanoTime() - start) / 1_000_000 < DatabaseConfig.ACQUIRE_TIMEOUT_MS);
+            assertEquals(5, replicas.getReadCount(1));
+            assertEquals(0, replicas.getReadCount(0));
+        }
+    }
+
+    /**
+     * Tests that a session records the log position of its writes and keeps reading
+     * from replicas that have replayed it.
+     */
+    @Test
+    public void testReadYourWritesSession() {
+        ReplicaDataSource replicas = new ReplicaDataSource(primary, List.of(dataSource(5432, true)), ReadRouting.ROUND_ROBIN);
+        DaoQuestion daoQuestion = new DaoQuestion(primary);
+        daoQuestion.setReadDataSource(replicas);
+        DaoQuestion session = daoQuestion.openSession();
+        assertNull(session.getLastWriteLsn());
+
+        Question question = question("Session Question");
+        session.saveQuestion(question);
+        String firstLsn = session.getLastWriteLsn();
+        assertNotNull(firstLsn);
+        question.setContent("Session Question edited");
+        session.updateQuestion(question);
+        assertNotEquals(firstLsn, session.getLastWriteLsn());
+        // The DAO the session came from does not track writes.
+        assertNull(daoQuestion.getLastWriteLsn());
+
+        // The local server is not a standby, so it counts as caught up and the replica serves the read.
+        Question read = session.searchQuestionByTopic("1").stream()
+                .filter(q -> q.getId() == question.getId()).findFirst().orElseThrow();
+        assertEquals("Session Question edited", read.getContent());
+        assertEquals(1, replicas.getReadCount(0));
+        assertEquals(0, replicas.getPrimaryReadCount());
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = primary.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM question WHERE quiz_id = 1")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
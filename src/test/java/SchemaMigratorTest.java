@@ -0,0 +1,61 @@
+import org.example.DatabaseConfig;
+import org.example.SchemaMigrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The SchemaMigratorTest class contains unit tests for the SchemaMigrator class.
+ */
+public class SchemaMigratorTest {
+
+    private PGSimpleDataSource dataSource;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+    }
+
+    /**
+     * Tests that migrating records every version, creates the indexes and is idempotent.
+     * @throws SQLException If a database error occurs.
+     * @throws IOException If the migration scripts cannot be read.
+     */
+    @Test
+    public void testMigrate() throws SQLException, IOException {
+        SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource);
+        schemaMigrator.migrate();
+
+        // A second run finds nothing left to apply.
+        assertTrue(schemaMigrator.migrate().isEmpty());
+
+        try (Connection connection = dataSource.getConnection()) {
+            // Assert that the index migration has been recorded.
+            PreparedStatement statement = connection.prepareStatement("SELECT description FROM schema_version WHERE version = ?");
+            statement.setInt(1, 2);
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertEquals("index foreign keys", resultSet.getString("description"));
+
+            // Assert that the foreign key indexes exist.
+            PreparedStatement indexStatement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL");
+            for (String index : new String[]{"quiz_topic_idx", "question_quiz_id_idx", "response_question_id_idx"}) {
+                indexStatement.setString(1, index);
+                ResultSet indexResultSet = indexStatement.executeQuery();
+                assertTrue(indexResultSet.next());
+                assertTrue(indexResultSet.getBoolean(1), index);
+            }
+        }
+    }
+}
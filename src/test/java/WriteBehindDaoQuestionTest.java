@@ -0,0 +1,177 @@
+import org.example.DaoException;
+import org.example.DaoExecutor;
+import org.example.DaoQuestion;
+import org.example.DatabaseConfig;
+import org.example.Question;
+import org.example.Response;
+import org.example.WriteBehindDaoQuestion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The WriteBehindDaoQuestionTest class contains unit tests for the WriteBehindDaoQuestion class.
+ */
+public class WriteBehindDaoQuestionTest {
+
+    private PGSimpleDataSource dataSource;
+    private DaoQuestion daoQuestion;
+
+    /**
+     * Sets up the test environment before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        dataSource = DatabaseConfig.configureDataSource();
+        daoQuestion = new DaoQuestion(dataSource);
+    }
+
+    private Question savedQuestion(String content) {
+        Question question = new Question();
+        question.setContent(content);
+        question.setQuizId(1);
+        question.addResponse(new Response("Response 1", true));
+        daoQuestion.saveQuestion(question);
+        return question;
+    }
+
+    private static Question find(List<Question> questions, int questionId) {
+        return questions.stream().filter(q -> q.getId() == questionId).findFirst().orElse(null);
+    }
+
+    /**
+     * Tests that repeated updates are merged, visible to topic searches before the flush
+     * and written once when the DAO is closed.
+     */
+    @Test
+    public void testUpdatesAreCollapsedAndReadBack() {
+        Question question = savedQuestion("Draft 0");
+
+        try (WriteBehindDaoQuestion writeBehind = new WriteBehindDaoQuestion(dataSource, 100, 60_000)) {
+            for (int i = 1; i <= 5; i++) {
+                question.setContent("Draft " + i);
+                writeBehind.updateQuestion(question);
+            }
+            // Move the question to quiz 2 in the last edit; it must leave topic 1 and appear in topic 2.
+            question.setQuizId(2);
+            question.getResponses().get(0).setText("Response 2");
+            writeBehind.updateQuestion(question);
+
+            assertEquals(1, writeBehind.getPendingCount());
+            assertEquals(5, writeBehind.getMetrics().getCollapsedWrites());
+            assertNull(find(writeBehind.searchQuestionByTopic("1"), question.getId()));
+            Question buffered = find(writeBehind.searchQuestionByTopic("2"), question.getId());
+            assertEquals("Draft 5", buffered.getContent());
+            assertEquals("Response 2", buffered.getResponses().get(0).getText());
+
+            // Nothing reached the database yet.
+            assertEquals("Draft 0", find(daoQuestion.searchQuestionByTopic("1"), question.getId()).getContent());
+        }
+
+        Question stored = find(daoQuestion.searchQuestionByTopic("2"), question.getId());
+        assertEquals("Draft 5", stored.getContent());
+        assertEquals(1, stored.getResponses().size());
+        assertEquals("Response 2", stored.getResponses().get(0).getText());
+    }
+
+    /**
+     * Tests that a response added through a buffered update keeps its id on the next
+     * update of the same object, instead of being deleted and inserted again.
+     */
+    @Test
+    public void testAddedResponseKeepsIdAcrossFlushes() {
+        Question question = savedQuestion("With new response");
+        Response added = new Response("Response 2", false);
+        question.addResponse(added);
+
+        try (WriteBehindDaoQuestion writeBehind = new WriteBehindDaoQuestion(dataSource, 100, 60_000)) {
+            writeBehind.updateQuestion(question);
+            writeBehind.flush();
+            int responseId = added.getId();
+            assertNotEquals(0, responseId);
+
+            question.setContent("With new response, edited");
+            writeBehind.updateQuestion(question);
+            writeBehind.flush();
+            assertEquals(responseId, added.getId());
+        }
+
+        Question stored = find(daoQuestion.searchQuestionByTopic("1"), question.getId());
+        assertEquals("With new response, edited", stored.getContent());
+        assertEquals(2, stored.getResponses().size());
+        assertEquals(added.getId(), stored.getResponses().get(1).getId());
+    }
+
+    /**
+     * Tests that an update whose quiz topic cannot be read fails instead of being buffered
+     * under no topic, where searches of its own topic would not find it.
+     */
+    @Test
+    public void testUpdateFailsWhenTopicCannotBeRead() {
+        Question question = savedQuestion("Unreachable");
+
+        // Nothing listens on port 1, so the topic lookup fails.
+        try (WriteBehindDaoQuestion writeBehind = new WriteBehindDaoQuestion(
+                DatabaseConfig.configureDataSource("localhost", 1), 100, 60_000)) {
+            writeBehind.setExecutor(new DaoExecutor(1, 0, 0, null));
+            question.setContent("Unreachable edited");
+            assertThrows(DaoException.class, () -> writeBehind.updateQuestion(question));
+            assertEquals(0, writeBehind.getPendingCount());
+        }
+    }
+
+    /**
+     * Tests that reaching the size threshold flushes in the background and that a
+     * deleted question's buffered update is discarded.
+     * @throws InterruptedException If the test is interrupted while waiting.
+     */
+    @Test
+    public void testSizeThresholdFlushAndDelete() throws InterruptedException {
+        Question first = savedQuestion("First");
+        Question second = savedQuestion("Second");
+
+        try (WriteBehindDaoQuestion writeBehind = new WriteBehindDaoQuestion(dataSource, 2, 60_000)) {
+            first.setContent("First edited");
+            writeBehind.updateQuestion(first);
+            second.setContent("Second edited");
+            writeBehind.updateQuestion(second);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (writeBehind.getFlushCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, writeBehind.getFlushCount());
+            assertEquals("Second edited",
+                    find(daoQuestion.searchQuestionByTopic("1"), second.getId()).getContent());
+
+            first.setContent("First edited again");
+            writeBehind.updateQuestion(first);
+            writeBehind.deleteQuestion(first.getId());
+            assertEquals(0, writeBehind.getPendingCount());
+        }
+
+        assertNull(find(daoQuestion.searchQuestionByTopic("1"), first.getId()));
+    }
+
+    /**
+     * Cleans up test data after each test method is executed.
+     */
+    @AfterEach
+    public void cleanupTestData() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "DELETE FROM question WHERE quiz_id IN (1, 2)")) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}